@@ -0,0 +1,56 @@
+package xyz.ersut.message.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.PushRecord;
+import xyz.ersut.message.mapper.MessageRecordMapper;
+import xyz.ersut.message.mapper.PushRecordMapper;
+import xyz.ersut.message.service.clickhouse.ClickHouseBatchWriter;
+
+/**
+ * ClickHouse批量写入配置
+ *
+ * @author ersut
+ */
+@Configuration
+public class ClickHouseWriterConfig {
+
+    @Value("${message.clickhouse.writer.capacity:50000}")
+    private int capacity;
+
+    @Value("${message.clickhouse.writer.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${message.clickhouse.writer.flush-interval:1000}")
+    private long flushInterval;
+
+    @Value("${message.clickhouse.writer.submit-linger:5}")
+    private long submitLinger;
+
+    @Value("${message.clickhouse.writer.offer-timeout:5000}")
+    private long offerTimeout;
+
+    @Value("${message.clickhouse.writer.max-retries:3}")
+    private int maxRetries;
+
+    /**
+     * 消息记录批量写入器
+     */
+    @Bean
+    public ClickHouseBatchWriter<MessageRecord, Long> messageRecordBatchWriter(MessageRecordMapper messageRecordMapper) {
+        return new ClickHouseBatchWriter<>("message_record", messageRecordMapper::insertBatch, MessageRecord::getId,
+            capacity, batchSize, flushInterval, submitLinger, offerTimeout, maxRetries);
+    }
+
+    /**
+     * 推送记录批量写入器
+     * 推送记录写入后不再更新，无需按主键索引
+     */
+    @Bean
+    public ClickHouseBatchWriter<PushRecord, Long> pushRecordBatchWriter(PushRecordMapper pushRecordMapper) {
+        return new ClickHouseBatchWriter<>("push_record", pushRecordMapper::insertBatch, pushRecord -> null,
+            capacity, batchSize, flushInterval, submitLinger, offerTimeout, maxRetries);
+    }
+}
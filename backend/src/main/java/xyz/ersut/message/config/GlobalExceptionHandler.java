@@ -1,6 +1,7 @@
 package xyz.ersut.message.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
@@ -9,7 +10,9 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import xyz.ersut.message.dto.Result;
+import xyz.ersut.message.service.queue.IngestQuotaLimiter;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import java.util.stream.Collectors;
@@ -62,6 +65,17 @@ public class GlobalExceptionHandler {
         return Result.error(400, errorMessage);
     }
     
+    /**
+     * 处理超出推送频率限制异常，返回429和Retry-After
+     */
+    @ExceptionHandler(IngestQuotaLimiter.QuotaExceededException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public Result<Void> handleQuotaExceededException(IngestQuotaLimiter.QuotaExceededException e, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        log.debug("超出推送频率限制: retryAfter={}s", e.getRetryAfterSeconds());
+        return Result.error(429, e.getMessage());
+    }
+    
     /**
      * 处理运行时异常
      */
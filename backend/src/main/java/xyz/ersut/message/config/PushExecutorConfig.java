@@ -0,0 +1,45 @@
+package xyz.ersut.message.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 推送线程池配置
+ *
+ * @author ersut
+ */
+@Configuration
+public class PushExecutorConfig {
+
+    @Value("${message.push.mail.core-size:4}")
+    private int mailCoreSize;
+
+    @Value("${message.push.mail.max-size:8}")
+    private int mailMaxSize;
+
+    @Value("${message.push.mail.queue-capacity:1000}")
+    private int mailQueueCapacity;
+
+    /**
+     * 邮件探测线程池
+     * SMTP连接测试是阻塞调用，熔断探测在该线程池中执行（邮件发送由SmtpTransportPool的会话线程执行）；队列满时由调用线程执行
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pushMailTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mailCoreSize);
+        executor.setMaxPoolSize(mailMaxSize);
+        executor.setQueueCapacity(mailQueueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("push-mail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
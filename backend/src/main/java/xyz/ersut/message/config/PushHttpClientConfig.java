@@ -0,0 +1,102 @@
+package xyz.ersut.message.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpMetricsEventListener;
+import io.micrometer.core.instrument.Tags;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import xyz.ersut.message.service.push.HostConcurrencyInterceptor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 推送HTTP客户端配置
+ * 所有HTTP推送平台共用一个OkHttpClient，复用连接池中的长连接，避免突发推送时反复建立TLS连接
+ *
+ * @author ersut
+ */
+@Configuration
+public class PushHttpClientConfig {
+
+    @Value("${message.push.http.connect-timeout:10000}")
+    private long connectTimeout;
+
+    @Value("${message.push.http.read-timeout:30000}")
+    private long readTimeout;
+
+    @Value("${message.push.http.write-timeout:30000}")
+    private long writeTimeout;
+
+    @Value("${message.push.http.max-idle-connections:50}")
+    private int maxIdleConnections;
+
+    @Value("${message.push.http.keep-alive:300000}")
+    private long keepAlive;
+
+    @Value("${message.push.http.max-requests:256}")
+    private int maxRequests;
+
+    @Value("${message.push.http.max-requests-per-host:64}")
+    private int maxRequestsPerHost;
+
+    @Value("${message.push.http.per-host-acquire-timeout:30000}")
+    private long perHostAcquireTimeout;
+
+    @Value("${message.push.http.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    /**
+     * 按主机限制并发请求数的拦截器
+     */
+    @Bean
+    public HostConcurrencyInterceptor hostConcurrencyInterceptor() {
+        return new HostConcurrencyInterceptor(maxRequestsPerHost, perHostAcquireTimeout);
+    }
+
+    /**
+     * 推送HTTP客户端
+     * 服务端支持时通过ALPN协商使用HTTP/2（单连接多路复用），否则使用HTTP/1.1长连接
+     */
+    @Bean
+    public OkHttpClient pushHttpClient(HostConcurrencyInterceptor hostConcurrencyInterceptor, MeterRegistry meterRegistry) {
+        ConnectionPool connectionPool = new ConnectionPool(maxIdleConnections, keepAlive, TimeUnit.MILLISECONDS);
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        OkHttpClient client = new OkHttpClient.Builder()
+            .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+            .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+            .writeTimeout(writeTimeout, TimeUnit.MILLISECONDS)
+            .connectionPool(connectionPool)
+            .dispatcher(dispatcher)
+            .protocols(http2Enabled ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+            .addInterceptor(hostConcurrencyInterceptor)
+            // 请求耗时指标按主机聚合，避免URL中的设备密钥等参数导致指标维度膨胀
+            .eventListener(OkHttpMetricsEventListener.builder(meterRegistry, "push.http.client.requests")
+                .uriMapper(request -> request.url().host())
+                .build())
+            .build();
+
+        // 连接池指标：push.http.pool.connection.count（state=active/idle）、push.http.pool.connection.limit
+        new OkHttpConnectionPoolMetrics(connectionPool, "push.http.pool", Tags.empty(), maxIdleConnections)
+            .bindTo(meterRegistry);
+        Gauge.builder("push.http.dispatcher.running", dispatcher, Dispatcher::runningCallsCount)
+            .description("推送HTTP客户端进行中的异步请求数")
+            .register(meterRegistry);
+        Gauge.builder("push.http.dispatcher.queued", dispatcher, Dispatcher::queuedCallsCount)
+            .description("推送HTTP客户端排队中的异步请求数")
+            .register(meterRegistry);
+
+        return client;
+    }
+}
@@ -2,26 +2,36 @@ package xyz.ersut.message.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.enums.MessageLevel;
+import xyz.ersut.message.listener.MessagePushStreamListener;
 
-import java.util.concurrent.Executor;
+import java.time.Duration;
 
 /**
  * Redis配置类
  * 
  * @author ersut
  */
+@Slf4j
 @Configuration
 @EnableAsync  // 强制使用CGLIB代理
 @RequiredArgsConstructor
@@ -31,6 +41,24 @@ public class RedisConfig {
 
     private final ObjectMapper objectMapper;
 
+    /**
+     * 队列模式：stream 或 pubsub
+     */
+    @Value("${message.queue.mode:stream}")
+    private String queueMode;
+
+    /**
+     * Stream单次拉取的最大消息数
+     */
+    @Value("${message.queue.stream.batch-size:10}")
+    private int streamBatchSize;
+
+    /**
+     * Stream阻塞拉取的超时时间（毫秒）
+     */
+    @Value("${message.queue.stream.poll-timeout:2000}")
+    private long streamPollTimeout;
+
     /**
      * Redis模板配置
      */
@@ -61,8 +89,46 @@ public class RedisConfig {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
 
-        // 添加发布订阅监听器
-        container.addMessageListener(messagePushQueueListener, new ChannelTopic(CacheConstants.MESSAGE_PUSH_QUEUE));
+        // 发布订阅模式下添加推送队列监听器
+        if ("pubsub".equalsIgnoreCase(queueMode)) {
+            container.addMessageListener(messagePushQueueListener, new ChannelTopic(CacheConstants.MESSAGE_PUSH_QUEUE));
+        }
+
+        return container;
+    }
+
+    /**
+     * Redis Stream消息监听器容器
+     * 以消费组方式消费推送消息，集群内每条消息只会被一个节点处理
+     */
+    @Bean
+    @ConditionalOnProperty(name = "message.queue.mode", havingValue = "stream", matchIfMissing = true)
+    public StreamMessageListenerContainer<String, MapRecord<String, String, String>> streamMessageListenerContainer(
+            RedisConnectionFactory connectionFactory, MessagePushStreamListener messagePushStreamListener) {
+        StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+            StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                .batchSize(streamBatchSize)
+                .pollTimeout(Duration.ofMillis(streamPollTimeout))
+                .executor(new SimpleAsyncTaskExecutor("push-stream-"))
+                .errorHandler(e -> log.error("推送Stream消费异常: {}", e.getMessage(), e))
+                .build();
+
+        StreamMessageListenerContainer<String, MapRecord<String, String, String>> container =
+            StreamMessageListenerContainer.create(connectionFactory, options);
+
+        // 每个消息级别一个推送Stream，各自独立拉取，低级别积压时不影响紧急消息的拉取；
+        // 确保消费组存在，再以手动确认方式订阅
+        for (MessageLevel level : MessageLevel.values()) {
+            messagePushStreamListener.ensureGroup(level.getStreamKey());
+            container.register(
+                StreamMessageListenerContainer.StreamReadRequest
+                    .builder(StreamOffset.create(level.getStreamKey(), ReadOffset.lastConsumed()))
+                    .consumer(messagePushStreamListener.getConsumer())
+                    .autoAcknowledge(false)
+                    .cancelOnError(e -> false)
+                    .build(),
+                messagePushStreamListener);
+        }
 
         return container;
     }
@@ -2,7 +2,64 @@ package xyz.ersut.message.constant;
 
 public class CacheConstants {
 
-    // 推送消息的队列键名
+    // 推送消息的队列键名（发布订阅模式）
     public static final String MESSAGE_PUSH_QUEUE = "message:push:queue";
 
+    // 推送消息的Stream键名（Redis Streams模式）
+    public static final String MESSAGE_PUSH_STREAM = "message:push:stream";
+
+    // 推送消息Stream中存放消息体的字段名
+    public static final String MESSAGE_PUSH_STREAM_FIELD = "payload";
+
+    // 消息接收Stream键名（异步接收模式，保存到ClickHouse前的消息）
+    public static final String MESSAGE_INGEST_STREAM = "message:ingest:stream";
+
+    // 推送重试队列（有序集合，成员为 消息ID:配置ID，分值为到期时间戳毫秒）
+    public static final String MESSAGE_RETRY_ZSET = "message:retry:zset";
+
+    // 推送重试任务数据（哈希，字段为重试队列成员）
+    public static final String MESSAGE_RETRY_PAYLOAD = "message:retry:payload";
+
+    // 推送死信Stream键前缀（按用户分Stream，完整键为 前缀 + 用户ID）
+    public static final String MESSAGE_DEAD_LETTER_PREFIX = "message:deadletter:";
+
+    // 推送死信Stream中存放死信数据的字段名
+    public static final String MESSAGE_DEAD_LETTER_FIELD = "payload";
+
+    // 死信重放的下一个可用时间点（毫秒时间戳），所有重放请求共享，用于限制整体重放速率
+    public static final String MESSAGE_DEAD_LETTER_REPLAY_SLOT = "message:deadletter:replay:slot";
+
+    // 推送目标限流令牌桶键前缀（完整键为 前缀 + 平台代码:推送目标哈希）
+    public static final String PUSH_RATE_LIMIT_PREFIX = "push:ratelimit:";
+
+    // 推送幂等键前缀（完整键为 前缀 + 消息ID:推送配置ID，值0为推送中、1为已推送）
+    public static final String PUSH_DELIVERED_PREFIX = "push:delivered:";
+
+    // 失败推送补偿任务的集群锁
+    public static final String PUSH_RECONCILE_LOCK = "push:reconcile:lock";
+
+    // 失败推送补偿任务的扫描位置（格式：创建时间|推送记录ID）
+    public static final String PUSH_RECONCILE_CURSOR = "push:reconcile:cursor";
+
+    // 消息去重键前缀（完整键为 前缀 + 用户ID:消息哈希，值为首条消息ID）
+    public static final String MESSAGE_DEDUPE_PREFIX = "message:dedupe:";
+
+    // 推送接口配额计数键前缀（完整键为 前缀 + 用户ID:窗口:窗口序号）
+    public static final String INGEST_QUOTA_PREFIX = "ingest:quota:";
+
+    // 合并推送窗口键前缀（完整键为 前缀 + 推送配置ID，值为窗口开始时间）
+    public static final String PUSH_COALESCE_WINDOW_PREFIX = "push:coalesce:window:";
+
+    // 合并推送待合并消息列表键前缀（完整键为 前缀 + 推送配置ID）
+    public static final String PUSH_COALESCE_ITEMS_PREFIX = "push:coalesce:items:";
+
+    // 合并推送窗口内消息数键前缀（完整键为 前缀 + 推送配置ID）
+    public static final String PUSH_COALESCE_COUNT_PREFIX = "push:coalesce:count:";
+
+    // 合并推送到期集合（成员为推送配置ID，分值为窗口结束时间）
+    public static final String PUSH_COALESCE_DUE = "push:coalesce:due";
+
+    // 本地缓存失效广播频道（消息格式：缓存名称:键）
+    public static final String LOCAL_CACHE_INVALIDATE_CHANNEL = "cache:local:invalidate";
+
 }
@@ -1,17 +1,30 @@
 package xyz.ersut.message.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 import cn.hutool.core.util.StrUtil;
+import xyz.ersut.message.dto.MessageBatchPushResult;
 import xyz.ersut.message.dto.MessagePushRequest;
 import xyz.ersut.message.dto.Result;
 import xyz.ersut.message.service.MessageForwardService;
+import xyz.ersut.message.service.queue.IngestQuotaLimiter;
+import xyz.ersut.message.service.queue.MessageIngestQueue;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -27,7 +40,29 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class MessagePushApiController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     private final MessageForwardService messageForwardService;
+    private final ObjectMapper objectMapper;
+    private final MessageIngestQueue messageIngestQueue;
+    
+    /**
+     * 流式推送每个小批次的消息数
+     */
+    @Value("${message.push.stream.batch-size:100}")
+    private int streamBatchSize;
+    
+    /**
+     * 流式推送中小批次超出推送频率限制时的最长等待时间（毫秒），需要等待更久的行直接返回失败
+     */
+    @Value("${message.push.stream.max-quota-wait:60000}")
+    private long streamMaxQuotaWait;
+    
+    /**
+     * 批量推送单次最多的消息数（流式推送的小批次不超过该值）
+     */
+    @Value("${message.push.batch.max-size:500}")
+    private int batchMaxSize;
     
     /**
      * Bark兼容格式推送接口
@@ -69,6 +104,9 @@ public class MessagePushApiController {
                 "messageId", messageId
             ));
             
+        } catch (IngestQuotaLimiter.QuotaExceededException e) {
+            // 由全局异常处理器返回429和Retry-After
+            throw e;
         } catch (Exception e) {
             log.error("消息推送失败: userKey={}, error={}", userKey, e.getMessage(), e);
             return Result.error(400, e.getMessage());
@@ -99,6 +137,9 @@ public class MessagePushApiController {
                 "messageId", messageId
             ));
             
+        } catch (IngestQuotaLimiter.QuotaExceededException e) {
+            // 由全局异常处理器返回429和Retry-After
+            throw e;
         } catch (Exception e) {
             log.error("消息推送失败: userKey={}, error={}", userKey, e.getMessage(), e);
             return Result.error(400, e.getMessage());
@@ -113,7 +154,7 @@ public class MessagePushApiController {
      */
     @Operation(summary = "通用推送接口", description = "支持JSON格式的通用消息推送接口")
     @PostMapping("/send")
-    public Result<Map<String, Object>> sendMessage(@RequestBody MessagePushRequest pushRequest) {
+    public Result<Map<String, Object>> sendMessage(@RequestBody MessagePushRequest pushRequest, HttpServletResponse response) {
         try {
             // 参数验证
             if (StrUtil.isBlank(pushRequest.getUserKey())) {
@@ -123,17 +164,94 @@ public class MessagePushApiController {
             // 执行推送
             Long messageId = messageForwardService.pushMessage(pushRequest);
             
+            // 异步接收模式下消息已接收但尚未保存，返回202
+            if (isAsyncIngest()) {
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            }
             return Result.success("推送成功", Map.of(
                 "messageId", messageId,
                 "timestamp", System.currentTimeMillis() / 1000
             ));
             
+        } catch (IngestQuotaLimiter.QuotaExceededException e) {
+            // 由全局异常处理器返回429和Retry-After
+            throw e;
         } catch (Exception e) {
             log.error("消息推送失败: {}", e.getMessage(), e);
             return Result.error(e.getMessage());
         }
     }
     
+    /**
+     * 批量推送接口
+     * 一次请求推送多条消息，返回每条消息的消息ID或错误信息
+     * 
+     * @param pushRequests 推送请求列表
+     * @return 推送结果
+     */
+    @Operation(summary = "批量推送接口", description = "一次请求推送多条消息（数量上限由message.push.batch.max-size配置），按请求顺序返回每条消息的结果")
+    @PostMapping("/batch")
+    public Result<List<MessageBatchPushResult>> sendMessages(@RequestBody List<MessagePushRequest> pushRequests,
+                                                             HttpServletResponse response) {
+        try {
+            List<MessageBatchPushResult> results = messageForwardService.pushMessages(pushRequests);
+            if (isAsyncIngest()) {
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            }
+            long successCount = results.stream().filter(MessageBatchPushResult::getSuccess).count();
+            return Result.success("推送完成，成功" + successCount + "条，失败" + (results.size() - successCount) + "条", results);
+            
+        } catch (Exception e) {
+            log.error("批量消息推送失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 流式推送接口（NDJSON）
+     * 请求体每行一条推送请求，边读取边按小批次推送，每批处理完成后立即返回该批各行的结果（每行一个JSON）；
+     * 上一批处理完成前不会继续读取请求体，由TCP流控对生产者形成背压；小批次超出推送频率限制时，
+     * 暂停读取并等待到可重试时间后重新推送未获得配额的行。空行忽略，行号从1开始
+     * 
+     * @param request HTTP请求
+     * @param response HTTP响应
+     */
+    @Operation(summary = "流式推送接口", description = "请求体为application/x-ndjson，每行一条推送请求，按行返回推送结果")
+    @PostMapping(value = "/stream", consumes = NDJSON)
+    public void streamMessages(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(isAsyncIngest() ? HttpServletResponse.SC_ACCEPTED : HttpServletResponse.SC_OK);
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer writer = response.getWriter();
+        int batchSize = Math.max(1, Math.min(streamBatchSize, batchMaxSize));
+        List<MessagePushRequest> batch = new ArrayList<>(batchSize);
+        List<Integer> lineNumbers = new ArrayList<>(batchSize);
+        int lineNumber = 0;
+        int total = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (StrUtil.isBlank(line)) {
+                continue;
+            }
+            total++;
+            try {
+                batch.add(objectMapper.readValue(line, MessagePushRequest.class));
+                lineNumbers.add(lineNumber);
+            } catch (JsonProcessingException e) {
+                writeResult(writer, MessageBatchPushResult.failure(lineNumber, "消息格式错误: " + e.getOriginalMessage()));
+                continue;
+            }
+            if (batch.size() >= batchSize) {
+                pushStreamBatch(writer, batch, lineNumbers);
+            }
+        }
+        pushStreamBatch(writer, batch, lineNumbers);
+        log.info("流式推送完成: lines={}", total);
+    }
+    
     /**
      * 健康检查接口
      * 
@@ -149,6 +267,81 @@ public class MessagePushApiController {
         ));
     }
     
+    /**
+     * 推送一个小批次并写回各行结果
+     * 超出推送频率限制的行不立即返回失败：等待到可重试时间后重新推送，等待期间不读取请求体，
+     * 只有需要等待超过max-quota-wait的行才返回失败
+     * 
+     * @param writer 响应输出
+     * @param batch 推送请求（处理后清空）
+     * @param lineNumbers 推送请求对应的行号（处理后清空）
+     */
+    private void pushStreamBatch(Writer writer, List<MessagePushRequest> batch, List<Integer> lineNumbers) throws IOException {
+        List<MessagePushRequest> requests = batch;
+        List<Integer> lines = lineNumbers;
+        while (!requests.isEmpty()) {
+            List<MessageBatchPushResult> results;
+            try {
+                results = messageForwardService.pushMessages(requests);
+            } catch (Exception e) {
+                log.error("流式推送批次失败: size={}, error={}", requests.size(), e.getMessage(), e);
+                results = new ArrayList<>(requests.size());
+                for (int i = 0; i < requests.size(); i++) {
+                    results.add(MessageBatchPushResult.failure(i, e.getMessage()));
+                }
+            }
+            
+            List<MessagePushRequest> throttled = new ArrayList<>();
+            List<Integer> throttledLines = new ArrayList<>();
+            long retryAfterMillis = 0;
+            for (MessageBatchPushResult result : results) {
+                int index = result.getIndex();
+                result.setIndex(lines.get(index));
+                Long waitMillis = result.getRetryAfterMillis();
+                if (waitMillis != null && waitMillis <= streamMaxQuotaWait) {
+                    throttled.add(requests.get(index));
+                    throttledLines.add(lines.get(index));
+                    retryAfterMillis = Math.max(retryAfterMillis, waitMillis);
+                } else {
+                    writeResult(writer, result);
+                }
+            }
+            writer.flush();
+            
+            if (!throttled.isEmpty()) {
+                log.debug("流式推送超出推送频率限制，暂停读取: lines={}, wait={}ms", throttled.size(), retryAfterMillis);
+                try {
+                    Thread.sleep(Math.max(1, retryAfterMillis));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    for (int i = 0; i < throttled.size(); i++) {
+                        writeResult(writer, MessageBatchPushResult.failure(throttledLines.get(i), "推送被中断"));
+                    }
+                    writer.flush();
+                    break;
+                }
+            }
+            requests = throttled;
+            lines = throttledLines;
+        }
+        batch.clear();
+        lineNumbers.clear();
+    }
+    
+    private void writeResult(Writer writer, MessageBatchPushResult result) throws IOException {
+        writer.write(objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+    
+    /**
+     * 是否为异步接收模式（Bark兼容接口仍返回200，避免客户端按状态码判断失败）
+     * 
+     * @return 是否为异步接收模式
+     */
+    private boolean isAsyncIngest() {
+        return messageIngestQueue.isAsync();
+    }
+    
     /**
      * 从GET请求构建推送请求对象
      *
@@ -0,0 +1,137 @@
+package xyz.ersut.message.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import xyz.ersut.message.dto.DeadLetterReplayRequest;
+import xyz.ersut.message.dto.PushDeadLetter;
+import xyz.ersut.message.dto.Result;
+import xyz.ersut.message.service.PushDeadLetterService;
+import xyz.ersut.message.service.SysUserService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 推送死信控制器
+ *
+ * @author ersut
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/message/dead-letter")
+@RequiredArgsConstructor
+@Tag(name = "推送死信管理", description = "重试耗尽的推送的查询、批量重放、删除等操作")
+public class PushDeadLetterController {
+
+    private final PushDeadLetterService pushDeadLetterService;
+    private final SysUserService userService;
+
+    /**
+     * 查询死信（从新到旧，游标分页）
+     *
+     * @param platform 推送平台
+     * @param configId 推送配置ID
+     * @param cursor 上一页返回的nextCursor
+     * @param size 页大小
+     * @param authentication 认证信息
+     * @return 死信列表和下一页游标
+     */
+    @Operation(summary = "查询死信", description = "按平台、推送配置筛选当前用户的死信，从新到旧游标分页")
+    @GetMapping("/list")
+    public Result<Map<String, Object>> list(
+            @Parameter(description = "推送平台", example = "bark") @RequestParam(required = false) String platform,
+            @Parameter(description = "推送配置ID", example = "1") @RequestParam(required = false) Long configId,
+            @Parameter(description = "上一页返回的nextCursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "页大小", example = "20") @RequestParam(defaultValue = "20") int size,
+            @Parameter(hidden = true) Authentication authentication) {
+        try {
+            Long userId = getCurrentUserId(authentication);
+            if (userId == null) {
+                return Result.error("用户未登录");
+            }
+
+            List<PushDeadLetter> records = pushDeadLetterService.listDeadLetters(userId, platform, configId, cursor, size);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("records", records);
+            response.put("nextCursor", records.isEmpty() ? null : records.get(records.size() - 1).getId());
+            response.put("total", pushDeadLetterService.countDeadLetters(userId));
+            return Result.success(response);
+        } catch (Exception e) {
+            log.error("查询死信失败: {}", e.getMessage());
+            return Result.error("查询失败");
+        }
+    }
+
+    /**
+     * 批量重放死信
+     *
+     * @param request 重放请求
+     * @param authentication 认证信息
+     * @return 重放结果
+     */
+    @Operation(summary = "批量重放死信", description = "按ID或筛选条件重放死信，按限速错开写入重试队列")
+    @PostMapping("/replay")
+    public Result<Map<String, Object>> replay(
+            @RequestBody DeadLetterReplayRequest request,
+            @Parameter(hidden = true) Authentication authentication) {
+        try {
+            Long userId = getCurrentUserId(authentication);
+            if (userId == null) {
+                return Result.error("用户未登录");
+            }
+
+            return Result.success(pushDeadLetterService.replayDeadLetters(userId, request));
+        } catch (Exception e) {
+            log.error("重放死信失败: {}", e.getMessage(), e);
+            return Result.error("重放失败");
+        }
+    }
+
+    /**
+     * 删除死信
+     *
+     * @param ids 死信ID列表
+     * @param authentication 认证信息
+     * @return 删除数量
+     */
+    @Operation(summary = "删除死信", description = "删除当前用户的指定死信")
+    @DeleteMapping
+    public Result<Long> delete(
+            @RequestBody List<String> ids,
+            @Parameter(hidden = true) Authentication authentication) {
+        try {
+            Long userId = getCurrentUserId(authentication);
+            if (userId == null) {
+                return Result.error("用户未登录");
+            }
+
+            return Result.success(pushDeadLetterService.deleteDeadLetters(userId, ids));
+        } catch (Exception e) {
+            log.error("删除死信失败: {}", e.getMessage());
+            return Result.error("删除失败");
+        }
+    }
+
+    /**
+     * 获取当前登录用户ID
+     *
+     * @param authentication 认证信息
+     * @return 用户ID
+     */
+    private Long getCurrentUserId(Authentication authentication) {
+        if (authentication == null || authentication.getName() == null) {
+            return null;
+        }
+
+        String username = authentication.getName();
+        var user = userService.getUserByUsername(username);
+        return user != null ? user.getId() : null;
+    }
+}
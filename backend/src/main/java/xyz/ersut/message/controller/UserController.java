@@ -8,9 +8,13 @@ import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import xyz.ersut.message.dto.ChangePasswordRequest;
+import xyz.ersut.message.dto.IngestQuotaUsage;
 import xyz.ersut.message.dto.Result;
 import xyz.ersut.message.entity.SysUser;
 import xyz.ersut.message.service.SysUserService;
+import xyz.ersut.message.service.queue.IngestQuotaLimiter;
+
+import java.util.List;
 
 /**
  * 用户信息控制器
@@ -25,6 +29,7 @@ import xyz.ersut.message.service.SysUserService;
 public class UserController {
     
     private final SysUserService sysUserService;
+    private final IngestQuotaLimiter ingestQuotaLimiter;
     
     /**
      * 获取当前登录用户信息
@@ -117,4 +122,81 @@ public class UserController {
             return Result.error(e.getMessage());
         }
     }
+    
+    /**
+     * 设置消息去重窗口
+     * 
+     * @param seconds 去重窗口（秒），0为不去重
+     * @param authentication 认证信息
+     * @return 设置结果
+     */
+    @Operation(summary = "设置消息去重窗口", description = "窗口内标题、副标题、内容和标签都相同的消息只保存和推送一次，重复提交返回首条消息ID")
+    @PutMapping("/dedupe-window")
+    public Result<Void> updateDedupeWindow(@RequestParam Integer seconds, Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            
+            if (sysUserService.updateDedupeWindow(username, seconds)) {
+                return Result.success("消息去重窗口设置成功", null);
+            } else {
+                return Result.error("消息去重窗口设置失败");
+            }
+            
+        } catch (Exception e) {
+            log.error("设置消息去重窗口失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 获取推送接口配额使用情况
+     * 
+     * @param authentication 认证信息
+     * @return 各窗口（每秒、每分钟、每天）的上限和已使用数量
+     */
+    @Operation(summary = "获取推送接口配额使用情况", description = "返回每秒、每分钟、每天窗口的上限和滑动窗口内已使用的消息数")
+    @GetMapping("/quota")
+    public Result<List<IngestQuotaUsage>> getIngestQuota(Authentication authentication) {
+        try {
+            SysUser user = sysUserService.getUserByUsername(authentication.getName());
+            if (user == null) {
+                return Result.error("用户不存在");
+            }
+            return Result.success("获取配额使用情况成功", ingestQuotaLimiter.getUsage(user));
+            
+        } catch (Exception e) {
+            log.error("获取配额使用情况失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
+    
+    /**
+     * 设置推送接口配额
+     * 
+     * @param perSecond 每秒上限（不传则使用系统默认值）
+     * @param perMinute 每分钟上限（不传则使用系统默认值）
+     * @param perDay 每天上限（不传则使用系统默认值）
+     * @param authentication 认证信息
+     * @return 设置结果
+     */
+    @Operation(summary = "设置推送接口配额", description = "超出配额的推送请求返回429，不传的项恢复为系统默认值")
+    @PutMapping("/quota")
+    public Result<Void> updateIngestQuota(@RequestParam(required = false) Integer perSecond,
+                                          @RequestParam(required = false) Integer perMinute,
+                                          @RequestParam(required = false) Integer perDay,
+                                          Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            
+            if (sysUserService.updateIngestQuota(username, perSecond, perMinute, perDay)) {
+                return Result.success("推送接口配额设置成功", null);
+            } else {
+                return Result.error("推送接口配额设置失败");
+            }
+            
+        } catch (Exception e) {
+            log.error("设置推送接口配额失败: {}", e.getMessage(), e);
+            return Result.error(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -58,6 +58,7 @@ public class UserPushConfigController {
                 dto.setIsEnabled(config.getIsEnabled());
                 dto.setSortOrder(config.getSortOrder());
                 dto.setRemark(config.getRemark());
+                dto.setCoalesceSeconds(config.getCoalesceSeconds());
                 dtoList.add(dto);
             }
             
@@ -94,6 +95,7 @@ public class UserPushConfigController {
                 dto.setIsEnabled(config.getIsEnabled());
                 dto.setSortOrder(config.getSortOrder());
                 dto.setRemark(config.getRemark());
+                dto.setCoalesceSeconds(config.getCoalesceSeconds());
                 dtoList.add(dto);
             }
             
@@ -131,6 +133,7 @@ public class UserPushConfigController {
             dto.setIsEnabled(config.getIsEnabled());
             dto.setSortOrder(config.getSortOrder());
             dto.setRemark(config.getRemark());
+            dto.setCoalesceSeconds(config.getCoalesceSeconds());
             
             return Result.success(dto);
         } catch (Exception e) {
@@ -0,0 +1,47 @@
+package xyz.ersut.message.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 死信重放请求DTO
+ * 指定ids时只重放这些死信，否则按平台/推送配置筛选，从最早的死信开始重放
+ * 
+ * @author ersut
+ */
+@Data
+@Schema(description = "死信重放请求信息")
+public class DeadLetterReplayRequest {
+    
+    /**
+     * 死信ID列表
+     */
+    @Schema(description = "死信ID列表，为空时按条件筛选", example = "[\"1700000000000-0\"]")
+    private List<String> ids;
+    
+    /**
+     * 推送平台
+     */
+    @Schema(description = "推送平台", example = "bark")
+    private String platform;
+    
+    /**
+     * 推送配置ID
+     */
+    @Schema(description = "推送配置ID", example = "1")
+    private Long configId;
+    
+    /**
+     * 最大重放数量
+     */
+    @Schema(description = "最大重放数量", example = "1000")
+    private Integer limit;
+    
+    /**
+     * 每秒重放数量（不超过系统上限）
+     */
+    @Schema(description = "每秒重放数量", example = "20")
+    private Double ratePerSecond;
+}
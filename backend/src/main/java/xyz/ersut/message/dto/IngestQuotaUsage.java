@@ -0,0 +1,38 @@
+package xyz.ersut.message.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 推送接口配额使用情况
+ * 
+ * @author ersut
+ */
+@Data
+@Schema(description = "推送接口配额使用情况")
+public class IngestQuotaUsage {
+    
+    /**
+     * 窗口：second、minute、day
+     */
+    @Schema(description = "窗口（second、minute、day）", example = "minute")
+    private String window;
+    
+    /**
+     * 上限，0为不限制
+     */
+    @Schema(description = "上限，0为不限制", example = "1000")
+    private Integer limit;
+    
+    /**
+     * 滑动窗口内已使用的数量
+     */
+    @Schema(description = "滑动窗口内已使用的数量", example = "12")
+    private Long used;
+    
+    /**
+     * 剩余数量（不限制时为空）
+     */
+    @Schema(description = "剩余数量（不限制时为空）", example = "988")
+    private Long remaining;
+}
@@ -0,0 +1,82 @@
+package xyz.ersut.message.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 批量推送中单条消息的处理结果
+ * 
+ * @author ersut
+ */
+@Data
+@Schema(description = "批量推送单条消息结果")
+public class MessageBatchPushResult {
+    
+    /**
+     * 消息在请求中的位置（批量推送为数组下标，流式推送为行号）
+     */
+    @Schema(description = "消息在请求中的位置（批量推送为数组下标，流式推送为行号）", example = "0")
+    private Integer index;
+    
+    /**
+     * 是否成功
+     */
+    @Schema(description = "是否成功", example = "true")
+    private Boolean success;
+    
+    /**
+     * 消息ID（成功时返回）
+     */
+    @Schema(description = "消息ID（成功时返回）", example = "1234567890")
+    private Long messageId;
+    
+    /**
+     * 错误信息（失败时返回）
+     */
+    @Schema(description = "错误信息（失败时返回）")
+    private String error;
+    
+    /**
+     * 超出推送频率限制时需要等待的毫秒数，等待后可重新提交
+     */
+    @Schema(description = "超出推送频率限制时需要等待的毫秒数，等待后可重新提交", example = "800")
+    private Long retryAfterMillis;
+    
+    public static MessageBatchPushResult success(int index, Long messageId) {
+        MessageBatchPushResult result = new MessageBatchPushResult();
+        result.setIndex(index);
+        result.setSuccess(true);
+        result.setMessageId(messageId);
+        return result;
+    }
+    
+    public static MessageBatchPushResult failure(int index, String error) {
+        MessageBatchPushResult result = new MessageBatchPushResult();
+        result.setIndex(index);
+        result.setSuccess(false);
+        result.setError(error);
+        return result;
+    }
+    
+    /**
+     * 标记为失败（保存或发布阶段失败时使用）
+     * 
+     * @param error 错误信息
+     */
+    public void fail(String error) {
+        this.success = false;
+        this.messageId = null;
+        this.error = error;
+    }
+    
+    /**
+     * 标记为超出推送频率限制
+     * 
+     * @param error 错误信息
+     * @param retryAfterMillis 需要等待的毫秒数
+     */
+    public void throttle(String error, long retryAfterMillis) {
+        fail(error);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
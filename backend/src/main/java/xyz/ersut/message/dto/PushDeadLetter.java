@@ -0,0 +1,76 @@
+package xyz.ersut.message.dto;
+
+import lombok.Data;
+import xyz.ersut.message.entity.MessageRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 推送死信（重试耗尽或超过最大投递次数的推送）
+ * 
+ * @author ersut
+ */
+@Data
+public class PushDeadLetter {
+    
+    /**
+     * 死信ID（Stream记录ID，读取时填充）
+     */
+    private String id;
+    
+    /**
+     * 用户ID
+     */
+    private Long userId;
+    
+    /**
+     * 消息ID
+     */
+    private Long messageId;
+    
+    /**
+     * 消息记录
+     */
+    private MessageRecord messageRecord;
+    
+    /**
+     * 推送配置ID（来源为stream时为空，表示整条消息的所有推送配置）
+     */
+    private Long configId;
+    
+    /**
+     * 推送平台
+     */
+    private String platform;
+    
+    /**
+     * 配置名称
+     */
+    private String configName;
+    
+    /**
+     * 来源：retry-重试耗尽，stream-超过Stream最大投递次数
+     */
+    private String source;
+    
+    /**
+     * 已尝试次数
+     */
+    private Integer attempts;
+    
+    /**
+     * 最后一次失败原因
+     */
+    private String lastError;
+    
+    /**
+     * 失败历史（每次尝试的时间和原因）
+     */
+    private List<String> errorHistory;
+    
+    /**
+     * 进入死信的时间
+     */
+    private LocalDateTime deadTime;
+}
@@ -0,0 +1,51 @@
+package xyz.ersut.message.dto;
+
+import lombok.Data;
+import xyz.ersut.message.entity.MessageRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 推送重试任务
+ * 
+ * @author ersut
+ */
+@Data
+public class PushRetryTask {
+    
+    /**
+     * 消息记录
+     */
+    private MessageRecord messageRecord;
+    
+    /**
+     * 推送配置ID
+     */
+    private Long configId;
+    
+    /**
+     * 推送平台
+     */
+    private String platform;
+    
+    /**
+     * 配置名称
+     */
+    private String configName;
+    
+    /**
+     * 下一次执行是第几次重试（从1开始，0表示被限流延迟或重放的首次推送）
+     */
+    private Integer attempt;
+    
+    /**
+     * 最近一次失败原因
+     */
+    private String lastError;
+    
+    /**
+     * 失败历史（每次尝试的时间和原因）
+     */
+    private List<String> errorHistory = new ArrayList<>();
+}
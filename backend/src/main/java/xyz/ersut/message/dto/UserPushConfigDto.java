@@ -2,6 +2,7 @@ package xyz.ersut.message.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -53,6 +54,13 @@ public class UserPushConfigDto {
     @Schema(description = "配置备注", example = "用于接收重要通知")
     private String remark;
     
+    /**
+     * 合并推送窗口（秒）
+     */
+    @Min(value = 0, message = "合并推送窗口不能小于0")
+    @Schema(description = "合并推送窗口（秒），窗口内的后续消息合并为一条汇总推送，0为不合并", example = "60")
+    private Integer coalesceSeconds;
+    
     // 平台特定配置字段
     
     /**
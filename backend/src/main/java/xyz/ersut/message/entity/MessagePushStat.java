@@ -0,0 +1,40 @@
+package xyz.ersut.message.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 消息推送统计（ClickHouse，由push_record经物化视图汇总）
+ * 
+ * @author ersut
+ */
+@Data
+public class MessagePushStat {
+    
+    /**
+     * 消息ID
+     */
+    private Long messageId;
+    
+    /**
+     * 推送成功次数（按推送尝试计数）
+     */
+    private Integer successCount;
+    
+    /**
+     * 推送失败次数（按推送尝试计数，失败后重试成功的推送也会计入）
+     */
+    private Integer failCount;
+    
+    /**
+     * 推送成功的平台列表
+     */
+    private List<String> pushedPlatforms;
+    
+    /**
+     * 最近推送时间
+     */
+    private LocalDateTime updateTime;
+}
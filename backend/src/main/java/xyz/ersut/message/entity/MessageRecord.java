@@ -92,12 +92,12 @@ public class MessageRecord {
     private List<String> pushedPlatforms;
     
     /**
-     * 推送成功次数
+     * 推送成功次数（按推送尝试计数）
      */
     private Integer pushSuccessCount;
     
     /**
-     * 推送失败次数
+     * 推送失败次数（按推送尝试计数，失败后重试成功的推送也会计入）
      */
     private Integer pushFailCount;
     
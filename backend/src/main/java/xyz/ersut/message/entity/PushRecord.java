@@ -1,5 +1,8 @@
 package xyz.ersut.message.entity;
 
+import com.alibaba.fastjson2.annotation.JSONField;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -71,4 +74,12 @@ public class PushRecord {
      * 创建时间
      */
     private LocalDateTime createTime;
+    
+    /**
+     * 是否为平台侧故障（网络异常、超时、5xx等，非数据库字段），用于推送平台熔断统计
+     */
+    @TableField(exist = false)
+    @JsonIgnore
+    @JSONField(serialize = false, deserialize = false)
+    private transient boolean platformError;
 }
\ No newline at end of file
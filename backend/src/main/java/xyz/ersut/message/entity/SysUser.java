@@ -84,4 +84,24 @@ public class SysUser {
      * 用户密钥（根据用户名MD5(16)得来，用于推送消息的用户标识）
      */
     private String userKey;
+    
+    /**
+     * 消息去重窗口（秒），窗口内标题、副标题、内容和标签都相同的消息只保存和推送一次；为空时使用系统默认值，0为不去重
+     */
+    private Integer dedupeWindowSeconds;
+    
+    /**
+     * 推送接口每秒接收的消息数上限；为空时使用系统默认值
+     */
+    private Integer ingestQuotaPerSecond;
+    
+    /**
+     * 推送接口每分钟接收的消息数上限；为空时使用系统默认值
+     */
+    private Integer ingestQuotaPerMinute;
+    
+    /**
+     * 推送接口每天接收的消息数上限；为空时使用系统默认值
+     */
+    private Integer ingestQuotaPerDay;
 }
\ No newline at end of file
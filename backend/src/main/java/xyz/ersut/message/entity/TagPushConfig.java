@@ -52,6 +52,12 @@ public class TagPushConfig {
     @TableField("remark")
     private String remark;
     
+    /**
+     * 合并推送窗口（秒），命中该标签的消息推送到所选配置时按此窗口合并，0为不合并
+     */
+    @TableField("coalesce_seconds")
+    private Integer coalesceSeconds;
+    
     /**
      * 创建时间
      */
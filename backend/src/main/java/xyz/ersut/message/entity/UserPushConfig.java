@@ -1,8 +1,12 @@
 package xyz.ersut.message.entity;
 
+import com.alibaba.fastjson2.annotation.JSONField;
 import com.baomidou.mybatisplus.annotation.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import xyz.ersut.message.dto.UserPushConfigDto;
 
 import java.time.LocalDateTime;
 
@@ -57,6 +61,11 @@ public class UserPushConfig {
      */
     private String remark;
     
+    /**
+     * 合并推送窗口（秒），窗口内的后续消息合并为一条汇总推送，0为不合并
+     */
+    private Integer coalesceSeconds;
+    
     /**
      * 创建时间
      */
@@ -74,4 +83,14 @@ public class UserPushConfig {
      */
     @TableLogic
     private Integer deleted;
+    
+    /**
+     * 解析后的配置数据（非数据库字段，由UserPushConfigService.getParsedConfig延迟填充，只读）
+     */
+    @TableField(exist = false)
+    @JsonIgnore
+    @JSONField(serialize = false, deserialize = false)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile UserPushConfigDto parsedConfig;
 }
\ No newline at end of file
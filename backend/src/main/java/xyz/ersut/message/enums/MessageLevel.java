@@ -0,0 +1,58 @@
+package xyz.ersut.message.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import xyz.ersut.message.constant.CacheConstants;
+
+/**
+ * 消息级别枚举
+ * 每个级别对应一条推送通道（独立的推送Stream和调度队列）
+ *
+ * @author ersut
+ */
+@Getter
+@AllArgsConstructor
+public enum MessageLevel {
+
+    /**
+     * 紧急
+     */
+    CRITICAL("critical", "紧急"),
+
+    /**
+     * 高
+     */
+    HIGH("high", "高"),
+
+    /**
+     * 普通
+     */
+    NORMAL("normal", "普通"),
+
+    /**
+     * 低
+     */
+    LOW("low", "低");
+
+    private final String code;
+    private final String name;
+
+    /**
+     * 推送Stream键名，普通级别沿用原有的推送Stream
+     */
+    public String getStreamKey() {
+        return this == NORMAL ? CacheConstants.MESSAGE_PUSH_STREAM : CacheConstants.MESSAGE_PUSH_STREAM + ":" + code;
+    }
+
+    /**
+     * 根据code获取枚举，未知级别按普通处理
+     */
+    public static MessageLevel fromCode(String code) {
+        for (MessageLevel level : MessageLevel.values()) {
+            if (level.getCode().equals(code)) {
+                return level;
+            }
+        }
+        return NORMAL;
+    }
+}
@@ -0,0 +1,108 @@
+package xyz.ersut.message.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.PushRecord;
+import xyz.ersut.message.enums.MessageLevel;
+import xyz.ersut.message.service.MessageForwardService;
+import xyz.ersut.message.service.MessageRecordService;
+import xyz.ersut.message.service.queue.PushLaneExecutor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 推送消息调度器
+ * 将队列监听线程收到的消息按消息级别交给分级推送调度器执行，避免单条慢推送阻塞整个订阅线程，
+ * 紧急消息不会排在大量低级别消息之后
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+public class MessagePushDispatcher {
+
+    /**
+     * 调度被拒绝时写入推送记录使用的平台标识
+     */
+    public static final String SHED_PLATFORM = "dispatch";
+
+    @Autowired
+    @Lazy
+    private MessageForwardService messageForwardService;
+
+    private final PushLaneExecutor pushLaneExecutor;
+    private final MessageRecordService messageRecordService;
+
+    /**
+     * 队列满时的拒绝策略：caller-runs（由监听线程直接执行）或 shed（丢弃并记录失败的推送记录）
+     */
+    @Value("${message.queue.dispatch.rejection-policy:caller-runs}")
+    private String rejectionPolicy;
+
+    public MessagePushDispatcher(PushLaneExecutor pushLaneExecutor, MessageRecordService messageRecordService) {
+        this.pushLaneExecutor = pushLaneExecutor;
+        this.messageRecordService = messageRecordService;
+    }
+
+    /**
+     * 调度消息推送
+     *
+     * @param messageRecord 消息记录
+     * @param onComplete 推送处理完成后的回调（如Stream确认），可为null
+     * @return 是否已接收处理；被丢弃时返回false且不会执行回调
+     */
+    public boolean dispatch(MessageRecord messageRecord, Runnable onComplete) {
+        Runnable task = () -> {
+            try {
+                messageForwardService.processMessagePush(messageRecord);
+            } finally {
+                if (onComplete != null) {
+                    onComplete.run();
+                }
+            }
+        };
+
+        MessageLevel level = MessageLevel.fromCode(messageRecord.getLevel());
+        long createTime = messageRecord.getCreateTime() != null
+            ? messageRecord.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+        if (pushLaneExecutor.submit(level, createTime, task)) {
+            return true;
+        }
+
+        if ("shed".equalsIgnoreCase(rejectionPolicy)) {
+            shed(messageRecord, level);
+            return false;
+        }
+
+        // caller-runs：在监听线程中直接执行，降低该级别的拉取速度形成背压（各级别的监听线程相互独立）
+        log.debug("推送调度队列已满，由监听线程执行: messageId={}, level={}", messageRecord.getId(), level.getCode());
+        task.run();
+        return true;
+    }
+
+    /**
+     * 丢弃消息，记录一条失败的推送记录
+     * Stream模式下消息未确认，会在空闲超时后被重新接管投递
+     */
+    private void shed(MessageRecord messageRecord, MessageLevel level) {
+        log.warn("推送调度队列已满，丢弃消息: messageId={}, level={}, queueSize={}",
+            messageRecord.getId(), level.getCode(), pushLaneExecutor.getQueueSize(level));
+
+        PushRecord pushRecord = new PushRecord();
+        pushRecord.setMessageId(messageRecord.getId());
+        pushRecord.setUserId(messageRecord.getUserId());
+        pushRecord.setPlatform(SHED_PLATFORM);
+        pushRecord.setConfigName("");
+        pushRecord.setPushStatus(0);
+        pushRecord.setRequestData("");
+        pushRecord.setErrorMessage("推送调度队列已满，消息被丢弃");
+        pushRecord.setPushTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        messageRecordService.savePushRecord(pushRecord);
+    }
+}
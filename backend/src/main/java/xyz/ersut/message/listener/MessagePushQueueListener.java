@@ -1,21 +1,16 @@
 package xyz.ersut.message.listener;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import xyz.ersut.message.entity.MessageRecord;
-import xyz.ersut.message.service.MessageForwardService;
 
 /**
  * Redis消息队列监听器
- * 
+ *
  * @author ersut
  */
 @Slf4j
@@ -23,10 +18,8 @@ import xyz.ersut.message.service.MessageForwardService;
 @RequiredArgsConstructor
 public class MessagePushQueueListener implements MessageListener {
 
-    @Autowired
-    @Lazy
-    private MessageForwardService messageForwardService;
-    
+    private final MessagePushDispatcher messagePushDispatcher;
+
     private final ObjectMapper objectMapper;
 
     @Override
@@ -41,26 +34,12 @@ public class MessagePushQueueListener implements MessageListener {
 
             // 解析消息
             MessageRecord messageRecord = objectMapper.readValue(messageBody, MessageRecord.class);
-            
-            // 异步处理消息推送
-            processMessageAsync(messageRecord);
-            
+
+            // 交给推送调度线程池异步处理
+            messagePushDispatcher.dispatch(messageRecord, null);
+
         } catch (Exception e) {
             log.error("处理推送队列消息失败: {}", e.getMessage(), e);
         }
     }
-    
-    /**
-     * 异步处理消息推送
-     * 
-     * @param messageRecord 消息记录
-     */
-    @Async
-    public void processMessageAsync(MessageRecord messageRecord) {
-        messageForwardService.processMessagePush(messageRecord);
-    }
 }
-
-
-
-
@@ -0,0 +1,260 @@
+package xyz.ersut.message.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.dto.PushDeadLetter;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.enums.MessageLevel;
+import xyz.ersut.message.service.queue.PushDeadLetterQueue;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Redis Stream推送消息监听器
+ * 通过消费组（XREADGROUP）消费各消息级别的推送Stream，处理完成后XACK并删除记录；
+ * 节点宕机或重启时未确认的消息会被其他节点通过XCLAIM接管
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "message.queue.mode", havingValue = "stream", matchIfMissing = true)
+public class MessagePushStreamListener implements StreamListener<String, MapRecord<String, String, String>> {
+
+    private final MessagePushDispatcher messagePushDispatcher;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final PushDeadLetterQueue pushDeadLetterQueue;
+
+    /**
+     * 消费组名称，同一部署的所有节点共用一个消费组
+     */
+    @Value("${message.queue.stream.group:${spring.application.name:hismsg}}")
+    private String groupName;
+
+    /**
+     * 消费者名称，默认使用主机名+进程号
+     */
+    @Value("${message.queue.stream.consumer-name:}")
+    private String consumerName;
+
+    /**
+     * 待确认消息空闲多久后允许被其他消费者接管（毫秒）
+     */
+    @Value("${message.queue.stream.reclaim-min-idle:60000}")
+    private long reclaimMinIdle;
+
+    /**
+     * 每次接管的最大消息数
+     */
+    @Value("${message.queue.stream.reclaim-batch-size:100}")
+    private int reclaimBatchSize;
+
+    /**
+     * 最大投递次数，超过后转入死信队列并确认，避免毒消息反复投递
+     */
+    @Value("${message.queue.stream.max-deliveries:5}")
+    private long maxDeliveries;
+
+    @Override
+    public void onMessage(MapRecord<String, String, String> record) {
+        handleRecord(record);
+    }
+
+    /**
+     * 创建消费组（已存在时忽略）
+     *
+     * @param streamKey 推送Stream键名
+     */
+    public void ensureGroup(String streamKey) {
+        try {
+            stringRedisTemplate.opsForStream().createGroup(streamKey, ReadOffset.from("0"), groupName);
+            log.info("创建推送Stream消费组: stream={}, group={}", streamKey, groupName);
+        } catch (Exception e) {
+            // BUSYGROUP：消费组已存在
+            log.debug("推送Stream消费组已存在: group={}, message={}", groupName, e.getMessage());
+        }
+    }
+
+    /**
+     * 获取当前节点的消费者标识
+     *
+     * @return 消费者
+     */
+    public Consumer getConsumer() {
+        return Consumer.from(groupName, resolveConsumerName());
+    }
+
+    /**
+     * 接管空闲过久的待确认消息
+     * 覆盖节点重启、宕机或处理中断导致的消息滞留
+     */
+    @Scheduled(fixedDelayString = "${message.queue.stream.reclaim-interval:30000}", initialDelay = 30000)
+    public void reclaimPendingMessages() {
+        for (MessageLevel level : MessageLevel.values()) {
+            reclaimPendingMessages(level.getStreamKey());
+        }
+    }
+
+    private void reclaimPendingMessages(String streamKey) {
+        try {
+            PendingMessages pendingMessages = stringRedisTemplate.opsForStream()
+                .pending(streamKey, groupName, Range.unbounded(), reclaimBatchSize);
+            if (pendingMessages == null || pendingMessages.isEmpty()) {
+                return;
+            }
+
+            Duration minIdle = Duration.ofMillis(reclaimMinIdle);
+            for (PendingMessage pending : pendingMessages) {
+                if (pending.getElapsedTimeSinceLastDelivery().compareTo(minIdle) < 0) {
+                    continue;
+                }
+
+                // 超过最大投递次数，转入死信队列后确认；写入死信队列失败时保留，下次接管时重试
+                if (pending.getTotalDeliveryCount() > maxDeliveries) {
+                    log.error("推送消息超过最大投递次数，转入死信队列: stream={}, recordId={}, deliveries={}, consumer={}",
+                        streamKey, pending.getIdAsString(), pending.getTotalDeliveryCount(), pending.getConsumerName());
+                    if (deadLetter(streamKey, pending)) {
+                        acknowledge(streamKey, pending.getId());
+                    }
+                    continue;
+                }
+
+                // XCLAIM自带空闲时间校验，多个节点同时接管时只有一个会成功
+                List<MapRecord<String, Object, Object>> claimed = stringRedisTemplate.opsForStream()
+                    .claim(streamKey, groupName, resolveConsumerName(), minIdle, pending.getId());
+                for (MapRecord<String, Object, Object> record : claimed) {
+                    log.info("接管待确认推送消息: stream={}, recordId={}, fromConsumer={}, deliveries={}",
+                        streamKey, record.getId(), pending.getConsumerName(), pending.getTotalDeliveryCount());
+                    handleRecord(record);
+                }
+            }
+        } catch (Exception e) {
+            log.error("接管待确认推送消息失败: stream={}, error={}", streamKey, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 处理Stream记录：解析后交给调度线程池推送，推送完成后确认；
+     * 被调度器丢弃的消息不确认，由接管任务重新投递
+     *
+     * @param record Stream记录
+     */
+    private void handleRecord(MapRecord<String, ?, ?> record) {
+        String streamKey = record.getStream();
+        Object payload = record.getValue().get(CacheConstants.MESSAGE_PUSH_STREAM_FIELD);
+        if (payload == null) {
+            log.warn("推送Stream记录缺少消息体，直接确认: stream={}, recordId={}", streamKey, record.getId());
+            acknowledge(streamKey, record.getId());
+            return;
+        }
+
+        MessageRecord messageRecord;
+        try {
+            messageRecord = objectMapper.readValue(payload.toString(), MessageRecord.class);
+        } catch (Exception e) {
+            log.error("解析推送Stream记录失败，直接确认: stream={}, recordId={}, error={}", streamKey, record.getId(), e.getMessage());
+            acknowledge(streamKey, record.getId());
+            return;
+        }
+
+        RecordId recordId = record.getId();
+        messagePushDispatcher.dispatch(messageRecord, () -> acknowledge(streamKey, recordId));
+    }
+
+    /**
+     * 将超过最大投递次数的消息写入死信队列（整条消息，重放时重新路由推送配置）
+     *
+     * @return 已写入死信队列或记录已不存在时返回true，可以确认；写入失败时返回false
+     */
+    private boolean deadLetter(String streamKey, PendingMessage pending) {
+        try {
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                .range(streamKey, Range.closed(pending.getIdAsString(), pending.getIdAsString()));
+            if (records == null || records.isEmpty()) {
+                log.warn("推送Stream记录已不存在，直接确认: stream={}, recordId={}", streamKey, pending.getIdAsString());
+                return true;
+            }
+            Object payload = records.get(0).getValue().get(CacheConstants.MESSAGE_PUSH_STREAM_FIELD);
+            if (payload == null) {
+                log.warn("推送Stream记录缺少消息体，直接确认: stream={}, recordId={}", streamKey, pending.getIdAsString());
+                return true;
+            }
+            MessageRecord messageRecord = objectMapper.readValue(payload.toString(), MessageRecord.class);
+
+            PushDeadLetter deadLetter = new PushDeadLetter();
+            deadLetter.setUserId(messageRecord.getUserId());
+            deadLetter.setMessageId(messageRecord.getId());
+            deadLetter.setMessageRecord(messageRecord);
+            deadLetter.setSource("stream");
+            deadLetter.setAttempts((int) pending.getTotalDeliveryCount());
+            deadLetter.setLastError("超过最大投递次数，最后处理节点: " + pending.getConsumerName());
+            deadLetter.setErrorHistory(List.of());
+            deadLetter.setDeadTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+            pushDeadLetterQueue.add(deadLetter);
+            return true;
+        } catch (Exception e) {
+            log.error("推送消息写入死信队列失败: recordId={}, error={}", pending.getIdAsString(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 确认并删除消息（XACK + XDEL），推送Stream只保留未处理完的消息
+     *
+     * @param streamKey 推送Stream键名
+     * @param recordId 记录ID
+     */
+    private void acknowledge(String streamKey, RecordId recordId) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] key = stringRedisTemplate.getStringSerializer().serialize(streamKey);
+                connection.streamCommands().xAck(key, groupName, recordId);
+                connection.streamCommands().xDel(key, recordId);
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("确认推送Stream记录失败: stream={}, recordId={}, error={}", streamKey, recordId, e.getMessage());
+        }
+    }
+
+    /**
+     * 解析消费者名称
+     */
+    private String resolveConsumerName() {
+        if (StrUtil.isBlank(consumerName)) {
+            String hostName;
+            try {
+                hostName = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                hostName = IdUtil.fastSimpleUUID().substring(0, 8);
+            }
+            consumerName = hostName + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+        }
+        return consumerName;
+    }
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.apache.ibatis.annotations.*;
+import xyz.ersut.message.entity.MessagePushStat;
 import xyz.ersut.message.entity.MessageRecord;
 
 import java.util.List;
@@ -27,6 +28,18 @@ public interface MessageRecordMapper extends BaseMapper<MessageRecord> {
     @Select("SELECT * FROM message_record WHERE id = #{id} LIMIT 1")
     MessageRecord selectById(@Param("id") Long id);
 
+    @ResultMap("messageRecordResultMap")
+    @Select("""
+        <script>
+        SELECT * FROM message_record
+        WHERE id IN
+        <foreach collection="ids" item="id" open="(" separator="," close=")">
+            #{id}
+        </foreach>
+        </script>
+        """)
+    List<MessageRecord> selectByIds(@Param("ids") java.util.Collection<Long> ids);
+
     @Insert("""
         INSERT INTO message_record (
             id, user_id, user_code, message_type, title, subtitle, content, group,
@@ -44,9 +57,59 @@ public interface MessageRecordMapper extends BaseMapper<MessageRecord> {
         """)
     int insert(MessageRecord messageRecord);
 
+    /**
+     * 批量保存消息记录（单条多行INSERT）
+     */
+    @Insert("""
+        <script>
+        INSERT INTO message_record (
+            id, user_id, user_code, message_type, title, subtitle, content, group,
+            url, source, level, tags, extra_data, status,
+            pushed_platforms, push_success_count, push_fail_count,
+            create_time, update_time
+        ) VALUES
+        <foreach collection="list" item="item" separator=",">
+        (
+            #{item.id}, #{item.userId}, #{item.userCode}, #{item.messageType}, #{item.title}, #{item.subtitle}, #{item.content}, #{item.group},
+            #{item.url}, #{item.source}, #{item.level},
+            #{item.tags,typeHandler=xyz.ersut.message.typehandler.StringListTypeHandler},
+            #{item.extraData}, #{item.status},
+            #{item.pushedPlatforms,typeHandler=xyz.ersut.message.typehandler.StringListTypeHandler},
+            #{item.pushSuccessCount}, #{item.pushFailCount}, #{item.createTime}, #{item.updateTime}
+        )
+        </foreach>
+        </script>
+        """)
+    int insertBatch(@Param("list") List<MessageRecord> messageRecords);
+
+
+    /**
+     * 查询消息推送统计（按消息ID汇总message_push_stat中尚未合并的分片）
+     */
+    @Results(id = "messagePushStatResultMap", value = {
+        @Result(property = "pushedPlatforms", column = "pushed_platforms",
+                typeHandler = xyz.ersut.message.typehandler.StringListTypeHandler.class)
+    })
+    @Select("""
+        <script>
+        SELECT
+            message_id,
+            sum(success_count) AS success_count,
+            sum(fail_count) AS fail_count,
+            groupUniqArrayArray(pushed_platforms) AS pushed_platforms,
+            max(update_time) AS update_time
+        FROM message_push_stat
+        WHERE message_id IN
+        <foreach collection="messageIds" item="messageId" open="(" separator="," close=")">
+            #{messageId}
+        </foreach>
+        GROUP BY message_id
+        </script>
+        """)
+    List<MessagePushStat> selectPushStats(@Param("messageIds") java.util.Collection<Long> messageIds);
 
     /**
-     * 更新消息推送状态
+     * 更新消息推送状态（ALTER TABLE UPDATE，会重写数据分片，不要在推送热路径中调用）
      */
     @Update("""
         ALTER TABLE message_record 
@@ -63,7 +126,7 @@ public interface MessageRecordMapper extends BaseMapper<MessageRecord> {
                         @Param("platformArray") String[] platformArray);
     
     /**
-     * 更新消息推送统计信息
+     * 更新消息推送统计信息（ALTER TABLE UPDATE，会重写数据分片，不要在推送热路径中调用）
      */
     @Update("""
         ALTER TABLE message_record 
@@ -8,6 +8,8 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import xyz.ersut.message.entity.PushRecord;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -32,6 +34,25 @@ public interface PushRecordMapper extends BaseMapper<PushRecord> {
         )
         """)
     int insert(PushRecord pushRecord);
+
+    /**
+     * 批量保存推送记录（单条多行INSERT）
+     */
+    @Insert("""
+        <script>
+        INSERT INTO push_record (
+            id, message_id, user_id, platform, config_name, push_status,
+            request_data, response_data, error_message, retry_count, push_time, create_time
+        ) VALUES
+        <foreach collection="list" item="item" separator=",">
+        (
+            #{item.id}, #{item.messageId}, #{item.userId}, #{item.platform}, #{item.configName}, #{item.pushStatus},
+            #{item.requestData}, #{item.responseData}, #{item.errorMessage}, #{item.retryCount}, #{item.pushTime}, #{item.createTime}
+        )
+        </foreach>
+        </script>
+        """)
+    int insertBatch(@Param("list") List<PushRecord> pushRecords);
     
     /**
      * 根据消息ID查询推送记录
@@ -46,8 +67,52 @@ public interface PushRecordMapper extends BaseMapper<PushRecord> {
     List<PushRecord> selectByUserId(@Param("userId") Long userId, @Param("offset") int offset, @Param("limit") int limit);
     
     /**
-     * 查询失败的推送记录（用于重试）
+     * 查询失败的推送记录（用于补偿重推）
+     * 按(create_time, id)键集分页，lastCreateTime为空时从since开始
+     */
+    @Select("""
+        <script>
+        SELECT * FROM push_record
+        WHERE push_status = 0 AND retry_count &lt; #{maxRetryCount}
+          AND create_time &gt;= #{since} AND create_time &lt; #{until}
+        <if test="lastCreateTime != null">
+          AND (create_time, id) &gt; (#{lastCreateTime}, #{lastId})
+        </if>
+        ORDER BY create_time ASC, id ASC
+        LIMIT #{limit}
+        </script>
+        """)
+    List<PushRecord> selectFailedRecords(@Param("maxRetryCount") int maxRetryCount,
+                                         @Param("since") LocalDateTime since,
+                                         @Param("until") LocalDateTime until,
+                                         @Param("lastCreateTime") LocalDateTime lastCreateTime,
+                                         @Param("lastId") Long lastId,
+                                         @Param("limit") int limit);
+    
+    /**
+     * 汇总消息在各推送配置上的推送尝试
+     * 返回的记录中retryCount为最大重试次数，pushStatus为1表示至少有一次推送成功
      */
-    @Select("SELECT * FROM push_record WHERE push_status = 0 AND retry_count < #{maxRetryCount} ORDER BY create_time ASC LIMIT #{limit}")
-    List<PushRecord> selectFailedRecords(@Param("maxRetryCount") int maxRetryCount, @Param("limit") int limit);
+    @Select("""
+        <script>
+        SELECT
+            message_id,
+            platform,
+            config_name,
+            max(retry_count) AS retry_count,
+            max(push_status = 1) AS push_status
+        FROM push_record
+        WHERE user_id IN
+        <foreach collection="userIds" item="userId" open="(" separator="," close=")">
+            #{userId}
+        </foreach>
+          AND message_id IN
+        <foreach collection="messageIds" item="messageId" open="(" separator="," close=")">
+            #{messageId}
+        </foreach>
+        GROUP BY message_id, platform, config_name
+        </script>
+        """)
+    List<PushRecord> selectAttemptSummary(@Param("userIds") Collection<Long> userIds,
+                                          @Param("messageIds") Collection<Long> messageIds);
 }
\ No newline at end of file
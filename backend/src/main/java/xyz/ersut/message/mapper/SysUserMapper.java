@@ -3,8 +3,12 @@ package xyz.ersut.message.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import xyz.ersut.message.entity.SysUser;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 系统用户Mapper接口
  * 
@@ -39,4 +43,21 @@ public interface SysUserMapper extends BaseMapper<SysUser> {
      */
     @Select("SELECT * FROM sys_user WHERE user_key = #{userKey} AND deleted = 0")
     SysUser selectByUserKey(String userKey);
+    
+    /**
+     * 根据用户密钥批量查询用户信息
+     * 
+     * @param userKeys 用户密钥集合
+     * @return 用户信息列表
+     */
+    @Select("""
+        <script>
+        SELECT * FROM sys_user
+        WHERE deleted = 0 AND user_key IN
+        <foreach collection="userKeys" item="userKey" open="(" separator="," close=")">
+            #{userKey}
+        </foreach>
+        </script>
+        """)
+    List<SysUser> selectByUserKeys(@Param("userKeys") Collection<String> userKeys);
 }
\ No newline at end of file
@@ -18,21 +18,30 @@ import java.util.regex.Pattern;
 public class SmsMessageProcessor {
     
     /**
-     * 验证码正则表达式模式
-     * 匹配各种常见的验证码格式：4-8位数字/字母组合
+     * 验证码提取规则（按优先级），先按优先级、再按位置取第一个匹配，等价于依次查找以下正则：
+     * 验证码[:：]?\s*([A-Za-z0-9]{4,8})            // 验证码: 123456
+     * 验证码为[:：]?\s*([A-Za-z0-9]{4,8})          // 验证码为: 123456
+     * 码[:：]?\s*([A-Za-z0-9]{4,8})               // 码: 123456（动态码、校验码的匹配必然也是该规则的匹配，无需单独查找）
+     * ([A-Za-z0-9]{4,8})\s*[,，]?\s*[^。]*?有效    // 123456，30分钟内有效
+     * \b([A-Za-z0-9]{6})\b(?=.*验证)             // 独立的6位验证码
+     * \b([A-Za-z0-9]{4})\b(?=.*验证)             // 独立的4位验证码
+     * \[([A-Za-z0-9]{4,8})\]                    // [123456]
+     * 【([A-Za-z0-9]{4,8})】                        // 【123456】
      */
-    private static final Pattern[] CODE_PATTERNS = {
-        Pattern.compile("验证码[:：]?\\s*([A-Za-z0-9]{4,8})"),                    // 验证码: 123456
-        Pattern.compile("验证码为[:：]?\\s*([A-Za-z0-9]{4,8})"),                  // 验证码为: 123456
-        Pattern.compile("码[:：]?\\s*([A-Za-z0-9]{4,8})"),                       // 码: 123456
-        Pattern.compile("动态码[:：]?\\s*([A-Za-z0-9]{4,8})"),                   // 动态码: 123456
-        Pattern.compile("校验码[:：]?\\s*([A-Za-z0-9]{4,8})"),                   // 校验码: 123456
-        Pattern.compile("([A-Za-z0-9]{4,8})\\s*[,，]?\\s*[^。]*?有效"),            // 123456，30分钟内有效
-        Pattern.compile("\\b([A-Za-z0-9]{6})\\b(?=.*验证)"),                     // 独立的6位验证码
-        Pattern.compile("\\b([A-Za-z0-9]{4})\\b(?=.*验证)"),                     // 独立的4位验证码
-        Pattern.compile("\\[([A-Za-z0-9]{4,8})\\]"),                            // [123456]
-        Pattern.compile("【([A-Za-z0-9]{4,8})】")                                // 【123456】
-    };
+    private static final int RULE_VERIFICATION_CODE = 0;
+    private static final int RULE_VERIFICATION_CODE_IS = 1;
+    private static final int RULE_CODE = 2;
+    private static final int RULE_VALIDITY = 3;
+    private static final int RULE_WORD_6 = 4;
+    private static final int RULE_WORD_4 = 5;
+    private static final int RULE_BRACKET = 6;
+    private static final int RULE_CN_BRACKET = 7;
+    private static final int RULE_COUNT = 8;
+    
+    /**
+     * 排除的签名内容（常见的非签名内容）
+     */
+    private static final String[] SIGNATURE_EXCLUDE_WORDS = {"验证码", "动态码", "校验码", "有效期", "分钟", "小时", "请勿", "泄露"};
     
     /**
      * 签名正则表达式模式
@@ -76,22 +85,174 @@ public class SmsMessageProcessor {
     
     /**
      * 提取验证码
+     * 单次扫描同时查找各规则的第一个匹配，关键字（码、验证码、验证码为、有效、验证）在扫描到末字时回看确认，
+     * 字母数字串在串首一次确定长度和边界，不回溯（包内可见，供基准测试直接对比）
      * 
      * @param content 消息内容
      * @return 提取到的验证码，如果没有则返回null
      */
-    private String extractVerificationCode(String content) {
-        for (Pattern pattern : CODE_PATTERNS) {
-            Matcher matcher = pattern.matcher(content);
-            if (matcher.find()) {
-                String code = matcher.group(1);
-                log.debug("提取到验证码: {}", code);
-                return code;
+    String extractVerificationCode(String content) {
+        String[] found = new String[RULE_COUNT];
+        int best = RULE_COUNT;
+        // "有效"规则：上一个句号之后第一个长度不小于4的字母数字串，遇到"有效"时成立
+        String validityCandidate = null;
+        // 独立验证码规则：当前行第一个符合的字母数字串，同一行后面出现"验证"时成立
+        String word6Candidate = null;
+        String word4Candidate = null;
+        
+        int length = content.length();
+        for (int i = 0; i < length && best > RULE_VERIFICATION_CODE; i++) {
+            char ch = content.charAt(i);
+            if (isAsciiLetterOrDigit(ch)) {
+                if (i > 0 && isAsciiLetterOrDigit(content.charAt(i - 1))) {
+                    continue;
+                }
+                int end = i + 1;
+                while (end < length && isAsciiLetterOrDigit(content.charAt(end))) {
+                    end++;
+                }
+                int runLength = end - i;
+                if (best > RULE_VALIDITY && validityCandidate == null && runLength >= 4) {
+                    validityCandidate = content.substring(i, i + Math.min(runLength, 8));
+                }
+                if ((runLength == 6 || runLength == 4) && best > RULE_WORD_6 && isWordBoundary(content, i) && isWordBoundary(content, end)) {
+                    if (runLength == 6 && word6Candidate == null) {
+                        word6Candidate = content.substring(i, end);
+                    } else if (runLength == 4 && word4Candidate == null) {
+                        word4Candidate = content.substring(i, end);
+                    }
+                }
+                i = end - 1;
+            } else if (ch == '码') {
+                String code = codeAfter(content, i + 1);
+                boolean verification = i >= 2 && content.charAt(i - 2) == '验' && content.charAt(i - 1) == '证';
+                if (code != null && verification) {
+                    best = record(found, RULE_VERIFICATION_CODE, code, best);
+                } else {
+                    if (code != null) {
+                        best = record(found, RULE_CODE, code, best);
+                    }
+                    if (verification && i + 1 < length && content.charAt(i + 1) == '为') {
+                        String isCode = codeAfter(content, i + 2);
+                        if (isCode != null) {
+                            best = record(found, RULE_VERIFICATION_CODE_IS, isCode, best);
+                        }
+                    }
+                }
+            } else if (ch == '效') {
+                if (validityCandidate != null && i > 0 && content.charAt(i - 1) == '有') {
+                    best = record(found, RULE_VALIDITY, validityCandidate, best);
+                }
+            } else if (ch == '。') {
+                validityCandidate = null;
+            } else if (ch == '证') {
+                if (i > 0 && content.charAt(i - 1) == '验') {
+                    if (word6Candidate != null) {
+                        best = record(found, RULE_WORD_6, word6Candidate, best);
+                    }
+                    if (word4Candidate != null) {
+                        best = record(found, RULE_WORD_4, word4Candidate, best);
+                    }
+                }
+            } else if (ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                // "."不匹配行结束符，"验证"必须与验证码在同一行
+                word6Candidate = null;
+                word4Candidate = null;
+            } else if (ch == '[' || ch == '【') {
+                int rule = ch == '[' ? RULE_BRACKET : RULE_CN_BRACKET;
+                if (best > rule && found[rule] == null) {
+                    int end = i + 1;
+                    while (end < length && end - i <= 8 && isAsciiLetterOrDigit(content.charAt(end))) {
+                        end++;
+                    }
+                    if (end - i - 1 >= 4 && end < length && content.charAt(end) == (ch == '[' ? ']' : '】')) {
+                        best = record(found, rule, content.substring(i + 1, end), best);
+                    }
+                }
             }
         }
+        
+        if (best < RULE_COUNT) {
+            log.debug("提取到验证码: {}", found[best]);
+            return found[best];
+        }
         return null;
     }
     
+    /**
+     * 记录规则的第一个匹配
+     * 
+     * @return 已匹配的最高优先级规则
+     */
+    private static int record(String[] found, int rule, String code, int best) {
+        if (found[rule] == null) {
+            found[rule] = code;
+        }
+        return Math.min(rule, best);
+    }
+    
+    /**
+     * 关键字之后的验证码：[:：]?\s*([A-Za-z0-9]{4,8})
+     * 
+     * @param content 消息内容
+     * @param start 关键字之后的位置
+     * @return 验证码，不符合时返回null
+     */
+    private static String codeAfter(String content, int start) {
+        int length = content.length();
+        int i = start;
+        if (i < length && (content.charAt(i) == ':' || content.charAt(i) == '：')) {
+            i++;
+        }
+        while (i < length && isRegexWhitespace(content.charAt(i))) {
+            i++;
+        }
+        int end = i;
+        while (end < length && end - i < 8 && isAsciiLetterOrDigit(content.charAt(end))) {
+            end++;
+        }
+        return end - i >= 4 ? content.substring(i, end) : null;
+    }
+    
+    private static boolean isAsciiLetterOrDigit(char ch) {
+        return (ch >= '0' && ch <= '9') || (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+    }
+    
+    /**
+     * 与正则\s相同：[ \t\n\x0B\f\r]
+     */
+    private static boolean isRegexWhitespace(char ch) {
+        return ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r';
+    }
+    
+    /**
+     * 与正则\b相同：位置两侧一个是单词字符、一个不是（字母、数字、下划线为单词字符，非间距组合标记跟随其基字符）
+     */
+    private static boolean isWordBoundary(String content, int index) {
+        boolean left = index > 0 && isWordAt(content, Character.codePointBefore(content, index), index - 1);
+        boolean right = index < content.length() && isWordAt(content, Character.codePointAt(content, index), index);
+        return left ^ right;
+    }
+    
+    private static boolean isWordAt(String content, int codePoint, int index) {
+        if (codePoint == '_' || Character.isLetterOrDigit(codePoint)) {
+            return true;
+        }
+        if (Character.getType(codePoint) != Character.NON_SPACING_MARK) {
+            return false;
+        }
+        for (int x = index; x >= 0; x--) {
+            int base = Character.codePointAt(content, x);
+            if (Character.isLetterOrDigit(base)) {
+                return true;
+            }
+            if (Character.getType(base) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return false;
+    }
+    
     /**
      * 提取签名
      * 
@@ -130,13 +291,12 @@ public class SmsMessageProcessor {
         }
         
         // 排除纯数字（很可能是验证码）
-        if (signature.matches("^\\d+$")) {
+        if (isAllDigits(signature)) {
             return false;
         }
         
         // 排除一些常见的非签名内容
-        String[] excludeWords = {"验证码", "动态码", "校验码", "有效期", "分钟", "小时", "请勿", "泄露"};
-        for (String word : excludeWords) {
+        for (String word : SIGNATURE_EXCLUDE_WORDS) {
             if (signature.contains(word)) {
                 return false;
             }
@@ -145,6 +305,19 @@ public class SmsMessageProcessor {
         return true;
     }
     
+    /**
+     * 是否全部为数字（与正则^\d+$相同，只包含0-9）
+     */
+    private static boolean isAllDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return false;
+            }
+        }
+        return !value.isEmpty();
+    }
+    
     /**
      * 格式化短信消息
      * 
@@ -1,8 +1,11 @@
 package xyz.ersut.message.service;
 
+import xyz.ersut.message.dto.MessageBatchPushResult;
 import xyz.ersut.message.dto.MessagePushRequest;
 import xyz.ersut.message.entity.MessageRecord;
 
+import java.util.List;
+
 /**
  * 消息转发服务接口
  * 
@@ -13,15 +16,26 @@ public interface MessageForwardService {
     /**
      * 推送消息
      * 处理流程：
-     * 1. 验证用户和消息数据
+     * 1. 验证用户和消息数据，检查推送接口配额（超出时抛出IngestQuotaLimiter.QuotaExceededException）
      * 2. 保存消息记录到ClickHouse
      * 3. 发送到Redis队列进行异步推送
+     * 异步接收模式（message.ingest.mode=async）下只写入Redis接收Stream后返回，保存和推送由后台完成
      * 
      * @param pushRequest 推送请求
      * @return 消息ID
      */
     Long pushMessage(MessagePushRequest pushRequest);
     
+    /**
+     * 批量推送消息
+     * 一次解析所有用户密钥，所有消息以一条INSERT写入ClickHouse，并通过一次管道发送到Redis队列；
+     * 单条消息校验失败不影响其他消息
+     * 
+     * @param pushRequests 推送请求列表
+     * @return 按请求顺序的处理结果
+     */
+    List<MessageBatchPushResult> pushMessages(List<MessagePushRequest> pushRequests);
+    
     /**
      * 处理消息推送（异步）
      * 从Redis队列中获取消息并推送到各个平台
@@ -30,6 +44,14 @@ public interface MessageForwardService {
      */
     void processMessagePush(MessageRecord messageRecord);
     
+    /**
+     * 推送窗口已结束的合并消息
+     * 每个到期的合并窗口汇总为一条消息推送到对应的推送配置
+     * 
+     * @return 处理的汇总推送数
+     */
+    int flushCoalescedPushes();
+    
     /**
      * 重试失败的消息推送
      * 
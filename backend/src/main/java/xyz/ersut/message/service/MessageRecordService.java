@@ -5,6 +5,7 @@ import xyz.ersut.message.entity.MessageRecord;
 import xyz.ersut.message.entity.PushRecord;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -22,6 +23,15 @@ public interface MessageRecordService {
      */
     boolean saveMessageRecord(MessageRecord messageRecord);
     
+    /**
+     * 批量保存消息记录
+     * 以一条多行INSERT同步写入ClickHouse，不经过批量写入队列
+     * 
+     * @param messageRecords 消息记录列表
+     * @return 保存结果
+     */
+    boolean saveMessageRecords(List<MessageRecord> messageRecords);
+    
     /**
      * 根据ID查询消息记录
      * 
@@ -70,6 +80,7 @@ public interface MessageRecordService {
     
     /**
      * 更新消息推送状态
+     * 注意：推送统计已由推送记录汇总（message_push_stat）并在查询时合并，推送结果无需再调用此方法
      * 
      * @param messageId 消息ID
      * @param platform 推送平台
@@ -80,6 +91,7 @@ public interface MessageRecordService {
     
     /**
      * 更新消息记录
+     * 注意：推送统计已由推送记录汇总（message_push_stat）并在查询时合并，推送结果无需再调用此方法
      * 
      * @param messageRecord 消息记录
      * @return 更新结果
@@ -102,6 +114,37 @@ public interface MessageRecordService {
      */
     List<PushRecord> getPushRecordsByMessageId(Long messageId);
     
+    /**
+     * 根据ID批量查询消息记录（不合并推送统计）
+     * 
+     * @param ids 消息ID集合
+     * @return 消息记录列表
+     */
+    List<MessageRecord> getMessagesByIds(Collection<Long> ids);
+    
+    /**
+     * 按(create_time, id)键集分页查询失败的推送记录，查询失败时抛出异常
+     * 
+     * @param maxRetryCount 重试次数上限（不含）
+     * @param since 起始创建时间（含）
+     * @param until 截止创建时间（不含）
+     * @param lastCreateTime 上一页最后一条记录的创建时间，为空时查询第一页
+     * @param lastId 上一页最后一条记录的ID
+     * @param limit 页大小
+     * @return 推送记录列表
+     */
+    List<PushRecord> getFailedPushRecords(int maxRetryCount, LocalDateTime since, LocalDateTime until,
+                                          LocalDateTime lastCreateTime, Long lastId, int limit);
+    
+    /**
+     * 汇总消息在各推送配置上的推送尝试，查询失败时抛出异常
+     * 
+     * @param userIds 用户ID集合（用于主键过滤）
+     * @param messageIds 消息ID集合
+     * @return 按消息、平台、配置名称汇总的记录（retryCount为最大重试次数，pushStatus为1表示至少成功一次）
+     */
+    List<PushRecord> getPushAttemptSummary(Collection<Long> userIds, Collection<Long> messageIds);
+    
     /**
      * 生成消息ID
      * 
@@ -0,0 +1,54 @@
+package xyz.ersut.message.service;
+
+import xyz.ersut.message.dto.DeadLetterReplayRequest;
+import xyz.ersut.message.dto.PushDeadLetter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 推送死信服务接口
+ * 
+ * @author ersut
+ */
+public interface PushDeadLetterService {
+    
+    /**
+     * 从新到旧查询死信
+     * 
+     * @param userId 用户ID
+     * @param platform 推送平台（可选）
+     * @param configId 推送配置ID（可选）
+     * @param cursor 上一页最后一条死信ID，为空时查询第一页
+     * @param size 页大小
+     * @return 死信列表
+     */
+    List<PushDeadLetter> listDeadLetters(Long userId, String platform, Long configId, String cursor, int size);
+    
+    /**
+     * 统计用户的死信数量
+     * 
+     * @param userId 用户ID
+     * @return 死信数量
+     */
+    long countDeadLetters(Long userId);
+    
+    /**
+     * 批量重放死信
+     * 重放的推送按系统重放速率错开时间写入重试队列，写入后从死信队列删除
+     * 
+     * @param userId 用户ID
+     * @param request 重放请求
+     * @return 重放结果（replayed-重放的推送数，skipped-推送配置已删除或禁用而跳过的死信数，startTime/endTime-预计重放时间范围）
+     */
+    Map<String, Object> replayDeadLetters(Long userId, DeadLetterReplayRequest request);
+    
+    /**
+     * 删除死信
+     * 
+     * @param userId 用户ID
+     * @param ids 死信ID列表
+     * @return 删除数量
+     */
+    long deleteDeadLetters(Long userId, List<String> ids);
+}
@@ -4,6 +4,9 @@ import xyz.ersut.message.dto.LoginRequest;
 import xyz.ersut.message.dto.LoginResponse;
 import xyz.ersut.message.entity.SysUser;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * 用户服务接口
  * 
@@ -43,6 +46,14 @@ public interface SysUserService {
      */
     SysUser getUserByUserKey(String userKey);
     
+    /**
+     * 根据用户密钥批量查询用户
+     * 
+     * @param userKeys 用户密钥集合
+     * @return 用户密钥 -> 用户信息，不包含不存在的用户
+     */
+    Map<String, SysUser> getUsersByUserKeys(Collection<String> userKeys);
+    
     /**
      * 创建用户
      * 
@@ -101,4 +112,24 @@ public interface SysUserService {
      * @return 是否存在
      */
     boolean isUserKeyExists(String userKey);
+    
+    /**
+     * 设置消息去重窗口
+     * 
+     * @param username 用户名
+     * @param dedupeWindowSeconds 去重窗口（秒），0为不去重
+     * @return 是否设置成功
+     */
+    boolean updateDedupeWindow(String username, Integer dedupeWindowSeconds);
+    
+    /**
+     * 设置推送接口配额，为空的项恢复为系统默认值
+     * 
+     * @param username 用户名
+     * @param perSecond 每秒上限
+     * @param perMinute 每分钟上限
+     * @param perDay 每天上限
+     * @return 是否设置成功
+     */
+    boolean updateIngestQuota(String username, Integer perSecond, Integer perMinute, Integer perDay);
 }
\ No newline at end of file
@@ -98,4 +98,13 @@ public interface UserPushConfigService {
      * @return 配置DTO
      */
     UserPushConfigDto convertConfigDataToDto(String platform, String configData);
-}
\ No newline at end of file
+    
+    /**
+     * 获取推送配置解析后的配置DTO（只读）
+     * 按配置ID和更新时间缓存解析结果，同一配置只解析一次；推送服务应使用此方法而不是每次重新解析
+     * 
+     * @param config 推送配置
+     * @return 配置DTO，调用方不要修改
+     */
+    UserPushConfigDto getParsedConfig(UserPushConfig config);
+}
@@ -0,0 +1,86 @@
+package xyz.ersut.message.service.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.constant.CacheConstants;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 本地缓存失效广播
+ * 各节点的本地缓存按名称注册失效处理器，数据变更时通过Redis发布订阅通知所有节点（包括自身）清除对应的键
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalCacheInvalidator implements MessageListener {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 注册缓存失效处理器
+     *
+     * @param cacheName 缓存名称（不能包含冒号）
+     * @param handler 失效处理器，参数为缓存键
+     */
+    public void register(String cacheName, Consumer<String> handler) {
+        handlers.put(cacheName, handler);
+    }
+
+    /**
+     * 广播缓存失效
+     * 先清除本节点缓存，再通知其他节点；广播失败时其他节点依赖缓存过期时间兜底
+     *
+     * @param cacheName 缓存名称
+     * @param key 缓存键
+     */
+    public void invalidate(String cacheName, String key) {
+        Consumer<String> handler = handlers.get(cacheName);
+        if (handler != null) {
+            handler.accept(key);
+        }
+
+        try {
+            stringRedisTemplate.convertAndSend(CacheConstants.LOCAL_CACHE_INVALIDATE_CHANNEL, cacheName + ":" + key);
+        } catch (Exception e) {
+            log.error("广播本地缓存失效失败: cache={}, key={}, error={}", cacheName, key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(':');
+        if (index <= 0) {
+            log.warn("无效的本地缓存失效消息: {}", body);
+            return;
+        }
+
+        String cacheName = body.substring(0, index);
+        Consumer<String> handler = handlers.get(cacheName);
+        if (handler != null) {
+            handler.accept(body.substring(index + 1));
+            log.debug("本地缓存已失效: cache={}, key={}", cacheName, body.substring(index + 1));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package xyz.ersut.message.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.entity.SysUser;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 用户密钥本地缓存
+ * 缓存推送接口的userKey -> 用户查询结果；不存在的密钥也会以空值缓存较短时间，避免猜测密钥的请求直接打到MySQL。
+ * 缓存中的用户对象为共享实例，调用方不要修改
+ *
+ * @author ersut
+ */
+@Component
+@RequiredArgsConstructor
+public class UserKeyCache {
+
+    private static final String CACHE_NAME = "userKey";
+
+    private final LocalCacheInvalidator localCacheInvalidator;
+
+    @Value("${message.cache.user-key.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * 存在的用户缓存时间（秒）
+     */
+    @Value("${message.cache.user-key.ttl:300}")
+    private long ttlSeconds;
+
+    /**
+     * 不存在的密钥缓存时间（秒）
+     */
+    @Value("${message.cache.user-key.negative-ttl:60}")
+    private long negativeTtlSeconds;
+
+    private Cache<String, Optional<SysUser>> cache;
+
+    @PostConstruct
+    public void init() {
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, Optional<SysUser>>() {
+                @Override
+                public long expireAfterCreate(String key, Optional<SysUser> value, long currentTime) {
+                    return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Optional<SysUser> value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Optional<SysUser> value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+        localCacheInvalidator.register(CACHE_NAME, cache::invalidate);
+    }
+
+    /**
+     * 获取用户，未命中时通过loader加载并缓存（包括不存在的结果）
+     *
+     * @param userKey 用户密钥
+     * @param loader 加载函数
+     * @return 用户信息，不存在时返回null
+     */
+    public SysUser get(String userKey, Function<String, SysUser> loader) {
+        return cache.get(userKey, key -> Optional.ofNullable(loader.apply(key))).orElse(null);
+    }
+
+    /**
+     * 批量获取用户，未命中的密钥通过loader一次加载并缓存（包括不存在的结果）
+     *
+     * @param userKeys 用户密钥集合
+     * @param loader 批量加载函数，返回 用户密钥 -> 用户（不存在的密钥可以不包含）
+     * @return 用户密钥 -> 用户，只包含存在的用户
+     */
+    public Map<String, SysUser> getAll(Collection<String> userKeys, Function<Set<String>, Map<String, SysUser>> loader) {
+        Map<String, Optional<SysUser>> cached = cache.getAll(userKeys, keys -> {
+            Set<String> missing = new HashSet<>();
+            keys.forEach(missing::add);
+            Map<String, SysUser> loaded = loader.apply(missing);
+            Map<String, Optional<SysUser>> result = new HashMap<>(missing.size());
+            for (String key : missing) {
+                result.put(key, Optional.ofNullable(loaded.get(key)));
+            }
+            return result;
+        });
+
+        Map<String, SysUser> users = new HashMap<>(cached.size());
+        cached.forEach((key, user) -> user.ifPresent(value -> users.put(key, value)));
+        return users;
+    }
+
+    /**
+     * 使所有节点上的用户密钥缓存失效
+     *
+     * @param userKey 用户密钥
+     */
+    public void invalidate(String userKey) {
+        if (userKey != null && !userKey.isEmpty()) {
+            localCacheInvalidator.invalidate(CACHE_NAME, userKey);
+        }
+    }
+}
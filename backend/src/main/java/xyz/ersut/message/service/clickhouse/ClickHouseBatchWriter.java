@@ -0,0 +1,321 @@
+package xyz.ersut.message.service.clickhouse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * ClickHouse批量写入器
+ * ClickHouse每次INSERT都会生成一个数据分片，逐行写入在高并发下会导致分片过多和频繁合并；
+ * 该写入器将行缓存在有界队列中，按数量或时间批量刷新为一条多行INSERT。
+ * 队列满时写入方最多阻塞offerTimeout毫秒（背压），关闭时刷新剩余数据。
+ * 需要确认写入结果的调用方使用submit，返回的Future在该行所在批次写入后完成，超过重试次数被丢弃时异常完成；
+ * 批次中有等待结果的行时只再等待submitLinger毫秒凑批，避免调用方被刷新间隔拖慢。
+ *
+ * @param <T> 行类型
+ * @param <K> 行主键类型
+ * @author ersut
+ */
+@Slf4j
+public class ClickHouseBatchWriter<T, K> implements InitializingBean, DisposableBean {
+
+    private final String name;
+    private final Function<List<T>, Integer> batchInserter;
+    private final Function<T, K> keyExtractor;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long submitLingerMillis;
+    private final long offerTimeoutMillis;
+    private final int maxRetries;
+
+    private final BlockingQueue<Entry<T>> queue;
+
+    /**
+     * 尚未写入的行（按主键索引），用于在写入前合并对同一行的更新
+     */
+    private final Map<K, T> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 写入锁：写入过程中持有，保证合并更新不会与写入交错
+     */
+    private final ReentrantLock insertLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private Thread flushThread;
+
+    /**
+     * @param name 写入器名称（用于日志和线程名）
+     * @param batchInserter 批量插入函数，返回影响行数
+     * @param keyExtractor 行主键提取函数
+     * @param capacity 队列容量
+     * @param batchSize 单批最大行数
+     * @param flushIntervalMillis 最长刷新间隔（毫秒）
+     * @param submitLingerMillis 批次中有submit的行时的最长凑批时间（毫秒）
+     * @param offerTimeoutMillis 队列满时的最长等待时间（毫秒）
+     * @param maxRetries 写入失败时的最大重试次数
+     */
+    public ClickHouseBatchWriter(String name, Function<List<T>, Integer> batchInserter, Function<T, K> keyExtractor,
+                                 int capacity, int batchSize, long flushIntervalMillis, long submitLingerMillis,
+                                 long offerTimeoutMillis, int maxRetries) {
+        this.name = name;
+        this.batchInserter = batchInserter;
+        this.keyExtractor = keyExtractor;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.submitLingerMillis = submitLingerMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        running = true;
+        flushThread = new Thread(this::runFlushLoop, "ck-writer-" + name);
+        flushThread.setDaemon(true);
+        flushThread.start();
+        log.info("ClickHouse批量写入器已启动: name={}, batchSize={}, flushInterval={}ms, capacity={}",
+            name, batchSize, flushIntervalMillis, queue.remainingCapacity());
+    }
+
+    /**
+     * 添加一行，队列满时最多等待offerTimeout毫秒
+     *
+     * @param row 行数据
+     * @return 是否加入成功；队列持续满或写入器已关闭时返回false
+     */
+    public boolean add(T row) {
+        return enqueue(row, null);
+    }
+
+    /**
+     * 添加一行并返回写入结果，队列满时最多等待offerTimeout毫秒
+     *
+     * @param row 行数据
+     * @return 该行所在批次写入ClickHouse后完成；加入队列失败或超过重试次数被丢弃时异常完成
+     */
+    public CompletableFuture<Void> submit(T row) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        if (!enqueue(row, written)) {
+            written.completeExceptionally(new RuntimeException("ClickHouse批量写入队列不可用: " + name));
+        }
+        return written;
+    }
+
+    private boolean enqueue(T row, CompletableFuture<Void> written) {
+        if (row == null) {
+            return false;
+        }
+        if (!running) {
+            log.warn("ClickHouse批量写入器已关闭，拒绝写入: name={}", name);
+            return false;
+        }
+
+        K key = keyExtractor.apply(row);
+        if (key != null) {
+            pending.put(key, row);
+        }
+        try {
+            if (queue.offer(new Entry<>(row, written), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            log.warn("ClickHouse批量写入队列已满，写入失败: name={}, queueSize={}", name, queue.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (key != null) {
+            pending.remove(key, row);
+        }
+        return false;
+    }
+
+    /**
+     * 对尚未写入的行执行更新
+     *
+     * @param key 行主键
+     * @param updater 更新操作
+     * @return 行尚未写入且已更新时返回true；已写入（或不存在）时返回false，调用方需自行更新数据库
+     */
+    public boolean updatePending(K key, Consumer<T> updater) {
+        if (key == null) {
+            return false;
+        }
+        insertLock.lock();
+        try {
+            T row = pending.get(key);
+            if (row == null) {
+                return false;
+            }
+            updater.accept(row);
+            return true;
+        } finally {
+            insertLock.unlock();
+        }
+    }
+
+    /**
+     * 当前队列中等待写入的行数
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * 立即刷新队列中的所有行
+     */
+    public void flush() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            insert(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        if (flushThread != null) {
+            flushThread.interrupt();
+            try {
+                flushThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        log.info("ClickHouse批量写入器已关闭: name={}", name);
+    }
+
+    /**
+     * 刷新循环：收到第一行后最多等待flushInterval毫秒凑满一批，再整批写入；
+     * 批次中出现submit的行后，截止时间提前到submitLinger毫秒之后
+     */
+    private void runFlushLoop() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Entry<T> first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                boolean awaited = false;
+                int checked = 0;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    for (; !awaited && checked < batch.size(); checked++) {
+                        if (batch.get(checked).written() != null) {
+                            awaited = true;
+                            deadline = Math.min(deadline, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(submitLingerMillis));
+                        }
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Entry<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                insert(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // 关闭时中断，剩余数据由destroy刷新
+                if (!batch.isEmpty()) {
+                    insert(batch);
+                    batch.clear();
+                }
+                break;
+            } catch (Exception e) {
+                log.error("ClickHouse批量写入循环异常: name={}, error={}", name, e.getMessage(), e);
+                complete(batch, e);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 整批写入，失败时按指数退避重试，超过重试次数后丢弃该批，并通知等待写入结果的调用方
+     */
+    private void insert(List<Entry<T>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<T> rows = batch.stream().map(Entry::row).toList();
+        insertLock.lock();
+        try {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    long start = System.currentTimeMillis();
+                    batchInserter.apply(rows);
+                    log.debug("ClickHouse批量写入完成: name={}, rows={}, cost={}ms",
+                        name, rows.size(), System.currentTimeMillis() - start);
+                    complete(batch, null);
+                    break;
+                } catch (Exception e) {
+                    if (attempt >= maxRetries) {
+                        log.error("ClickHouse批量写入失败，丢弃该批数据: name={}, rows={}, error={}",
+                            name, rows.size(), e.getMessage(), e);
+                        complete(batch, e);
+                        break;
+                    }
+                    log.warn("ClickHouse批量写入失败，准备重试: name={}, rows={}, attempt={}, error={}",
+                        name, rows.size(), attempt + 1, e.getMessage());
+                    try {
+                        Thread.sleep(200L << attempt);
+                    } catch (InterruptedException ie) {
+                        // 关闭过程中不再等待，直接重试
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        } finally {
+            for (T row : rows) {
+                K key = keyExtractor.apply(row);
+                if (key != null) {
+                    pending.remove(key, row);
+                }
+            }
+            insertLock.unlock();
+        }
+    }
+
+    private void complete(List<Entry<T>> batch, Exception error) {
+        for (Entry<T> entry : batch) {
+            if (entry.written() == null) {
+                continue;
+            }
+            if (error == null) {
+                entry.written().complete(null);
+            } else {
+                entry.written().completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * 队列中的行
+     *
+     * @param row 行数据
+     * @param written 写入结果，不需要时为null
+     */
+    private record Entry<T>(T row, CompletableFuture<Void> written) {
+    }
+}
@@ -3,28 +3,42 @@ package xyz.ersut.message.service.impl;
 import com.alibaba.fastjson2.JSON;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.baomidou.dynamic.datasource.annotation.DS;
 import cn.hutool.core.util.StrUtil;
-import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.dto.MessageBatchPushResult;
 import xyz.ersut.message.dto.MessagePushRequest;
 import xyz.ersut.message.entity.MessageRecord;
 import xyz.ersut.message.entity.PushRecord;
 import xyz.ersut.message.entity.SysUser;
 import xyz.ersut.message.entity.UserPushConfig;
-import xyz.ersut.message.entity.TagPushConfig;
+import xyz.ersut.message.enums.MessageLevel;
 import xyz.ersut.message.processor.SmsMessageProcessor;
 import xyz.ersut.message.service.*;
+import xyz.ersut.message.service.push.PushCoalescer;
+import xyz.ersut.message.service.push.PushDeliveryGuard;
+import xyz.ersut.message.service.push.PushFanoutExecutor;
+import xyz.ersut.message.service.push.PushFanoutExecutor.PushOutcome;
+import xyz.ersut.message.service.push.PushRateLimiter;
+import xyz.ersut.message.service.push.PushRoutingCache;
+import xyz.ersut.message.service.push.PushRoutingTable;
 import xyz.ersut.message.service.push.PushServiceManager;
+import xyz.ersut.message.service.queue.IngestQuotaLimiter;
+import xyz.ersut.message.service.queue.MessageDeduplicator;
+import xyz.ersut.message.service.queue.MessageIngestQueue;
+import xyz.ersut.message.service.queue.MessagePushPublisher;
+import xyz.ersut.message.service.queue.PushRetryScheduler;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 消息转发服务实现类
@@ -40,28 +54,33 @@ public class MessageForwardServiceImpl implements MessageForwardService {
     private final MessageRecordService messageRecordService;
     private final UserPushConfigService userPushConfigService;
     private final SysUserService userService;
-    private final TagPushConfigService tagPushConfigService;
     private final SmsMessageProcessor smsMessageProcessor;
-    private final RedisTemplate<String, Object> redisTemplate;
     private final PushServiceManager pushServiceManager;
+    private final MessagePushPublisher messagePushPublisher;
+    private final PushFanoutExecutor pushFanoutExecutor;
+    private final PushRoutingCache pushRoutingCache;
+    private final PushRetryScheduler pushRetryScheduler;
+    private final PushCoalescer pushCoalescer;
+    private final MessageDeduplicator messageDeduplicator;
+    private final MessageIngestQueue messageIngestQueue;
+    private final IngestQuotaLimiter ingestQuotaLimiter;
     
-    // Redis队列键名
-    private static final String MESSAGE_RETRY_QUEUE = "message:retry:queue";
+    /**
+     * 每次处理的最大汇总推送数
+     */
+    @Value("${message.coalesce.batch-size:100}")
+    private int coalesceBatchSize;
+    
+    /**
+     * 批量推送接口单次最多的消息数
+     */
+    @Value("${message.push.batch.max-size:500}")
+    private int batchMaxSize;
     
     @Override
     public Long pushMessage(MessagePushRequest pushRequest) {
         // 参数验证
-        if (pushRequest == null) {
-            throw new RuntimeException("推送请求不能为空");
-        }
-
-        if (StrUtil.isBlank(pushRequest.getTitle()) && StrUtil.isBlank(pushRequest.getContent())) {
-            throw new RuntimeException("消息标题和内容不能同时为空");
-        }
-
-        if (StrUtil.isBlank(pushRequest.getUserKey())) {
-            throw new RuntimeException("用户标识不能为空");
-        }
+        validatePushRequest(pushRequest);
 
         // 根据用户编号、用户ID或用户密钥获取用户信息
         SysUser user = userService.getUserByUserKey(pushRequest.getUserKey());
@@ -73,37 +92,173 @@ public class MessageForwardServiceImpl implements MessageForwardService {
         // 构建消息记录
         MessageRecord messageRecord = buildMessageRecord(pushRequest, user);
         
+        // 去重窗口内的相同消息不再保存和推送，返回首条消息的ID
+        Long originalMessageId = messageDeduplicator.claim(user, messageRecord);
+        if (originalMessageId != null) {
+            log.info("重复消息，跳过保存和推送: userId={}, originalMessageId={}", user.getId(), originalMessageId);
+            return originalMessageId;
+        }
+        
+        // 推送接口配额（重复消息不计入），超出时抛出QuotaExceededException（接口返回429）
+        try {
+            ingestQuotaLimiter.acquire(user);
+        } catch (IngestQuotaLimiter.QuotaExceededException e) {
+            messageDeduplicator.release(user, messageRecord);
+            throw e;
+        }
+        
         // 如果消息包含"短信"标签，则处理短信内容
-        if (messageRecord.getTags() != null && (!messageRecord.getTags().stream().filter(item -> item.contains("短信")).toList().isEmpty())) {
-            String simCode = smsMessageProcessor.processSmsMessage(messageRecord.getContent());
-
-            if (StrUtil.isBlank(messageRecord.getSubtitle())) {
-                messageRecord.setSubtitle(simCode);
-            } else {
-                messageRecord.setContent(simCode + messageRecord.getContent());
+        processSmsContent(messageRecord);
+        
+        // 异步接收模式：写入接收Stream后立即返回，由后台批量保存并推送
+        if (messageIngestQueue.isAsync()) {
+            try {
+                messageIngestQueue.append(messageRecord);
+            } catch (Exception e) {
+                log.error("写入消息接收队列失败: {}", e.getMessage(), e);
+                messageDeduplicator.release(user, messageRecord);
+                throw new RuntimeException("写入消息接收队列失败");
             }
-
-            log.debug("短信消息内容已处理: {}", simCode);
+            return messageRecord.getId();
         }
         
         // 保存消息记录到ClickHouse
         boolean saved = messageRecordService.saveMessageRecord(messageRecord);
         if (!saved) {
+            messageDeduplicator.release(user, messageRecord);
             throw new RuntimeException("保存消息记录失败");
         }
         
         // 发送到Redis队列进行异步推送
         try {
-            redisTemplate.convertAndSend(CacheConstants.MESSAGE_PUSH_QUEUE, messageRecord);
+            messagePushPublisher.publish(messageRecord);
             log.info("消息已发送到推送队列: messageId={}", messageRecord.getId());
         } catch (Exception e) {
             log.error("发送消息到推送队列失败: {}", e.getMessage(), e);
+            // 消息未进入推送队列，允许重新提交
+            messageDeduplicator.release(user, messageRecord);
             throw new RuntimeException("发送消息到推送队列失败");
         }
         
         return messageRecord.getId();
     }
     
+    @Override
+    public List<MessageBatchPushResult> pushMessages(List<MessagePushRequest> pushRequests) {
+        if (pushRequests == null || pushRequests.isEmpty()) {
+            throw new RuntimeException("推送请求不能为空");
+        }
+        if (pushRequests.size() > batchMaxSize) {
+            throw new RuntimeException("批量推送的消息数不能超过" + batchMaxSize + "条");
+        }
+        
+        // 一次解析所有不同的用户密钥
+        Map<String, SysUser> users = userService.getUsersByUserKeys(pushRequests.stream()
+            .filter(Objects::nonNull)
+            .map(MessagePushRequest::getUserKey)
+            .toList());
+        
+        // 先校验并去重，只有有效且不重复的消息计入配额
+        List<MessageBatchPushResult> results = new ArrayList<>(pushRequests.size());
+        List<MessageBatchPushResult> claimed = new ArrayList<>();
+        List<MessageRecord> claimedRecords = new ArrayList<>();
+        List<SysUser> claimedUsers = new ArrayList<>();
+        for (int i = 0; i < pushRequests.size(); i++) {
+            MessagePushRequest pushRequest = pushRequests.get(i);
+            try {
+                validatePushRequest(pushRequest);
+                SysUser user = users.get(pushRequest.getUserKey());
+                if (user == null) {
+                    throw new RuntimeException("用户不存在");
+                }
+                
+                MessageRecord messageRecord = buildMessageRecord(pushRequest, user);
+                Long originalMessageId = messageDeduplicator.claim(user, messageRecord);
+                if (originalMessageId != null) {
+                    results.add(MessageBatchPushResult.success(i, originalMessageId));
+                    continue;
+                }
+                
+                MessageBatchPushResult result = MessageBatchPushResult.success(i, messageRecord.getId());
+                results.add(result);
+                claimed.add(result);
+                claimedRecords.add(messageRecord);
+                claimedUsers.add(user);
+            } catch (Exception e) {
+                results.add(MessageBatchPushResult.failure(i, e.getMessage()));
+            }
+        }
+        
+        // 每个用户一次申请配额，配额不足时按请求顺序只接收获得配额的消息
+        Map<Long, SysUser> requestUsers = new HashMap<>();
+        Map<Long, Integer> requestCounts = new HashMap<>();
+        for (SysUser user : claimedUsers) {
+            requestUsers.putIfAbsent(user.getId(), user);
+            requestCounts.merge(user.getId(), 1, Integer::sum);
+        }
+        Map<Long, Integer> grantedCounts = new HashMap<>();
+        requestCounts.forEach((userId, count) ->
+            grantedCounts.put(userId, ingestQuotaLimiter.tryAcquire(requestUsers.get(userId), count)));
+        
+        List<MessageBatchPushResult> accepted = new ArrayList<>();
+        List<MessageRecord> messageRecords = new ArrayList<>();
+        List<SysUser> messageUsers = new ArrayList<>();
+        for (int i = 0; i < claimedRecords.size(); i++) {
+            SysUser user = claimedUsers.get(i);
+            MessageRecord messageRecord = claimedRecords.get(i);
+            if (grantedCounts.merge(user.getId(), -1, Integer::sum) < 0) {
+                // 超出配额的消息未被接收，允许稍后重新提交
+                messageDeduplicator.release(user, messageRecord);
+                long retryAfterMillis = ingestQuotaLimiter.getRetryAfterMillis(user);
+                claimed.get(i).throttle("超出推送频率限制，请" + Math.max(1, (retryAfterMillis + 999) / 1000) + "秒后重试",
+                    retryAfterMillis);
+                continue;
+            }
+            try {
+                processSmsContent(messageRecord);
+            } catch (Exception e) {
+                messageDeduplicator.release(user, messageRecord);
+                claimed.get(i).fail(e.getMessage());
+                continue;
+            }
+            accepted.add(claimed.get(i));
+            messageRecords.add(messageRecord);
+            messageUsers.add(user);
+        }
+        if (messageRecords.isEmpty()) {
+            return results;
+        }
+        
+        // 异步接收模式下通过一次管道写入接收Stream；否则一条INSERT保存所有消息记录，再通过一次管道发送到Redis队列
+        String error = null;
+        if (messageIngestQueue.isAsync()) {
+            try {
+                messageIngestQueue.appendAll(messageRecords);
+            } catch (Exception e) {
+                log.error("批量写入消息接收队列失败: size={}, error={}", messageRecords.size(), e.getMessage(), e);
+                error = "写入消息接收队列失败";
+            }
+        } else if (!messageRecordService.saveMessageRecords(messageRecords)) {
+            error = "保存消息记录失败";
+        } else {
+            try {
+                messagePushPublisher.publishAll(messageRecords);
+                log.info("批量消息已发送到推送队列: size={}", messageRecords.size());
+            } catch (Exception e) {
+                log.error("批量发送消息到推送队列失败: size={}, error={}", messageRecords.size(), e.getMessage(), e);
+                error = "发送消息到推送队列失败";
+            }
+        }
+        if (error != null) {
+            // 消息未进入推送队列，允许重新提交
+            for (int i = 0; i < messageRecords.size(); i++) {
+                messageDeduplicator.release(messageUsers.get(i), messageRecords.get(i));
+                accepted.get(i).fail(error);
+            }
+        }
+        return results;
+    }
+    
     @Override
     public void processMessagePush(MessageRecord messageRecord) {
         if (messageRecord == null || messageRecord.getUserId() == null) {
@@ -112,15 +267,15 @@ public class MessageForwardServiceImpl implements MessageForwardService {
         }
         
         try {
-            // 获取用户启用的推送配置
-            List<UserPushConfig> configs = userPushConfigService.getEnabledByUserId(messageRecord.getUserId());
-            if (configs == null || configs.isEmpty()) {
+            // 获取用户的推送路由表（本地缓存，配置变更时失效）
+            PushRoutingTable routingTable = pushRoutingCache.getRoutingTable(messageRecord.getUserId());
+            if (routingTable.isEmpty()) {
                 log.warn("用户{}没有启用的推送配置，跳过推送", messageRecord.getUserId());
                 return;
             }
             
-            // 基于标签过滤推送配置
-            configs = filterConfigsByTags(messageRecord, configs);
+            // 基于标签路由推送配置
+            List<UserPushConfig> configs = routingTable.route(messageRecord.getTags());
             
             // 如果指定了推送平台，则只推送指定的平台
             if (messageRecord.getPushedPlatforms() != null && !messageRecord.getPushedPlatforms().isEmpty()) {
@@ -129,36 +284,28 @@ public class MessageForwardServiceImpl implements MessageForwardService {
                     .toList();
             }
             
-            log.info("开始推送消息: messageId={}, 推送配置数量={}", messageRecord.getId(), configs.size());
-            
-            // 遍历推送配置，逐个推送
+            // 设置了合并窗口的配置，窗口内的后续消息合并为汇总推送，不立即推送；紧急消息不合并
+            boolean critical = MessageLevel.fromCode(messageRecord.getLevel()) == MessageLevel.CRITICAL;
+            List<UserPushConfig> immediateConfigs = new ArrayList<>(configs.size());
             for (UserPushConfig config : configs) {
-                try {
-                    // 调用推送服务管理器进行推送
-                    PushRecord pushRecord = pushServiceManager.pushToSpecificPlatform(messageRecord, config);
-
-                    // 更新推送成功计数和平台列表
-                    if (pushRecord.getPushStatus() == 1) {
-                        log.info("推送到平台{}成功: messageId={}, configName={}, tags={}",
-                                config.getPlatform(), messageRecord.getId(), config.getConfigName(), messageRecord.getTags());
-                        updatePushSuccess(messageRecord, config.getPlatform());
-                    } else {
-                        log.warn("推送到平台{}失败: messageId={}, configName={}",
-                                config.getPlatform(), messageRecord.getId(), config.getConfigName());
-                    }
-                    
-                } catch (Exception e) {
-                    log.error("推送到平台{}失败: messageId={}, configName={}, error={}", 
-                        config.getPlatform(), messageRecord.getId(), config.getConfigName(), e.getMessage());
-                    
-                    // 更新推送失败计数
-                    updatePushFailure(messageRecord);
-                    
-                    // 推送失败，可以考虑加入重试队列
-                    addToRetryQueue(messageRecord, config);
+                int coalesceSeconds = critical ? 0 : routingTable.getCoalesceSeconds(config, messageRecord.getTags());
+                if (!pushCoalescer.offer(messageRecord, config, coalesceSeconds)) {
+                    immediateConfigs.add(config);
                 }
             }
             
+            log.info("开始推送消息: messageId={}, 推送配置数量={}, 合并推送数量={}", messageRecord.getId(),
+                immediateConfigs.size(), configs.size() - immediateConfigs.size());
+            
+            // 并发推送到各个配置，全部完成后统一汇总
+            List<PushOutcome> outcomes = pushFanoutExecutor.pushAll(messageRecord, immediateConfigs);
+            handleOutcomes(messageRecord, outcomes);
+            
+            // 推送成功/失败计数和已推送平台由推送记录经物化视图汇总（message_push_stat），查询时合并
+            log.info("消息推送完成: messageId={}, 成功={}, 失败={}", messageRecord.getId(),
+                outcomes.stream().filter(PushOutcome::isSuccess).count(),
+                outcomes.stream().filter(outcome -> !outcome.isSuccess()).count());
+            
         } catch (Exception e) {
             log.error("处理消息推送失败: messageId={}, error={}", messageRecord.getId(), e.getMessage(), e);
         }
@@ -204,6 +351,111 @@ public class MessageForwardServiceImpl implements MessageForwardService {
         }
     }
     
+    @Override
+    public int flushCoalescedPushes() {
+        List<PushCoalescer.CoalescedDigest> digests = pushCoalescer.claimDue(coalesceBatchSize);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(digests.size());
+        for (PushCoalescer.CoalescedDigest digest : digests) {
+            MessageRecord messageRecord = digest.messageRecord();
+            UserPushConfig config = pushRoutingCache.getRoutingTable(messageRecord.getUserId()).getConfig(digest.configId());
+            if (config == null) {
+                log.info("推送配置已删除或禁用，丢弃汇总推送: configId={}, messageId={}", digest.configId(), messageRecord.getId());
+                continue;
+            }
+            
+            log.info("开始汇总推送: messageId={}, platform={}, configName={}, title={}",
+                messageRecord.getId(), config.getPlatform(), config.getConfigName(), messageRecord.getTitle());
+            futures.add(pushFanoutExecutor.pushAllAsync(messageRecord, List.of(config))
+                .thenAccept(outcomes -> handleOutcomes(messageRecord, outcomes))
+                .exceptionally(e -> {
+                    log.error("汇总推送失败: messageId={}, configId={}, error={}", messageRecord.getId(), digest.configId(), e.getMessage(), e);
+                    return null;
+                }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return digests.size();
+    }
+    
+    /**
+     * 处理推送结果：限流的推送延迟推送，失败的推送加入重试队列
+     * 
+     * @param messageRecord 消息记录
+     * @param outcomes 推送结果列表
+     */
+    private void handleOutcomes(MessageRecord messageRecord, List<PushOutcome> outcomes) {
+        for (PushOutcome outcome : outcomes) {
+            UserPushConfig config = outcome.getConfig();
+            if (outcome.isSuccess()) {
+                log.info("推送到平台{}成功: messageId={}, configName={}, tags={}",
+                        config.getPlatform(), messageRecord.getId(), config.getConfigName(), messageRecord.getTags());
+            } else if (outcome.getError() instanceof PushDeliveryGuard.DuplicateDeliveryException) {
+                // 已推送或其他节点正在推送，重复投递直接跳过
+                log.info("消息已推送到该配置，跳过重复推送: messageId={}, platform={}, configName={}",
+                    messageRecord.getId(), config.getPlatform(), config.getConfigName());
+            } else if (outcome.getError() instanceof PushRateLimiter.RateLimitedException rateLimited) {
+                log.info("推送目标超出频率限制，延迟推送: messageId={}, platform={}, configName={}, wait={}ms",
+                    messageRecord.getId(), config.getPlatform(), config.getConfigName(), rateLimited.getWaitMillis());
+                
+                // 未发起推送，不记录失败，延迟后重新推送
+                pushRetryScheduler.scheduleDelayed(messageRecord, config, rateLimited.getWaitMillis());
+            } else if (outcome.getError() != null) {
+                log.error("推送到平台{}失败: messageId={}, configName={}, error={}",
+                    config.getPlatform(), messageRecord.getId(), config.getConfigName(), outcome.getError().getMessage());
+                
+                // 推送未执行，补一条失败的推送记录以计入推送统计
+                pushServiceManager.saveFailedPushRecord(messageRecord, config, outcome.getError().getMessage());
+                
+                // 推送失败，加入重试队列
+                pushRetryScheduler.scheduleRetry(messageRecord, config, outcome.getError().getMessage());
+            } else {
+                log.warn("推送到平台{}失败: messageId={}, configName={}",
+                        config.getPlatform(), messageRecord.getId(), config.getConfigName());
+                
+                // 推送失败，加入重试队列
+                pushRetryScheduler.scheduleRetry(messageRecord, config,
+                    outcome.getPushRecord() != null ? outcome.getPushRecord().getErrorMessage() : null);
+            }
+        }
+    }
+    
+    /**
+     * 校验推送请求
+     * 
+     * @param pushRequest 推送请求
+     */
+    private void validatePushRequest(MessagePushRequest pushRequest) {
+        if (pushRequest == null) {
+            throw new RuntimeException("推送请求不能为空");
+        }
+
+        if (StrUtil.isBlank(pushRequest.getTitle()) && StrUtil.isBlank(pushRequest.getContent())) {
+            throw new RuntimeException("消息标题和内容不能同时为空");
+        }
+
+        if (StrUtil.isBlank(pushRequest.getUserKey())) {
+            throw new RuntimeException("用户标识不能为空");
+        }
+    }
+    
+    /**
+     * 处理短信消息：消息包含"短信"标签时提取验证码放到副标题或内容前
+     * 
+     * @param messageRecord 消息记录
+     */
+    private void processSmsContent(MessageRecord messageRecord) {
+        if (messageRecord.getTags() != null && (!messageRecord.getTags().stream().filter(item -> item.contains("短信")).toList().isEmpty())) {
+            String simCode = smsMessageProcessor.processSmsMessage(messageRecord.getContent());
+
+            if (StrUtil.isBlank(messageRecord.getSubtitle())) {
+                messageRecord.setSubtitle(simCode);
+            } else {
+                messageRecord.setContent(simCode + messageRecord.getContent());
+            }
+
+            log.debug("短信消息内容已处理: {}", simCode);
+        }
+    }
+    
     /**
      * 构建消息记录对象
      * 
@@ -235,124 +487,4 @@ public class MessageForwardServiceImpl implements MessageForwardService {
         
         return record;
     }
-    
-    /**
-     * 更新推送成功状态
-     * 
-     * @param messageRecord 消息记录
-     * @param platform 推送平台
-     */
-    private void updatePushSuccess(MessageRecord messageRecord, String platform) {
-        try {
-            // 增加成功计数
-            messageRecord.setPushSuccessCount(messageRecord.getPushSuccessCount() + 1);
-            
-            // 添加到已推送平台列表
-            List<String> pushedPlatforms = messageRecord.getPushedPlatforms();
-            if (pushedPlatforms == null) {
-                pushedPlatforms = new ArrayList<>();
-                messageRecord.setPushedPlatforms(pushedPlatforms);
-            }
-            if (!pushedPlatforms.contains(platform)) {
-                pushedPlatforms.add(platform);
-            }
-            
-            // 更新时间
-            messageRecord.setUpdateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
-            
-            // 更新到数据库
-            messageRecordService.updateMessageRecord(messageRecord);
-            
-        } catch (Exception e) {
-            log.error("更新推送成功状态失败: messageId={}, platform={}, error={}", 
-                messageRecord.getId(), platform, e.getMessage());
-        }
-    }
-    
-    /**
-     * 更新推送失败状态
-     * 
-     * @param messageRecord 消息记录
-     */
-    private void updatePushFailure(MessageRecord messageRecord) {
-        try {
-            // 增加失败计数
-            messageRecord.setPushFailCount(messageRecord.getPushFailCount() + 1);
-            
-            // 更新时间
-            messageRecord.setUpdateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
-            
-            // 更新到数据库
-            messageRecordService.updateMessageRecord(messageRecord);
-            
-        } catch (Exception e) {
-            log.error("更新推送失败状态失败: messageId={}, error={}", 
-                messageRecord.getId(), e.getMessage());
-        }
-    }
-    
-    /**
-     * 将失败的推送任务加入重试队列
-     * 
-     * @param messageRecord 消息记录
-     * @param config 推送配置
-     */
-    private void addToRetryQueue(MessageRecord messageRecord, UserPushConfig config) {
-        try {
-            // 构建重试任务数据
-            var retryTask = new Object() {
-                public final Long messageId = messageRecord.getId();
-                public final String platform = config.getPlatform();
-                public final String configName = config.getConfigName();
-                public final LocalDateTime retryTime = LocalDateTime.now().plusMinutes(5); // 5分钟后重试
-            };
-            
-            redisTemplate.opsForList().leftPush(MESSAGE_RETRY_QUEUE, JSON.toJSONString(retryTask));
-            log.info("推送失败任务已加入重试队列: messageId={}, platform={}", 
-                messageRecord.getId(), config.getPlatform());
-        } catch (Exception e) {
-            log.error("加入重试队列失败: {}", e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * 基于标签过滤推送配置
-     * 
-     * @param messageRecord 消息记录
-     * @param configs 原始推送配置列表
-     * @return 过滤后的推送配置列表
-     */
-    private List<UserPushConfig> filterConfigsByTags(MessageRecord messageRecord, List<UserPushConfig> configs) {
-        // 如果消息没有标签，返回所有配置
-        if (messageRecord.getTags() == null || messageRecord.getTags().isEmpty()) {
-            return configs;
-        }
-        
-        // 获取用户的标签推送配置
-        List<TagPushConfig> tagConfigs = tagPushConfigService.getEnabledByUserId(messageRecord.getUserId());
-        if (tagConfigs == null || tagConfigs.isEmpty()) {
-            // 没有标签配置，返回所有推送配置
-            return configs;
-        }
-        
-        // 检查消息标签是否匹配任何标签配置，收集允许的推送配置ID
-        Set<Long> allowedConfigIds = new HashSet<>();
-        for (String tag : messageRecord.getTags()) {
-            for (TagPushConfig tagConfig : tagConfigs) {
-                if (tag.equals(tagConfig.getTagName()) && tagConfig.getPushConfigIds() != null) {
-                    allowedConfigIds.addAll(tagConfig.getPushConfigIds());
-                }
-            }
-        }
-        
-        // 如果没有匹配的标签配置，使用所有推送配置
-        if (allowedConfigIds.isEmpty()) {
-            return configs;
-        }
-        
-        // 过滤推送配置，只保留标签配置中指定的配置ID
-        return configs.stream()
-            .filter(config -> allowedConfigIds.contains(config.getId()))
-            .toList();
-    }
-}
\ No newline at end of file
+}
@@ -6,18 +6,29 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.github.pagehelper.PageHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import cn.hutool.core.util.IdUtil;
+import xyz.ersut.message.entity.MessagePushStat;
 import xyz.ersut.message.entity.MessageRecord;
 import xyz.ersut.message.entity.PushRecord;
 import xyz.ersut.message.mapper.MessageRecordMapper;
 import xyz.ersut.message.mapper.PushRecordMapper;
+import xyz.ersut.message.service.clickhouse.ClickHouseBatchWriter;
 import xyz.ersut.message.service.MessageRecordService;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 消息存储服务实现类
@@ -32,6 +43,14 @@ public class MessageRecordServiceImpl implements MessageRecordService {
     
     private final MessageRecordMapper messageRecordMapper;
     private final PushRecordMapper pushRecordMapper;
+    private final ClickHouseBatchWriter<MessageRecord, Long> messageRecordBatchWriter;
+    private final ClickHouseBatchWriter<PushRecord, Long> pushRecordBatchWriter;
+    
+    /**
+     * 单条保存等待批量写入完成的最长时间（毫秒），ClickHouse不可用时在此时间内返回失败
+     */
+    @Value("${message.clickhouse.writer.write-timeout:3000}")
+    private long writeTimeout;
     
     @Override
     public boolean saveMessageRecord(MessageRecord messageRecord) {
@@ -48,15 +67,46 @@ public class MessageRecordServiceImpl implements MessageRecordService {
                 messageRecord.setUpdateTime(messageRecord.getUpdateTime().truncatedTo(ChronoUnit.SECONDS));
             }
             
-            int result = messageRecordMapper.insert(messageRecord);
-            log.debug("保存消息记录，ID: {}, 结果: {}", messageRecord.getId(), result > 0);
-            return result > 0;
+            // 加入批量写入队列，等待所在批次写入ClickHouse后才返回成功；超时时数据可能稍后写入，但仍按失败返回
+            messageRecordBatchWriter.submit(messageRecord).get(writeTimeout, TimeUnit.MILLISECONDS);
+            log.debug("保存消息记录，ID: {}", messageRecord.getId());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("保存消息记录被中断: messageId={}", messageRecord.getId());
+            return false;
         } catch (Exception e) {
             log.error("保存消息记录失败: {}", e.getMessage(), e);
             return false;
         }
     }
     
+    @Override
+    public boolean saveMessageRecords(List<MessageRecord> messageRecords) {
+        if (messageRecords == null || messageRecords.isEmpty()) {
+            return false;
+        }
+        
+        try {
+            for (MessageRecord messageRecord : messageRecords) {
+                if (messageRecord.getCreateTime() != null) {
+                    messageRecord.setCreateTime(messageRecord.getCreateTime().truncatedTo(ChronoUnit.SECONDS));
+                }
+                if (messageRecord.getUpdateTime() != null) {
+                    messageRecord.setUpdateTime(messageRecord.getUpdateTime().truncatedTo(ChronoUnit.SECONDS));
+                }
+            }
+            
+            long start = System.currentTimeMillis();
+            int rows = messageRecordMapper.insertBatch(messageRecords);
+            log.debug("批量保存消息记录: rows={}, cost={}ms", rows, System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.error("批量保存消息记录失败: size={}, error={}", messageRecords.size(), e.getMessage(), e);
+            return false;
+        }
+    }
+    
     @Override
     public MessageRecord getMessageById(Long id) {
         if (id == null) {
@@ -64,7 +114,11 @@ public class MessageRecordServiceImpl implements MessageRecordService {
         }
         
         try {
-            return messageRecordMapper.selectById(id);
+            MessageRecord messageRecord = messageRecordMapper.selectById(id);
+            if (messageRecord != null) {
+                mergePushStats(Collections.singletonList(messageRecord));
+            }
+            return messageRecord;
         } catch (Exception e) {
             log.error("根据ID查询消息记录失败: {}", e.getMessage(), e);
             return null;
@@ -84,6 +138,7 @@ public class MessageRecordServiceImpl implements MessageRecordService {
             
             Page<MessageRecord> page = new Page<>((offset / limit) + 1, limit);
             Page<MessageRecord> result = messageRecordMapper.selectPage(page, queryWrapper);
+            mergePushStats(result.getRecords());
             return result.getRecords();
         } catch (Exception e) {
             log.error("根据用户ID查询消息记录失败: {}", e.getMessage(), e);
@@ -100,6 +155,7 @@ public class MessageRecordServiceImpl implements MessageRecordService {
             com.github.pagehelper.Page<MessageRecord> page = (com.github.pagehelper.Page<MessageRecord>)messageRecordMapper.selectByConditionWithTags(userId, messageType, startTime, endTime, tags);
 
             Page<MessageRecord> resultPage = new Page<>(page.getPageNum(), page.getPageSize());
+            mergePushStats(page.getResult());
             resultPage.setRecords(page.getResult());
             resultPage.setTotal(page.getTotal());
             resultPage.setPages(page.getPages());
@@ -169,6 +225,18 @@ public class MessageRecordServiceImpl implements MessageRecordService {
                 messageRecord.setUpdateTime(messageRecord.getUpdateTime().truncatedTo(ChronoUnit.SECONDS));
             }
             
+            // 消息记录尚在批量写入队列中时直接合并到待写入行，避免对未落库的行执行mutation
+            boolean merged = messageRecordBatchWriter.updatePending(messageRecord.getId(), pending -> {
+                pending.setPushedPlatforms(messageRecord.getPushedPlatforms());
+                pending.setPushSuccessCount(messageRecord.getPushSuccessCount());
+                pending.setPushFailCount(messageRecord.getPushFailCount());
+                pending.setUpdateTime(messageRecord.getUpdateTime());
+            });
+            if (merged) {
+                log.debug("更新消息推送统计（合并到待写入行），ID: {}", messageRecord.getId());
+                return true;
+            }
+
             // 只更新推送统计相关字段
             int result = messageRecordMapper.updatePushStats(
                 messageRecord.getId(),
@@ -211,9 +279,9 @@ public class MessageRecordServiceImpl implements MessageRecordService {
                 pushRecord.setRetryCount(0);
             }
             
-            int result = pushRecordMapper.insert(pushRecord);
-            log.debug("保存推送记录，ID: {}, 结果: {}", pushRecord.getId(), result > 0);
-            return result > 0;
+            boolean result = pushRecordBatchWriter.add(pushRecord);
+            log.debug("保存推送记录，ID: {}, 结果: {}", pushRecord.getId(), result);
+            return result;
         } catch (Exception e) {
             log.error("保存推送记录失败: {}", e.getMessage(), e);
             return false;
@@ -238,6 +306,83 @@ public class MessageRecordServiceImpl implements MessageRecordService {
         }
     }
     
+    @Override
+    public List<MessageRecord> getMessagesByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return messageRecordMapper.selectByIds(ids);
+    }
+    
+    @Override
+    public List<PushRecord> getFailedPushRecords(int maxRetryCount, LocalDateTime since, LocalDateTime until,
+                                                 LocalDateTime lastCreateTime, Long lastId, int limit) {
+        return pushRecordMapper.selectFailedRecords(maxRetryCount, since, until, lastCreateTime, lastId, limit);
+    }
+    
+    @Override
+    public List<PushRecord> getPushAttemptSummary(Collection<Long> userIds, Collection<Long> messageIds) {
+        if (userIds == null || userIds.isEmpty() || messageIds == null || messageIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return pushRecordMapper.selectAttemptSummary(userIds, messageIds);
+    }
+    
+    /**
+     * 将推送统计合并到消息记录
+     * message_record中的计数和平台列表为写入时的初始值，推送结果由push_record经物化视图汇总到message_push_stat，
+     * 查询时叠加，推送过程中不再对message_record执行mutation；
+     * 成功、失败计数为推送尝试次数（与原先每次推送后累加的口径一致），同一配置失败后重试成功时两者各计一次
+     * 
+     * @param messageRecords 消息记录列表
+     */
+    private void mergePushStats(List<MessageRecord> messageRecords) {
+        if (messageRecords == null || messageRecords.isEmpty()) {
+            return;
+        }
+        
+        Set<Long> messageIds = messageRecords.stream()
+            .map(MessageRecord::getId)
+            .collect(Collectors.toSet());
+        
+        Map<Long, MessagePushStat> statMap;
+        try {
+            statMap = messageRecordMapper.selectPushStats(messageIds).stream()
+                .collect(Collectors.toMap(MessagePushStat::getMessageId, Function.identity(), (a, b) -> a));
+        } catch (Exception e) {
+            log.error("查询消息推送统计失败: {}", e.getMessage(), e);
+            return;
+        }
+        
+        for (MessageRecord messageRecord : messageRecords) {
+            MessagePushStat stat = statMap.get(messageRecord.getId());
+            if (stat == null) {
+                continue;
+            }
+            
+            messageRecord.setPushSuccessCount(defaultZero(messageRecord.getPushSuccessCount()) + defaultZero(stat.getSuccessCount()));
+            messageRecord.setPushFailCount(defaultZero(messageRecord.getPushFailCount()) + defaultZero(stat.getFailCount()));
+            
+            Set<String> platforms = new LinkedHashSet<>();
+            if (messageRecord.getPushedPlatforms() != null) {
+                platforms.addAll(messageRecord.getPushedPlatforms());
+            }
+            if (stat.getPushedPlatforms() != null) {
+                platforms.addAll(stat.getPushedPlatforms());
+            }
+            messageRecord.setPushedPlatforms(new ArrayList<>(platforms));
+            
+            if (stat.getUpdateTime() != null
+                && (messageRecord.getUpdateTime() == null || stat.getUpdateTime().isAfter(messageRecord.getUpdateTime()))) {
+                messageRecord.setUpdateTime(stat.getUpdateTime());
+            }
+        }
+    }
+    
+    private int defaultZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+    
     @Override
     public Long generateMessageId() {
         return IdUtil.getSnowflakeNextId();
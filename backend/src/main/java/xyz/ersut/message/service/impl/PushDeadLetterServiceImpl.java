@@ -0,0 +1,234 @@
+package xyz.ersut.message.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import cn.hutool.core.util.StrUtil;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.dto.DeadLetterReplayRequest;
+import xyz.ersut.message.dto.PushDeadLetter;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.UserPushConfig;
+import xyz.ersut.message.service.PushDeadLetterService;
+import xyz.ersut.message.service.push.PushRoutingCache;
+import xyz.ersut.message.service.push.PushRoutingTable;
+import xyz.ersut.message.service.queue.PushDeadLetterQueue;
+import xyz.ersut.message.service.queue.PushRetryScheduler;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * 推送死信服务实现类
+ * 重放不直接推送，而是按全局重放速率错开到期时间写入重试队列，
+ * 恢复后的推送仍经过熔断、限流和并发隔离，多个重放请求共享同一速率上限
+ *
+ * @author ersut
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PushDeadLetterServiceImpl implements PushDeadLetterService {
+
+    /**
+     * 预留重放时间段：KEYS[1]=下一个可用时间点 ARGV[1]=当前时间 ARGV[2]=推送数 ARGV[3]=间隔（毫秒）
+     * 返回本次重放的开始时间
+     */
+    private static final RedisScript<Long> RESERVE_SLOTS_SCRIPT = new DefaultRedisScript<>("""
+        local now = tonumber(ARGV[1])
+        local next = tonumber(redis.call('GET', KEYS[1]) or '0')
+        local start = math.max(now, next)
+        local finish = start + tonumber(ARGV[2]) * tonumber(ARGV[3])
+        redis.call('SET', KEYS[1], finish, 'PX', finish - now + 60000)
+        return start
+        """, Long.class);
+
+    /**
+     * 重放时每次从死信Stream读取的数量
+     */
+    private static final int REPLAY_READ_BATCH = 500;
+
+    private final PushDeadLetterQueue pushDeadLetterQueue;
+    private final PushRetryScheduler pushRetryScheduler;
+    private final PushRoutingCache pushRoutingCache;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 系统每秒最大重放推送数（所有重放请求共享）
+     */
+    @Value("${message.dead-letter.replay-rate:20}")
+    private double replayRate;
+
+    /**
+     * 单次重放默认的最大死信数
+     */
+    @Value("${message.dead-letter.replay-limit:1000}")
+    private int replayLimit;
+
+    /**
+     * 单次重放允许的最大死信数
+     */
+    @Value("${message.dead-letter.replay-max-limit:10000}")
+    private int replayMaxLimit;
+
+    /**
+     * 查询时最多扫描的死信数
+     */
+    @Value("${message.dead-letter.list-scan-limit:5000}")
+    private int listScanLimit;
+
+    @Override
+    public List<PushDeadLetter> listDeadLetters(Long userId, String platform, Long configId, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        return pushDeadLetterQueue.listNewest(userId, cursor, pageSize, listScanLimit, matches(platform, configId));
+    }
+
+    @Override
+    public long countDeadLetters(Long userId) {
+        return pushDeadLetterQueue.size(userId);
+    }
+
+    @Override
+    public Map<String, Object> replayDeadLetters(Long userId, DeadLetterReplayRequest request) {
+        int limit = Math.min(request.getLimit() != null && request.getLimit() > 0 ? request.getLimit() : replayLimit,
+            replayMaxLimit);
+        double rate = request.getRatePerSecond() != null && request.getRatePerSecond() > 0
+            ? Math.min(request.getRatePerSecond(), replayRate) : replayRate;
+
+        // 收集要重放的死信
+        List<PushDeadLetter> deadLetters = collectDeadLetters(userId, request, limit);
+
+        // 解析每条死信要推送的配置（推送配置以当前路由表为准，已删除或禁用的配置跳过）
+        PushRoutingTable routingTable = pushRoutingCache.getRoutingTable(userId);
+        List<MessageRecord> messages = new ArrayList<>();
+        List<UserPushConfig> configs = new ArrayList<>();
+        List<String> replayedIds = new ArrayList<>();
+        int skipped = 0;
+        for (PushDeadLetter deadLetter : deadLetters) {
+            List<UserPushConfig> targets = resolveConfigs(routingTable, deadLetter);
+            if (targets.isEmpty()) {
+                skipped++;
+                continue;
+            }
+            for (UserPushConfig config : targets) {
+                messages.add(deadLetter.getMessageRecord());
+                configs.add(config);
+            }
+            replayedIds.add(deadLetter.getId());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("replayed", configs.size());
+        response.put("skipped", skipped);
+        if (configs.isEmpty()) {
+            return response;
+        }
+
+        // 按重放速率预留时间段，逐条错开写入重试队列
+        long interval = Math.max(1, (long) Math.ceil(1000 / rate));
+        long now = System.currentTimeMillis();
+        Long start = stringRedisTemplate.execute(RESERVE_SLOTS_SCRIPT,
+            List.of(CacheConstants.MESSAGE_DEAD_LETTER_REPLAY_SLOT),
+            String.valueOf(now), String.valueOf(configs.size()), String.valueOf(interval));
+        long startTime = start != null ? start : now;
+        for (int i = 0; i < configs.size(); i++) {
+            pushRetryScheduler.scheduleReplay(messages.get(i), configs.get(i), startTime + i * interval - now);
+        }
+        pushDeadLetterQueue.delete(userId, replayedIds);
+
+        long endTime = startTime + (configs.size() - 1) * interval;
+        log.info("死信重放已排队: userId={}, deadLetters={}, pushes={}, skipped={}, rate={}/s, startTime={}, endTime={}",
+            userId, replayedIds.size(), configs.size(), skipped, rate, startTime, endTime);
+        response.put("startTime", toLocalDateTime(startTime));
+        response.put("endTime", toLocalDateTime(endTime));
+        return response;
+    }
+
+    @Override
+    public long deleteDeadLetters(Long userId, List<String> ids) {
+        return pushDeadLetterQueue.delete(userId, ids);
+    }
+
+    /**
+     * 按ID或筛选条件收集死信
+     */
+    private List<PushDeadLetter> collectDeadLetters(Long userId, DeadLetterReplayRequest request, int limit) {
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            Map<String, PushDeadLetter> byId = new LinkedHashMap<>();
+            for (String id : request.getIds()) {
+                if (byId.size() >= limit) {
+                    break;
+                }
+                PushDeadLetter deadLetter = pushDeadLetterQueue.get(userId, id);
+                if (deadLetter != null) {
+                    byId.put(id, deadLetter);
+                }
+            }
+            return new ArrayList<>(byId.values());
+        }
+
+        Predicate<PushDeadLetter> filter = matches(request.getPlatform(), request.getConfigId());
+        List<PushDeadLetter> result = new ArrayList<>();
+        String cursor = null;
+        while (result.size() < limit) {
+            List<PushDeadLetter> batch = pushDeadLetterQueue.readOldest(userId, cursor, REPLAY_READ_BATCH);
+            for (PushDeadLetter deadLetter : batch) {
+                cursor = deadLetter.getId();
+                if (filter.test(deadLetter)) {
+                    result.add(deadLetter);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+            if (batch.size() < REPLAY_READ_BATCH) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 解析死信要推送的配置：指定了配置的死信只推送该配置，整条消息的死信重新按标签路由
+     */
+    private List<UserPushConfig> resolveConfigs(PushRoutingTable routingTable, PushDeadLetter deadLetter) {
+        MessageRecord messageRecord = deadLetter.getMessageRecord();
+        if (messageRecord == null) {
+            return Collections.emptyList();
+        }
+        if (deadLetter.getConfigId() != null) {
+            UserPushConfig config = routingTable.getConfig(deadLetter.getConfigId());
+            return config != null ? List.of(config) : Collections.emptyList();
+        }
+
+        List<UserPushConfig> configs = routingTable.route(messageRecord.getTags());
+        if (messageRecord.getPushedPlatforms() != null && !messageRecord.getPushedPlatforms().isEmpty()) {
+            configs = configs.stream()
+                .filter(config -> messageRecord.getPushedPlatforms().contains(config.getPlatform()))
+                .toList();
+        }
+        return configs;
+    }
+
+    private Predicate<PushDeadLetter> matches(String platform, Long configId) {
+        return deadLetter -> (StrUtil.isBlank(platform) || platform.equals(deadLetter.getPlatform()))
+            && (configId == null || Objects.equals(configId, deadLetter.getConfigId()));
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -1,9 +1,11 @@
 package xyz.ersut.message.service.impl;
 
 import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.baomidou.dynamic.datasource.annotation.DS;
@@ -12,9 +14,17 @@ import xyz.ersut.message.dto.LoginResponse;
 import xyz.ersut.message.entity.SysUser;
 import xyz.ersut.message.mapper.SysUserMapper;
 import xyz.ersut.message.service.SysUserService;
+import xyz.ersut.message.service.cache.UserKeyCache;
+import xyz.ersut.message.service.queue.IngestQuotaLimiter;
 import xyz.ersut.message.utils.JwtUtils;
 import xyz.ersut.message.utils.Md5Utils;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * 用户服务实现类
  * 
@@ -28,8 +38,34 @@ public class SysUserServiceImpl implements SysUserService {
     
     private final SysUserMapper sysUserMapper;
     private final JwtUtils jwtUtils;
+    private final UserKeyCache userKeyCache;
+    private final IngestQuotaLimiter ingestQuotaLimiter;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
+    /**
+     * 消息去重窗口上限（秒）
+     */
+    @Value("${message.dedupe.max-window:86400}")
+    private int maxDedupeWindowSeconds;
+    
+    /**
+     * 用户可设置的推送接口每秒上限
+     */
+    @Value("${message.quota.max-per-second:500}")
+    private int maxQuotaPerSecond;
+    
+    /**
+     * 用户可设置的推送接口每分钟上限
+     */
+    @Value("${message.quota.max-per-minute:10000}")
+    private int maxQuotaPerMinute;
+    
+    /**
+     * 用户可设置的推送接口每天上限
+     */
+    @Value("${message.quota.max-per-day:1000000}")
+    private int maxQuotaPerDay;
+    
     @Override
     public LoginResponse login(LoginRequest loginRequest) {
         // 参数校验
@@ -88,7 +124,19 @@ public class SysUserServiceImpl implements SysUserService {
         if (StrUtil.isBlank(userKey)) {
             return null;
         }
-        return sysUserMapper.selectByUserKey(userKey);
+        // 推送接口每条消息都会查询，走本地缓存（含不存在密钥的空值缓存）
+        return userKeyCache.get(userKey, sysUserMapper::selectByUserKey);
+    }
+    
+    @Override
+    public Map<String, SysUser> getUsersByUserKeys(Collection<String> userKeys) {
+        List<String> keys = userKeys.stream().filter(StrUtil::isNotBlank).distinct().toList();
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        // 未命中缓存的密钥一次查询
+        return userKeyCache.getAll(keys, missing -> sysUserMapper.selectByUserKeys(missing).stream()
+            .collect(Collectors.toMap(SysUser::getUserKey, Function.identity(), (first, second) -> first)));
     }
     
     @Override
@@ -110,7 +158,12 @@ public class SysUserServiceImpl implements SysUserService {
             user.setStatus(1);
         }
         
-        return sysUserMapper.insert(user) > 0;
+        boolean created = sysUserMapper.insert(user) > 0;
+        if (created) {
+            // 密钥可能在注册前被查询过，清除不存在的空值缓存
+            userKeyCache.invalidate(user.getUserKey());
+        }
+        return created;
     }
     
     @Override
@@ -124,7 +177,17 @@ public class SysUserServiceImpl implements SysUserService {
             user.setPassword(encodePassword(user.getPassword()));
         }
         
-        return sysUserMapper.updateById(user) > 0;
+        // 记录更新前的密钥，用户状态或密钥变更后清除缓存
+        SysUser oldUser = sysUserMapper.selectById(user.getId());
+        
+        boolean updated = sysUserMapper.updateById(user) > 0;
+        if (updated) {
+            if (oldUser != null) {
+                userKeyCache.invalidate(oldUser.getUserKey());
+            }
+            userKeyCache.invalidate(user.getUserKey());
+        }
+        return updated;
     }
     
     @Override
@@ -179,6 +242,7 @@ public class SysUserServiceImpl implements SysUserService {
         int result = sysUserMapper.updateById(user);
         
         if (result > 0) {
+            userKeyCache.invalidate(user.getUserKey());
             log.info("用户{}密码修改成功", username);
             return true;
         } else {
@@ -204,10 +268,14 @@ public class SysUserServiceImpl implements SysUserService {
         String newUserKey = generateUniqueUserKey(username);
         
         // 更新用户密钥
+        String oldUserKey = user.getUserKey();
         user.setUserKey(newUserKey);
         int result = sysUserMapper.updateById(user);
         
         if (result > 0) {
+            // 旧密钥立即失效；新密钥可能已被空值缓存，一并清除
+            userKeyCache.invalidate(oldUserKey);
+            userKeyCache.invalidate(newUserKey);
             log.info("用户{}密钥重置成功，新密钥: {}", username, newUserKey);
             return newUserKey;
         } else {
@@ -216,6 +284,65 @@ public class SysUserServiceImpl implements SysUserService {
         }
     }
     
+    @Override
+    public boolean updateDedupeWindow(String username, Integer dedupeWindowSeconds) {
+        if (StrUtil.isBlank(username) || dedupeWindowSeconds == null) {
+            throw new RuntimeException("参数不能为空");
+        }
+        if (dedupeWindowSeconds < 0 || dedupeWindowSeconds > maxDedupeWindowSeconds) {
+            throw new RuntimeException("去重窗口必须为0-" + maxDedupeWindowSeconds + "秒");
+        }
+        
+        SysUser user = sysUserMapper.selectByUsername(username);
+        if (user == null) {
+            throw new RuntimeException("用户不存在");
+        }
+        
+        SysUser update = new SysUser();
+        update.setId(user.getId());
+        update.setDedupeWindowSeconds(dedupeWindowSeconds);
+        boolean updated = sysUserMapper.updateById(update) > 0;
+        if (updated) {
+            userKeyCache.invalidate(user.getUserKey());
+            log.info("用户{}消息去重窗口设置为{}秒", username, dedupeWindowSeconds);
+        }
+        return updated;
+    }
+    
+    @Override
+    public boolean updateIngestQuota(String username, Integer perSecond, Integer perMinute, Integer perDay) {
+        if (StrUtil.isBlank(username)) {
+            throw new RuntimeException("参数不能为空");
+        }
+        checkQuota("每秒上限", perSecond, maxQuotaPerSecond);
+        checkQuota("每分钟上限", perMinute, maxQuotaPerMinute);
+        checkQuota("每天上限", perDay, maxQuotaPerDay);
+        
+        SysUser user = sysUserMapper.selectByUsername(username);
+        if (user == null) {
+            throw new RuntimeException("用户不存在");
+        }
+        
+        // 为空的项需要写入NULL，不能使用updateById
+        boolean updated = sysUserMapper.update(null, new LambdaUpdateWrapper<SysUser>()
+            .eq(SysUser::getId, user.getId())
+            .set(SysUser::getIngestQuotaPerSecond, perSecond)
+            .set(SysUser::getIngestQuotaPerMinute, perMinute)
+            .set(SysUser::getIngestQuotaPerDay, perDay)) > 0;
+        if (updated) {
+            userKeyCache.invalidate(user.getUserKey());
+            ingestQuotaLimiter.invalidate(user.getId());
+            log.info("用户{}推送接口配额设置为: perSecond={}, perMinute={}, perDay={}", username, perSecond, perMinute, perDay);
+        }
+        return updated;
+    }
+    
+    private void checkQuota(String name, Integer value, int max) {
+        if (value != null && (value < 1 || value > max)) {
+            throw new RuntimeException(name + "必须为1-" + max);
+        }
+    }
+    
     @Override
     public boolean isUserKeyExists(String userKey) {
         if (StrUtil.isBlank(userKey)) {
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import xyz.ersut.message.entity.TagPushConfig;
 import xyz.ersut.message.mapper.TagPushConfigMapper;
 import xyz.ersut.message.service.TagPushConfigService;
+import xyz.ersut.message.service.push.PushRoutingCache;
 
 import java.util.List;
 import java.util.Map;
@@ -24,6 +25,7 @@ import java.util.Map;
 public class TagPushConfigServiceImpl implements TagPushConfigService {
     
     private final TagPushConfigMapper tagPushConfigMapper;
+    private final PushRoutingCache pushRoutingCache;
     
     @Override
     public List<TagPushConfig> getEnabledByUserId(Long userId) {
@@ -56,13 +58,23 @@ public class TagPushConfigServiceImpl implements TagPushConfigService {
         }
         
         try {
+            boolean saved;
+            Long userId = tagPushConfig.getUserId();
             if (tagPushConfig.getId() != null) {
                 // 更新
-                return tagPushConfigMapper.updateById(tagPushConfig) > 0;
+                if (userId == null) {
+                    TagPushConfig existConfig = tagPushConfigMapper.selectById(tagPushConfig.getId());
+                    userId = existConfig != null ? existConfig.getUserId() : null;
+                }
+                saved = tagPushConfigMapper.updateById(tagPushConfig) > 0;
             } else {
                 // 新增
-                return tagPushConfigMapper.insert(tagPushConfig) > 0;
+                saved = tagPushConfigMapper.insert(tagPushConfig) > 0;
             }
+            if (saved) {
+                pushRoutingCache.invalidate(userId);
+            }
+            return saved;
         } catch (Exception e) {
             log.error("保存标签推送配置失败: {}", e.getMessage(), e);
             return false;
@@ -89,7 +101,12 @@ public class TagPushConfigServiceImpl implements TagPushConfigService {
         }
         
         try {
-            return tagPushConfigMapper.deleteById(id) > 0;
+            TagPushConfig existConfig = tagPushConfigMapper.selectById(id);
+            boolean deleted = tagPushConfigMapper.deleteById(id) > 0;
+            if (deleted && existConfig != null) {
+                pushRoutingCache.invalidate(existConfig.getUserId());
+            }
+            return deleted;
         } catch (Exception e) {
             log.error("删除标签推送配置失败: id={}, error={}", id, e.getMessage(), e);
             return false;
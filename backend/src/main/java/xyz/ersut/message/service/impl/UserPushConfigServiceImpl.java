@@ -2,6 +2,8 @@ package xyz.ersut.message.service.impl;
 
 import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -12,8 +14,12 @@ import xyz.ersut.message.entity.UserPushConfig;
 import xyz.ersut.message.enums.PushPlatform;
 import xyz.ersut.message.mapper.UserPushConfigMapper;
 import xyz.ersut.message.service.UserPushConfigService;
+import xyz.ersut.message.service.push.PushRoutingCache;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 用户推送配置服务实现类
@@ -27,6 +33,15 @@ import java.util.List;
 public class UserPushConfigServiceImpl implements UserPushConfigService {
     
     private final UserPushConfigMapper pushConfigMapper;
+    private final PushRoutingCache pushRoutingCache;
+    
+    /**
+     * 配置ID -> 解析结果，按更新时间和配置内容校验是否过期
+     */
+    private final Cache<Long, ParsedConfig> parsedConfigCache = Caffeine.newBuilder()
+        .maximumSize(10000)
+        .expireAfterAccess(Duration.ofHours(1))
+        .build();
     
     @Override
     public List<UserPushConfig> getByUserId(Long userId) {
@@ -81,8 +96,13 @@ public class UserPushConfigServiceImpl implements UserPushConfigService {
         config.setIsEnabled(configDto.getIsEnabled());
         config.setSortOrder(configDto.getSortOrder() != null ? configDto.getSortOrder() : 0);
         config.setRemark(configDto.getRemark());
+        config.setCoalesceSeconds(configDto.getCoalesceSeconds() != null ? configDto.getCoalesceSeconds() : 0);
         
-        return pushConfigMapper.insert(config) > 0;
+        boolean saved = pushConfigMapper.insert(config) > 0;
+        if (saved) {
+            pushRoutingCache.invalidate(userId);
+        }
+        return saved;
     }
     
     @Override
@@ -111,8 +131,13 @@ public class UserPushConfigServiceImpl implements UserPushConfigService {
         config.setIsEnabled(configDto.getIsEnabled());
         config.setSortOrder(configDto.getSortOrder());
         config.setRemark(configDto.getRemark());
+        config.setCoalesceSeconds(configDto.getCoalesceSeconds());
         
-        return pushConfigMapper.updateById(config) > 0;
+        boolean updated = pushConfigMapper.updateById(config) > 0;
+        if (updated) {
+            pushRoutingCache.invalidate(userId);
+        }
+        return updated;
     }
     
     @Override
@@ -127,7 +152,11 @@ public class UserPushConfigServiceImpl implements UserPushConfigService {
             throw new RuntimeException("配置不存在或无权限操作");
         }
         
-        return pushConfigMapper.deleteById(id) > 0;
+        boolean deleted = pushConfigMapper.deleteById(id) > 0;
+        if (deleted) {
+            pushRoutingCache.invalidate(userId);
+        }
+        return deleted;
     }
     
     @Override
@@ -146,7 +175,11 @@ public class UserPushConfigServiceImpl implements UserPushConfigService {
         config.setId(id);
         config.setIsEnabled(enabled ? 1 : 0);
         
-        return pushConfigMapper.updateById(config) > 0;
+        boolean updated = pushConfigMapper.updateById(config) > 0;
+        if (updated) {
+            pushRoutingCache.invalidate(userId);
+        }
+        return updated;
     }
     
     @Override
@@ -214,4 +247,46 @@ public class UserPushConfigServiceImpl implements UserPushConfigService {
         
         return dto;
     }
-}
\ No newline at end of file
+    
+    @Override
+    public UserPushConfigDto getParsedConfig(UserPushConfig config) {
+        if (config == null) {
+            return null;
+        }
+        
+        // 实体上已缓存（路由表中的配置对象会被多条消息复用）
+        UserPushConfigDto parsed = config.getParsedConfig();
+        if (parsed != null) {
+            return parsed;
+        }
+        
+        if (config.getId() == null) {
+            parsed = convertConfigDataToDto(config.getPlatform(), config.getConfigData());
+        } else {
+            ParsedConfig cached = parsedConfigCache.getIfPresent(config.getId());
+            if (cached == null || !cached.matches(config)) {
+                cached = new ParsedConfig(config.getUpdateTime(), config.getConfigData(),
+                    convertConfigDataToDto(config.getPlatform(), config.getConfigData()));
+                parsedConfigCache.put(config.getId(), cached);
+            }
+            parsed = cached.dto();
+        }
+        
+        config.setParsedConfig(parsed);
+        return parsed;
+    }
+    
+    /**
+     * 配置解析结果
+     * 
+     * @param updateTime 配置更新时间
+     * @param configData 解析时的配置数据
+     * @param dto 解析后的配置DTO
+     */
+    private record ParsedConfig(LocalDateTime updateTime, String configData, UserPushConfigDto dto) {
+        
+        boolean matches(UserPushConfig config) {
+            return Objects.equals(updateTime, config.getUpdateTime()) && Objects.equals(configData, config.getConfigData());
+        }
+    }
+}
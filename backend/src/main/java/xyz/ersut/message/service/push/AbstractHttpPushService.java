@@ -0,0 +1,171 @@
+package xyz.ersut.message.service.push;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.springframework.beans.factory.annotation.Autowired;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.PushRecord;
+import xyz.ersut.message.entity.UserPushConfig;
+import xyz.ersut.message.service.MessageRecordService;
+import xyz.ersut.message.service.push.HttpPushCalls.HttpResult;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * HTTP推送服务基类
+ * 子类只负责构建请求和解析响应，同步推送使用execute，异步推送使用OkHttp enqueue，不占用调用线程
+ *
+ * @author ersut
+ */
+@Slf4j
+public abstract class AbstractHttpPushService implements PushService {
+
+    @Autowired
+    protected MessageRecordService messageRecordService;
+
+    @Autowired
+    protected OkHttpClient pushHttpClient;
+
+    /**
+     * 获取平台名称，用于日志输出
+     *
+     * @return 平台名称
+     */
+    protected abstract String getPlatformName();
+
+    /**
+     * 构建推送请求，并将请求数据写入推送记录
+     *
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param pushRecord 推送记录
+     * @return HTTP请求
+     */
+    protected abstract Request buildPushRequest(MessageRecord messageRecord, UserPushConfig config, PushRecord pushRecord);
+
+    /**
+     * 解析推送响应，设置推送记录的状态
+     *
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param pushRecord 推送记录
+     * @param result HTTP响应结果
+     */
+    protected abstract void handlePushResponse(MessageRecord messageRecord, UserPushConfig config,
+                                               PushRecord pushRecord, HttpResult result);
+
+    /**
+     * 获取平台探测地址，熔断结束后请求该地址判断平台是否恢复
+     *
+     * @param config 推送配置
+     * @return 探测地址
+     */
+    protected abstract String getProbeUrl(UserPushConfig config);
+
+    @Override
+    public PushRecord pushMessage(MessageRecord messageRecord, UserPushConfig config) {
+        PushRecord pushRecord = createPushRecord(messageRecord, config);
+        try {
+            Request request = buildPushRequest(messageRecord, config, pushRecord);
+            HttpResult result;
+            try {
+                result = HttpPushCalls.execute(pushHttpClient, request);
+            } catch (IOException e) {
+                pushRecord.setPlatformError(true);
+                throw e;
+            }
+            pushRecord.setPlatformError(isPlatformError(result.code()));
+            handlePushResponse(messageRecord, config, pushRecord, result);
+        } catch (Exception e) {
+            handlePushError(messageRecord, pushRecord, e);
+        }
+        return pushRecord;
+    }
+
+    @Override
+    public CompletionStage<PushRecord> pushMessageAsync(MessageRecord messageRecord, UserPushConfig config) {
+        PushRecord pushRecord = createPushRecord(messageRecord, config);
+
+        Request request;
+        try {
+            request = buildPushRequest(messageRecord, config, pushRecord);
+        } catch (Exception e) {
+            handlePushError(messageRecord, pushRecord, e);
+            return CompletableFuture.completedFuture(pushRecord);
+        }
+
+        return HttpPushCalls.enqueue(pushHttpClient, request).handle((result, error) -> {
+            try {
+                if (error != null) {
+                    pushRecord.setPlatformError(true);
+                    handlePushError(messageRecord, pushRecord, error);
+                } else {
+                    pushRecord.setPlatformError(isPlatformError(result.code()));
+                    handlePushResponse(messageRecord, config, pushRecord, result);
+                }
+            } catch (Exception e) {
+                handlePushError(messageRecord, pushRecord, e);
+            }
+            return pushRecord;
+        });
+    }
+
+    /**
+     * 请求探测地址，能得到非5xx、非429的响应即认为平台可用
+     */
+    @Override
+    public CompletionStage<Boolean> probeAsync(UserPushConfig config) {
+        Request request;
+        try {
+            request = new Request.Builder().url(getProbeUrl(config)).get().build();
+        } catch (Exception e) {
+            log.warn("{}探测地址无效: error={}", getPlatformName(), e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return HttpPushCalls.enqueue(pushHttpClient, request).handle((result, error) -> {
+            if (error != null) {
+                log.warn("{}探测失败: url={}, error={}", getPlatformName(), request.url().host(), error.getMessage());
+                return false;
+            }
+            return !isPlatformError(result.code());
+        });
+    }
+
+    /**
+     * 创建推送中状态的推送记录
+     */
+    protected PushRecord createPushRecord(MessageRecord messageRecord, UserPushConfig config) {
+        PushRecord pushRecord = new PushRecord();
+        pushRecord.setId(messageRecordService.generatePushRecordId());
+        pushRecord.setMessageId(messageRecord.getId());
+        pushRecord.setUserId(messageRecord.getUserId());
+        pushRecord.setPlatform(getPlatformCode());
+        pushRecord.setConfigName(config.getConfigName());
+        pushRecord.setPushStatus(2); // 推送中
+        pushRecord.setPushTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        pushRecord.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        return pushRecord;
+    }
+
+    /**
+     * 推送异常时标记推送记录失败
+     */
+    protected void handlePushError(MessageRecord messageRecord, PushRecord pushRecord, Throwable e) {
+        pushRecord.setPushStatus(0); // 推送失败
+        pushRecord.setErrorMessage(e.getMessage());
+        log.error("{}推送异常: messageId={}, error={}", getPlatformName(), messageRecord.getId(), e.getMessage(), e);
+    }
+
+    /**
+     * 平台侧故障：服务端错误或限流，计入熔断统计；其他4xx通常是配置问题，不计入
+     */
+    private static boolean isPlatformError(int httpCode) {
+        return httpCode >= 500 || httpCode == 429;
+    }
+}
@@ -0,0 +1,61 @@
+package xyz.ersut.message.service.push;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非阻塞的并发许可
+ * 许可不足时返回未完成的Future排队等待，释放许可时唤醒下一个等待者；等待超时的请求会被跳过
+ *
+ * @author ersut
+ */
+final class AsyncPermits {
+
+    private int available;
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    AsyncPermits(int permits) {
+        this.available = permits;
+    }
+
+    CompletableFuture<Void> acquire(long timeoutMillis) {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (available > 0) {
+                available--;
+                return CompletableFuture.completedFuture(null);
+            }
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+        }
+        return waiter.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            do {
+                next = waiters.pollFirst();
+            } while (next != null && next.isDone());
+
+            if (next == null) {
+                available++;
+                return;
+            }
+        }
+
+        // 与超时并发时交接失败，继续释放给下一个等待者
+        if (!next.complete(null)) {
+            release();
+        }
+    }
+
+    /**
+     * 当前空闲的许可数
+     */
+    synchronized int available() {
+        return available;
+    }
+}
@@ -0,0 +1,54 @@
+package xyz.ersut.message.service.push;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按主机限制并发请求数的OkHttp拦截器
+ * OkHttp的Dispatcher.maxRequestsPerHost只对异步请求生效，同步execute()需要由该拦截器限制
+ *
+ * @author ersut
+ */
+public class HostConcurrencyInterceptor implements Interceptor {
+
+    private final int maxRequestsPerHost;
+    private final long acquireTimeoutMillis;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxRequestsPerHost 每个主机的最大并发请求数
+     * @param acquireTimeoutMillis 等待并发许可的超时时间（毫秒）
+     */
+    public HostConcurrencyInterceptor(int maxRequestsPerHost, long acquireTimeoutMillis) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        Semaphore permits = hostPermits.computeIfAbsent(host, key -> new Semaphore(maxRequestsPerHost));
+
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException("主机" + host + "并发请求数已满");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待主机" + host + "并发许可被中断");
+        }
+
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            permits.release();
+        }
+    }
+}
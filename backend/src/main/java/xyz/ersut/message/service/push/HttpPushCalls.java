@@ -0,0 +1,78 @@
+package xyz.ersut.message.service.push;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP推送请求工具
+ * 同步和异步两种执行方式都返回已读取完响应体的结果，调用方无需关心连接释放
+ *
+ * @author ersut
+ */
+public final class HttpPushCalls {
+
+    private HttpPushCalls() {
+    }
+
+    /**
+     * 同步执行请求
+     *
+     * @param client HTTP客户端
+     * @param request 请求
+     * @return 响应结果
+     * @throws IOException 网络异常
+     */
+    public static HttpResult execute(OkHttpClient client, Request request) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return HttpResult.of(response);
+        }
+    }
+
+    /**
+     * 异步执行请求（OkHttp enqueue），不占用调用线程
+     *
+     * @param client HTTP客户端
+     * @param request 请求
+     * @return 响应结果，网络异常时异常完成
+     */
+    public static CompletableFuture<HttpResult> enqueue(OkHttpClient client, Request request) {
+        CompletableFuture<HttpResult> future = new CompletableFuture<>();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    future.complete(HttpResult.of(response));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * HTTP响应结果
+     *
+     * @param code HTTP状态码
+     * @param successful 是否为2xx
+     * @param body 响应体
+     */
+    public record HttpResult(int code, boolean successful, String body) {
+
+        static HttpResult of(Response response) throws IOException {
+            String body = response.body() != null ? response.body().string() : "";
+            return new HttpResult(response.code(), response.isSuccessful(), body);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package xyz.ersut.message.service.push;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 推送平台熔断器
+ * 按最近windowSize次推送结果统计平台侧故障率，达到阈值后熔断，熔断期间推送直接失败进入重试；
+ * 熔断时间结束后进入半开状态，由一次轻量探测决定恢复还是继续熔断，探测期间推送仍直接失败
+ *
+ * @author ersut
+ */
+@Slf4j
+public class PushCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /**
+         * 关闭（正常推送）
+         */
+        CLOSED,
+        /**
+         * 打开（推送直接失败）
+         */
+        OPEN,
+        /**
+         * 半开（等待探测结果）
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * 推送许可
+     */
+    public enum Permission {
+        /**
+         * 允许推送
+         */
+        ALLOWED,
+        /**
+         * 拒绝推送
+         */
+        REJECTED,
+        /**
+         * 拒绝推送，调用方需发起一次探测并通过onProbeResult回报结果
+         */
+        PROBE
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationMillis;
+
+    /**
+     * 最近的推送结果（环形缓冲区，true表示平台侧故障）
+     */
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+
+    /**
+     * @param name 熔断器名称（平台代码或平台代码:主机）
+     * @param windowSize 统计窗口大小（推送次数）
+     * @param minimumCalls 开始计算故障率所需的最少推送次数
+     * @param failureRateThreshold 熔断故障率阈值（百分比）
+     * @param openDurationMillis 熔断时长（毫秒）
+     */
+    public PushCircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                              long openDurationMillis) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * 申请推送许可
+     * 熔断时间结束后的第一次申请返回PROBE并进入半开状态，此后直到探测完成都返回REJECTED
+     */
+    public synchronized Permission tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return Permission.ALLOWED;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt >= openDurationMillis) {
+                    state = State.HALF_OPEN;
+                    return Permission.PROBE;
+                }
+                return Permission.REJECTED;
+            default:
+                return Permission.REJECTED;
+        }
+    }
+
+    /**
+     * 记录一次推送结果
+     *
+     * @param platformError 是否为平台侧故障
+     */
+    public synchronized void onResult(boolean platformError) {
+        if (state != State.CLOSED) {
+            // 熔断前已发出的推送，结果不再计入
+            return;
+        }
+
+        if (recorded == windowSize) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[position] = platformError;
+        if (platformError) {
+            failures++;
+        }
+        position = (position + 1) % windowSize;
+
+        if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    /**
+     * 记录探测结果，成功则恢复推送，失败则重新熔断
+     *
+     * @param healthy 平台是否可用
+     */
+    public synchronized void onProbeResult(boolean healthy) {
+        if (state != State.HALF_OPEN) {
+            return;
+        }
+        if (healthy) {
+            log.info("推送平台探测成功，恢复推送: name={}", name);
+            state = State.CLOSED;
+            position = 0;
+            recorded = 0;
+            failures = 0;
+        } else {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void open() {
+        log.warn("推送平台熔断: name={}, state={}, failures={}/{}, openDuration={}ms",
+            name, state, failures, recorded, openDurationMillis);
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,259 @@
+package xyz.ersut.message.service.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import cn.hutool.core.util.StrUtil;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.UserPushConfig;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 推送合并器
+ * 推送配置设置了合并窗口时，窗口内的第一条消息立即推送并开启窗口，之后到达的消息只记录到Redis，
+ * 窗口结束后由定时任务合并为一条汇总推送（消息数和按级别排序的主要标题）；消息记录本身仍逐条保存。
+ * 窗口和待合并消息保存在Redis中，多个节点消费同一用户的消息时共享同一个窗口
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushCoalescer {
+
+    /**
+     * 合并消息：KEYS[1]=窗口 KEYS[2]=待合并消息 KEYS[3]=消息数 KEYS[4]=到期集合
+     * ARGV[1]=窗口时长（毫秒） ARGV[2]=当前时间 ARGV[3]=消息数据 ARGV[4]=最多保存的消息数 ARGV[5]=推送配置ID ARGV[6]=数据保留时间（毫秒）
+     * 返回0表示开启了新窗口（调用方应立即推送），否则返回窗口内已合并的消息数
+     */
+    private static final RedisScript<Long> OFFER_SCRIPT = new DefaultRedisScript<>("""
+        local window = tonumber(ARGV[1])
+        if redis.call('SET', KEYS[1], ARGV[2], 'NX', 'PX', window) then
+            return 0
+        end
+        local count = redis.call('INCR', KEYS[3])
+        if count <= tonumber(ARGV[4]) then
+            redis.call('RPUSH', KEYS[2], ARGV[3])
+        end
+        redis.call('PEXPIRE', KEYS[2], ARGV[6])
+        redis.call('PEXPIRE', KEYS[3], ARGV[6])
+        local start = tonumber(redis.call('GET', KEYS[1]) or ARGV[2])
+        redis.call('ZADD', KEYS[4], 'NX', start + window, ARGV[5])
+        return count
+        """, Long.class);
+
+    /**
+     * 领取到期的合并推送：KEYS[1]=到期集合 ARGV[1]=当前时间 ARGV[2]=数量 ARGV[3]=待合并消息键前缀 ARGV[4]=消息数键前缀
+     * 返回 [推送配置ID, 消息数, 消息条数n, 消息数据1..n, ...]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+        local members = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+        local result = {}
+        for _, member in ipairs(members) do
+            redis.call('ZREM', KEYS[1], member)
+            local itemsKey = ARGV[3] .. member
+            local countKey = ARGV[4] .. member
+            local items = redis.call('LRANGE', itemsKey, 0, -1)
+            local count = redis.call('GET', countKey) or '0'
+            redis.call('DEL', itemsKey, countKey)
+            table.insert(result, member)
+            table.insert(result, count)
+            table.insert(result, tostring(#items))
+            for _, item in ipairs(items) do
+                table.insert(result, item)
+            end
+        end
+        return result
+        """, List.class);
+
+    /**
+     * 待合并消息的保留时间（窗口时长之外），定时任务长时间未执行时过期清理
+     */
+    private static final long RETENTION_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private static final List<String> LEVEL_ORDER = List.of("critical", "high", "normal", "low");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 每个窗口最多保存的消息数（超出部分只计数）
+     */
+    @Value("${message.coalesce.max-items:100}")
+    private int maxItems;
+
+    /**
+     * 汇总推送中列出的标题数
+     */
+    @Value("${message.coalesce.digest-titles:10}")
+    private int digestTitles;
+
+    /**
+     * 合并消息
+     *
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param windowSeconds 合并窗口（秒）
+     * @return true表示消息已合并，本次不推送；false表示应立即推送（开启了新窗口或Redis不可用）
+     */
+    public boolean offer(MessageRecord messageRecord, UserPushConfig config, int windowSeconds) {
+        if (windowSeconds <= 0) {
+            return false;
+        }
+        try {
+            long windowMillis = windowSeconds * 1000L;
+            String item = objectMapper.writeValueAsString(CoalescedMessage.of(messageRecord));
+            Long count = stringRedisTemplate.execute(OFFER_SCRIPT,
+                List.of(CacheConstants.PUSH_COALESCE_WINDOW_PREFIX + config.getId(),
+                    CacheConstants.PUSH_COALESCE_ITEMS_PREFIX + config.getId(),
+                    CacheConstants.PUSH_COALESCE_COUNT_PREFIX + config.getId(),
+                    CacheConstants.PUSH_COALESCE_DUE),
+                String.valueOf(windowMillis), String.valueOf(System.currentTimeMillis()), item,
+                String.valueOf(maxItems), String.valueOf(config.getId()), String.valueOf(windowMillis + RETENTION_MILLIS));
+            if (count == null || count == 0) {
+                return false;
+            }
+            log.debug("消息已合并，等待汇总推送: messageId={}, configId={}, count={}", messageRecord.getId(), config.getId(), count);
+            return true;
+        } catch (Exception e) {
+            log.warn("合并消息失败，直接推送: messageId={}, configId={}, error={}", messageRecord.getId(), config.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 领取窗口已结束的合并推送
+     *
+     * @param limit 最大领取数量
+     * @return 汇总推送列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<CoalescedDigest> claimDue(int limit) {
+        List<Object> result = stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(CacheConstants.PUSH_COALESCE_DUE),
+            String.valueOf(System.currentTimeMillis()), String.valueOf(limit),
+            CacheConstants.PUSH_COALESCE_ITEMS_PREFIX, CacheConstants.PUSH_COALESCE_COUNT_PREFIX);
+        List<CoalescedDigest> digests = new ArrayList<>();
+        if (result == null) {
+            return digests;
+        }
+
+        int index = 0;
+        while (index + 2 < result.size()) {
+            Long configId = Long.valueOf(result.get(index).toString());
+            long count = Long.parseLong(result.get(index + 1).toString());
+            int size = Integer.parseInt(result.get(index + 2).toString());
+            List<CoalescedMessage> messages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                try {
+                    messages.add(objectMapper.readValue(result.get(index + 3 + i).toString(), CoalescedMessage.class));
+                } catch (Exception e) {
+                    log.warn("解析合并消息失败: configId={}, error={}", configId, e.getMessage());
+                }
+            }
+            index += 3 + size;
+
+            if (!messages.isEmpty()) {
+                digests.add(new CoalescedDigest(configId, buildDigest(messages, Math.max(count, messages.size()))));
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * 构建汇总消息：ID和基本信息取最后一条消息，级别取最高级别，标题按级别和时间排序
+     */
+    private MessageRecord buildDigest(List<CoalescedMessage> messages, long count) {
+        CoalescedMessage last = messages.get(messages.size() - 1);
+        List<CoalescedMessage> sorted = messages.stream()
+            .sorted(Comparator.comparingInt((CoalescedMessage message) -> levelRank(message.level()))
+                .thenComparing(CoalescedMessage::createTime, Comparator.nullsLast(Comparator.naturalOrder())))
+            .toList();
+        String level = sorted.get(0).level();
+
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+        StringBuilder content = new StringBuilder();
+        int shown = Math.min(digestTitles, sorted.size());
+        for (int i = 0; i < shown; i++) {
+            CoalescedMessage message = sorted.get(i);
+            content.append(i + 1).append(". ");
+            if (message.createTime() != null) {
+                content.append('[').append(message.createTime().format(timeFormatter)).append("] ");
+            }
+            content.append(message.title()).append('\n');
+        }
+        if (count > shown) {
+            content.append("……另有").append(count - shown).append("条消息");
+        }
+
+        Set<String> tags = new LinkedHashSet<>();
+        messages.forEach(message -> {
+            if (message.tags() != null) {
+                tags.addAll(message.tags());
+            }
+        });
+
+        MessageRecord digest = new MessageRecord();
+        digest.setId(last.id());
+        digest.setUserId(last.userId());
+        digest.setUserCode(last.userCode());
+        digest.setMessageType(last.messageType());
+        digest.setTitle(StrUtil.format("{} 等{}条消息", sorted.get(0).title(), count));
+        digest.setSubtitle("");
+        digest.setContent(content.toString().trim());
+        digest.setGroup(last.group());
+        digest.setUrl("");
+        digest.setSource(last.source() != null ? last.source() : "");
+        digest.setLevel(level);
+        digest.setTags(new ArrayList<>(tags));
+        digest.setExtraData("{}");
+        digest.setStatus(1);
+        digest.setPushedPlatforms(new ArrayList<>());
+        digest.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        digest.setUpdateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        return digest;
+    }
+
+    private int levelRank(String level) {
+        int rank = LEVEL_ORDER.indexOf(level);
+        return rank >= 0 ? rank : LEVEL_ORDER.indexOf("normal");
+    }
+
+    /**
+     * 汇总推送
+     *
+     * @param configId 推送配置ID
+     * @param messageRecord 汇总消息（ID为窗口内最后一条消息的ID）
+     */
+    public record CoalescedDigest(Long configId, MessageRecord messageRecord) {
+    }
+
+    /**
+     * 待合并消息（只保存汇总需要的字段）
+     */
+    record CoalescedMessage(Long id, Long userId, String userCode, String messageType, String title, String level,
+                            String group, String source, List<String> tags, LocalDateTime createTime) {
+
+        static CoalescedMessage of(MessageRecord messageRecord) {
+            String title = StrUtil.isNotBlank(messageRecord.getTitle()) ? messageRecord.getTitle()
+                : StrUtil.maxLength(messageRecord.getContent(), 50);
+            return new CoalescedMessage(messageRecord.getId(), messageRecord.getUserId(), messageRecord.getUserCode(),
+                messageRecord.getMessageType(), title, messageRecord.getLevel(), messageRecord.getGroup(),
+                messageRecord.getSource(), messageRecord.getTags(), messageRecord.getCreateTime());
+        }
+    }
+}
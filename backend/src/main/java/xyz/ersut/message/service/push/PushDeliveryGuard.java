@@ -0,0 +1,144 @@
+package xyz.ersut.message.service.push;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.constant.CacheConstants;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 推送幂等保护
+ * 以（消息ID, 推送配置ID）为键，推送前通过一次SET NX写入本次占用的令牌：推送中的键在租约到期前有效，推送成功后延长到幂等有效期，
+ * 推送失败时删除以允许重试；标记和删除都先比较令牌，租约到期后被其他节点重新占用的键不会被误删；
+ * 重复投递、多节点重复消费时占用失败，直接跳过推送
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushDeliveryGuard {
+
+    private static final String STATE_DELIVERED = "1";
+
+    /**
+     * 标记推送成功：键不存在（租约已到期）或仍为本次占用的令牌时写入 KEYS[1]=幂等键 ARGV[1]=令牌 ARGV[2]=已推送状态 ARGV[3]=有效期（毫秒）
+     */
+    private static final RedisScript<Long> DELIVER_SCRIPT = new DefaultRedisScript<>("""
+        local current = redis.call('GET', KEYS[1])
+        if current == false or current == ARGV[1] then
+            redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+            return 1
+        end
+        return 0
+        """, Long.class);
+
+    /**
+     * 释放占用：只删除本次占用的键 KEYS[1]=幂等键 ARGV[1]=令牌
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 是否启用推送幂等保护
+     */
+    @Value("${message.push.idempotency.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 推送成功后的幂等有效期（毫秒）
+     */
+    @Value("${message.push.idempotency.ttl:86400000}")
+    private long ttl;
+
+    /**
+     * 推送中的租约时间（毫秒），需大于等待并发许可和推送超时的总和，节点宕机时到期后允许重新推送
+     */
+    @Value("${message.push.idempotency.in-flight-ttl:300000}")
+    private long inFlightTtl;
+
+    /**
+     * 占用推送
+     *
+     * @param messageId 消息ID
+     * @param configId 推送配置ID
+     * @return 占用成功返回本次占用的令牌，标记成功或释放时传入；已推送成功或正在推送时返回null。Redis不可用时放行
+     */
+    public String tryClaim(Long messageId, Long configId) {
+        String token = IdUtil.fastSimpleUUID();
+        if (!enabled || messageId == null || configId == null) {
+            return token;
+        }
+        try {
+            Boolean claimed = stringRedisTemplate.opsForValue()
+                .setIfAbsent(getKey(messageId, configId), token, Duration.ofMillis(inFlightTtl));
+            return Boolean.FALSE.equals(claimed) ? null : token;
+        } catch (Exception e) {
+            log.warn("推送幂等占用失败，直接放行: messageId={}, configId={}, error={}", messageId, configId, e.getMessage());
+            return token;
+        }
+    }
+
+    /**
+     * 标记推送成功
+     *
+     * @param messageId 消息ID
+     * @param configId 推送配置ID
+     * @param token 占用时返回的令牌
+     */
+    public void markDelivered(Long messageId, Long configId, String token) {
+        if (!enabled || messageId == null || configId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(DELIVER_SCRIPT, List.of(getKey(messageId, configId)), token, STATE_DELIVERED, String.valueOf(ttl));
+        } catch (Exception e) {
+            log.warn("推送幂等标记失败: messageId={}, configId={}, error={}", messageId, configId, e.getMessage());
+        }
+    }
+
+    /**
+     * 释放占用（推送失败或未执行时调用），允许之后重试
+     *
+     * @param messageId 消息ID
+     * @param configId 推送配置ID
+     * @param token 占用时返回的令牌
+     */
+    public void release(Long messageId, Long configId, String token) {
+        if (!enabled || messageId == null || configId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(getKey(messageId, configId)), token);
+        } catch (Exception e) {
+            log.warn("推送幂等释放失败: messageId={}, configId={}, error={}", messageId, configId, e.getMessage());
+        }
+    }
+
+    private String getKey(Long messageId, Long configId) {
+        return CacheConstants.PUSH_DELIVERED_PREFIX + messageId + ":" + configId;
+    }
+
+    /**
+     * 重复推送异常：该消息已推送到该配置或正在推送，调用方应直接跳过，不计入失败
+     */
+    public static class DuplicateDeliveryException extends RuntimeException {
+
+        public DuplicateDeliveryException(String message) {
+            super(message);
+        }
+    }
+}
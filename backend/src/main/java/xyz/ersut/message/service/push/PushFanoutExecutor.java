@@ -0,0 +1,112 @@
+package xyz.ersut.message.service.push;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.PushRecord;
+import xyz.ersut.message.entity.UserPushConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 推送扇出执行器
+ * 将一条消息的多个推送配置并发推送；
+ * 推送通过异步接口发起，等待平台许可和网络IO都不占用线程
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushFanoutExecutor {
+
+    private final PushServiceManager pushServiceManager;
+
+    /**
+     * 并发推送消息到多个推送配置，全部完成后返回
+     *
+     * @param messageRecord 消息记录
+     * @param configs 推送配置列表
+     * @return 推送结果列表（与配置顺序一致）
+     */
+    public List<PushOutcome> pushAll(MessageRecord messageRecord, List<UserPushConfig> configs) {
+        return pushAllAsync(messageRecord, configs).join();
+    }
+
+    /**
+     * 异步并发推送消息到多个推送配置
+     *
+     * @param messageRecord 消息记录
+     * @param configs 推送配置列表
+     * @return 全部推送完成后的推送结果列表（与配置顺序一致）
+     */
+    public CompletableFuture<List<PushOutcome>> pushAllAsync(MessageRecord messageRecord, List<UserPushConfig> configs) {
+        List<CompletableFuture<PushOutcome>> futures = new ArrayList<>(configs.size());
+        for (UserPushConfig config : configs) {
+            futures.add(pushOne(messageRecord, config));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(ignored -> {
+                List<PushOutcome> outcomes = new ArrayList<>(futures.size());
+                for (CompletableFuture<PushOutcome> future : futures) {
+                    outcomes.add(future.join());
+                }
+                return outcomes;
+            });
+    }
+
+    /**
+     * 推送单个配置（平台并发限制和熔断由PushServiceManager处理）
+     */
+    private CompletableFuture<PushOutcome> pushOne(MessageRecord messageRecord, UserPushConfig config) {
+        CompletionStage<PushRecord> push;
+        try {
+            push = pushServiceManager.pushToSpecificPlatformAsync(messageRecord, config);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new PushOutcome(config, null, e));
+        }
+
+        return push.handle((pushRecord, pushError) -> pushError != null
+                ? new PushOutcome(config, null, pushError instanceof CompletionException && pushError.getCause() != null ? pushError.getCause() : pushError)
+                : new PushOutcome(config, pushRecord, null))
+            .toCompletableFuture();
+    }
+
+    /**
+     * 单个推送配置的推送结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PushOutcome {
+
+        /**
+         * 推送配置
+         */
+        private final UserPushConfig config;
+
+        /**
+         * 推送记录（推送过程抛出异常时为null）
+         */
+        private final PushRecord pushRecord;
+
+        /**
+         * 推送异常
+         */
+        private final Throwable error;
+
+        /**
+         * 是否推送成功
+         */
+        public boolean isSuccess() {
+            return error == null && pushRecord != null && Integer.valueOf(1).equals(pushRecord.getPushStatus());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package xyz.ersut.message.service.push;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.constant.CacheConstants;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 推送目标限流器
+ * 按平台+推送目标（Bark服务和设备Key、WxPusher appToken、发件邮箱等）限流，令牌桶保存在Redis中由各节点共享；
+ * 本地快速路径：每次从Redis预取一批令牌在本地消费，令牌不足时本地记住等待时间，等待期间不再访问Redis
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushRateLimiter {
+
+    /**
+     * 令牌桶：KEYS[1]=令牌桶 ARGV[1]=每秒令牌数 ARGV[2]=桶容量 ARGV[3]=申请令牌数
+     * 返回 [获得的令牌数, 未获得令牌时需等待的毫秒数]，时间使用Redis服务器时间，避免各节点时钟不一致
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+        local rate = tonumber(ARGV[1])
+        local capacity = tonumber(ARGV[2])
+        local requested = tonumber(ARGV[3])
+        local time = redis.call('TIME')
+        local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+        local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+        local tokens = tonumber(bucket[1])
+        local ts = tonumber(bucket[2])
+        if tokens == nil or ts == nil then
+            tokens = capacity
+            ts = now
+        end
+        tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+        local granted = math.min(requested, math.floor(tokens))
+        local wait = 0
+        if granted > 0 then
+            tokens = tokens - granted
+        else
+            wait = math.ceil((1 - tokens) * 1000 / rate)
+        end
+        redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+        redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+        return {granted, wait}
+        """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 是否启用限流
+     */
+    @Value("${message.push.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 各平台每个推送目标每秒允许的推送数，未配置的平台不限流
+     */
+    @Value("#{${message.push.rate-limit.rates:{bark:10,email:1,wxpusher:2,pushme:2}}}")
+    private Map<String, Number> rates;
+
+    /**
+     * 各平台每个推送目标的令牌桶容量（允许的突发推送数），未配置时等于每秒推送数
+     */
+    @Value("#{${message.push.rate-limit.capacities:{bark:20,email:10,wxpusher:5,pushme:5}}}")
+    private Map<String, Number> capacities;
+
+    /**
+     * 每次从Redis预取的令牌数（不超过桶容量的一半）
+     */
+    @Value("${message.push.rate-limit.prefetch:5}")
+    private int prefetch;
+
+    /**
+     * 预取令牌在本地的有效期（毫秒），过期未用完的令牌作废，避免单个节点长期占用令牌
+     */
+    @Value("${message.push.rate-limit.prefetch-ttl:1000}")
+    private long prefetchTtl;
+
+    private final Cache<String, LocalBucket> localBuckets = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofMinutes(10))
+        .build();
+
+    /**
+     * 申请一次推送
+     *
+     * @param platform 平台代码
+     * @param destination 推送目标，为空时不限流
+     * @return 0表示允许推送；大于0表示需要等待的毫秒数
+     */
+    public long tryAcquire(String platform, String destination) {
+        Number rate = rates.get(platform);
+        if (!enabled || destination == null || rate == null || rate.doubleValue() <= 0) {
+            return 0;
+        }
+        double capacity = capacities.getOrDefault(platform, rate).doubleValue();
+
+        String key = CacheConstants.PUSH_RATE_LIMIT_PREFIX + platform + ":" + DigestUtil.sha256Hex(destination);
+        LocalBucket localBucket = localBuckets.get(key, k -> new LocalBucket());
+        synchronized (localBucket) {
+            long now = System.currentTimeMillis();
+            if (localBucket.tokens > 0 && now < localBucket.tokensExpireAt) {
+                localBucket.tokens--;
+                return 0;
+            }
+            if (now < localBucket.blockedUntil) {
+                return localBucket.blockedUntil - now;
+            }
+
+            long[] result = acquireFromRedis(key, rate.doubleValue(), capacity);
+            if (result[0] > 0) {
+                localBucket.tokens = (int) result[0] - 1;
+                localBucket.tokensExpireAt = now + prefetchTtl;
+                return 0;
+            }
+            localBucket.tokens = 0;
+            localBucket.blockedUntil = now + result[1];
+            return result[1];
+        }
+    }
+
+    /**
+     * 从Redis令牌桶获取令牌，Redis不可用时放行
+     *
+     * @return [获得的令牌数, 需等待的毫秒数]
+     */
+    @SuppressWarnings("unchecked")
+    private long[] acquireFromRedis(String key, double rate, double capacity) {
+        int requested = Math.max(1, Math.min(prefetch, (int) (capacity / 2)));
+        try {
+            List<Long> result = stringRedisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(key),
+                String.valueOf(rate), String.valueOf(capacity), String.valueOf(requested));
+            if (result == null || result.size() < 2) {
+                return new long[]{1, 0};
+            }
+            return new long[]{result.get(0), Math.max(1, result.get(1))};
+        } catch (Exception e) {
+            log.warn("推送限流令牌获取失败，直接放行: key={}, error={}", key, e.getMessage());
+            return new long[]{1, 0};
+        }
+    }
+
+    /**
+     * 本地预取的令牌
+     */
+    private static final class LocalBucket {
+
+        private int tokens;
+        private long tokensExpireAt;
+        private long blockedUntil;
+    }
+
+    /**
+     * 推送被限流异常，调用方应在waitMillis毫秒后重新推送，不计入失败
+     */
+    @Getter
+    public static class RateLimitedException extends RuntimeException {
+
+        /**
+         * 需要等待的毫秒数
+         */
+        private final long waitMillis;
+
+        public RateLimitedException(String message, long waitMillis) {
+            super(message);
+            this.waitMillis = waitMillis;
+        }
+    }
+}
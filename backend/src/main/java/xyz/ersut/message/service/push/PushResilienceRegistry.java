@@ -0,0 +1,127 @@
+package xyz.ersut.message.service.push;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 推送平台熔断器与并发隔离注册表
+ * 熔断器按平台（自建服务的平台按平台和主机）创建，并发许可按平台创建；
+ * 熔断状态通过push.circuit.state指标暴露（0关闭、1打开、2半开）
+ *
+ * @author ersut
+ */
+@Component
+@RequiredArgsConstructor
+public class PushResilienceRegistry {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 熔断统计窗口大小（推送次数）
+     */
+    @Value("${message.push.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    /**
+     * 开始计算故障率所需的最少推送次数
+     */
+    @Value("${message.push.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    /**
+     * 熔断故障率阈值（百分比）
+     */
+    @Value("${message.push.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    /**
+     * 熔断时长（毫秒），结束后发起探测
+     */
+    @Value("${message.push.circuit-breaker.open-duration:30000}")
+    private long openDuration;
+
+    /**
+     * 各平台最大并发推送数
+     */
+    @Value("#{${message.push.bulkhead.platform-concurrency:{bark:32,email:16,wxpusher:16,pushme:16}}}")
+    private Map<String, Integer> platformConcurrency;
+
+    /**
+     * 未单独配置的平台的最大并发推送数
+     */
+    @Value("${message.push.bulkhead.default-platform-concurrency:16}")
+    private int defaultPlatformConcurrency;
+
+    /**
+     * 等待平台并发许可的超时时间（毫秒）
+     */
+    @Value("${message.push.bulkhead.acquire-timeout:30000}")
+    private long acquireTimeout;
+
+    private final Map<String, PushCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, AsyncPermits> platformPermits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 获取熔断器
+     *
+     * @param name 熔断器名称，见PushService.getCircuitName
+     * @return 熔断器
+     */
+    public PushCircuitBreaker getCircuitBreaker(String name) {
+        return circuitBreakers.computeIfAbsent(name, key -> {
+            PushCircuitBreaker circuitBreaker = new PushCircuitBreaker(key, windowSize, minimumCalls,
+                failureRateThreshold, openDuration);
+            Gauge.builder("push.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("推送平台熔断状态（0关闭、1打开、2半开）")
+                .tag("name", key)
+                .register(meterRegistry);
+            return circuitBreaker;
+        });
+    }
+
+    /**
+     * 记录一次熔断拒绝
+     *
+     * @param name 熔断器名称
+     */
+    public void recordRejected(String name) {
+        rejectedCounters.computeIfAbsent(name, key -> Counter.builder("push.circuit.rejected")
+                .description("熔断期间直接失败的推送数")
+                .tag("name", key)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 申请平台并发许可，许可不足时排队等待，超时后异常完成
+     *
+     * @param platform 平台代码
+     * @return 获得许可后完成
+     */
+    public CompletableFuture<Void> acquirePermit(String platform) {
+        return getPermits(platform).acquire(acquireTimeout);
+    }
+
+    /**
+     * 释放平台并发许可
+     *
+     * @param platform 平台代码
+     */
+    public void releasePermit(String platform) {
+        getPermits(platform).release();
+    }
+
+    private AsyncPermits getPermits(String platform) {
+        return platformPermits.computeIfAbsent(platform,
+            key -> new AsyncPermits(platformConcurrency.getOrDefault(key, defaultPlatformConcurrency)));
+    }
+}
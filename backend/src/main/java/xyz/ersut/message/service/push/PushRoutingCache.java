@@ -0,0 +1,92 @@
+package xyz.ersut.message.service.push;
+
+import com.baomidou.dynamic.datasource.annotation.DS;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.entity.TagPushConfig;
+import xyz.ersut.message.entity.UserPushConfig;
+import xyz.ersut.message.mapper.TagPushConfigMapper;
+import xyz.ersut.message.mapper.UserPushConfigMapper;
+import xyz.ersut.message.service.cache.LocalCacheInvalidator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户推送路由表缓存
+ * 推送配置或标签推送配置变更时通过LocalCacheInvalidator广播失效，下一条消息到来时重新构建
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@DS("mysql")
+@RequiredArgsConstructor
+public class PushRoutingCache {
+
+    private static final String CACHE_NAME = "pushRouting";
+
+    private final UserPushConfigMapper userPushConfigMapper;
+    private final TagPushConfigMapper tagPushConfigMapper;
+    private final LocalCacheInvalidator localCacheInvalidator;
+
+    @Value("${message.cache.push-routing.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * 路由表有效期（秒），广播失败时的兜底
+     */
+    @Value("${message.cache.push-routing.ttl:600}")
+    private long ttlSeconds;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private Cache<Long, PushRoutingTable> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+
+        localCacheInvalidator.register(CACHE_NAME, key -> cache.invalidate(Long.valueOf(key)));
+    }
+
+    /**
+     * 获取用户的推送路由表，未命中时从数据库构建
+     *
+     * @param userId 用户ID
+     * @return 推送路由表
+     */
+    public PushRoutingTable getRoutingTable(Long userId) {
+        return cache.get(userId, this::build);
+    }
+
+    /**
+     * 使所有节点上该用户的路由表失效
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            localCacheInvalidator.invalidate(CACHE_NAME, String.valueOf(userId));
+        }
+    }
+
+    private PushRoutingTable build(Long userId) {
+        List<UserPushConfig> configs = userPushConfigMapper.selectEnabledByUserId(userId);
+        List<TagPushConfig> tagConfigs = tagPushConfigMapper.selectEnabledByUserId(userId);
+        PushRoutingTable routingTable = new PushRoutingTable(userId, versionSequence.incrementAndGet(), configs, tagConfigs);
+        log.debug("构建用户推送路由表: userId={}, version={}, configs={}, tagConfigs={}",
+            userId, routingTable.getVersion(), routingTable.getEnabledConfigs().size(),
+            tagConfigs == null ? 0 : tagConfigs.size());
+        return routingTable;
+    }
+}
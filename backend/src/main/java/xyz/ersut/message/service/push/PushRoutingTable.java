@@ -0,0 +1,183 @@
+package xyz.ersut.message.service.push;
+
+import lombok.Getter;
+import xyz.ersut.message.entity.TagPushConfig;
+import xyz.ersut.message.entity.UserPushConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户推送路由表
+ * 由用户启用的推送配置和标签推送配置预先编译而成，构建后不可修改；
+ * 路由时按消息标签做哈希查找，不再访问数据库
+ *
+ * @author ersut
+ */
+public class PushRoutingTable {
+
+    /**
+     * 用户ID
+     */
+    @Getter
+    private final Long userId;
+
+    /**
+     * 构建版本号，每次重建递增
+     */
+    @Getter
+    private final long version;
+
+    /**
+     * 启用的推送配置（保持数据库查询顺序）
+     */
+    @Getter
+    private final List<UserPushConfig> enabledConfigs;
+
+    /**
+     * 推送配置ID -> 推送配置
+     */
+    private final Map<Long, UserPushConfig> configsById;
+
+    /**
+     * 推送平台 -> 推送配置列表
+     */
+    private final Map<String, List<UserPushConfig>> configsByPlatform;
+
+    /**
+     * 标签名称 -> 允许推送的配置ID集合
+     */
+    private final Map<String, Set<Long>> configIdsByTag;
+
+    /**
+     * 标签名称 -> (推送配置ID -> 合并推送窗口秒数)，只包含设置了合并窗口的标签配置
+     */
+    private final Map<String, Map<Long, Integer>> coalesceSecondsByTag;
+
+    public PushRoutingTable(Long userId, long version, List<UserPushConfig> enabledConfigs, List<TagPushConfig> tagConfigs) {
+        this.userId = userId;
+        this.version = version;
+        this.enabledConfigs = enabledConfigs == null ? List.of() : List.copyOf(enabledConfigs);
+
+        Map<Long, UserPushConfig> byId = new HashMap<>();
+        Map<String, List<UserPushConfig>> byPlatform = new HashMap<>();
+        for (UserPushConfig config : this.enabledConfigs) {
+            byId.put(config.getId(), config);
+            byPlatform.computeIfAbsent(config.getPlatform(), platform -> new ArrayList<>()).add(config);
+        }
+        byPlatform.replaceAll((platform, configs) -> List.copyOf(configs));
+        this.configsById = Collections.unmodifiableMap(byId);
+        this.configsByPlatform = Collections.unmodifiableMap(byPlatform);
+
+        // 同名标签配置的推送配置ID合并
+        Map<String, Set<Long>> byTag = new HashMap<>();
+        Map<String, Map<Long, Integer>> coalesceByTag = new HashMap<>();
+        if (tagConfigs != null) {
+            for (TagPushConfig tagConfig : tagConfigs) {
+                if (tagConfig.getTagName() == null || tagConfig.getPushConfigIds() == null) {
+                    continue;
+                }
+                byTag.computeIfAbsent(tagConfig.getTagName(), tagName -> new HashSet<>()).addAll(tagConfig.getPushConfigIds());
+                if (tagConfig.getCoalesceSeconds() != null && tagConfig.getCoalesceSeconds() > 0) {
+                    Map<Long, Integer> windows = coalesceByTag.computeIfAbsent(tagConfig.getTagName(), tagName -> new HashMap<>());
+                    for (Long configId : tagConfig.getPushConfigIds()) {
+                        windows.merge(configId, tagConfig.getCoalesceSeconds(), Math::max);
+                    }
+                }
+            }
+        }
+        byTag.replaceAll((tagName, ids) -> Set.copyOf(ids));
+        coalesceByTag.replaceAll((tagName, windows) -> Map.copyOf(windows));
+        this.configIdsByTag = Collections.unmodifiableMap(byTag);
+        this.coalesceSecondsByTag = Collections.unmodifiableMap(coalesceByTag);
+    }
+
+    /**
+     * 根据消息标签路由推送配置
+     * 消息无标签、用户无标签配置或没有匹配的标签时返回全部启用配置；
+     * 否则只返回匹配标签指定的配置（保持原有顺序）
+     *
+     * @param tags 消息标签
+     * @return 推送配置列表
+     */
+    public List<UserPushConfig> route(Collection<String> tags) {
+        if (tags == null || tags.isEmpty() || configIdsByTag.isEmpty()) {
+            return enabledConfigs;
+        }
+
+        Set<Long> allowedConfigIds = null;
+        for (String tag : tags) {
+            Set<Long> ids = configIdsByTag.get(tag);
+            if (ids == null || ids.isEmpty()) {
+                continue;
+            }
+            if (allowedConfigIds == null) {
+                allowedConfigIds = new HashSet<>();
+            }
+            allowedConfigIds.addAll(ids);
+        }
+
+        if (allowedConfigIds == null) {
+            return enabledConfigs;
+        }
+
+        Set<Long> allowed = allowedConfigIds;
+        return enabledConfigs.stream()
+            .filter(config -> allowed.contains(config.getId()))
+            .toList();
+    }
+
+    /**
+     * 获取消息推送到指定配置时的合并推送窗口
+     * 取推送配置和消息命中的标签配置中设置的最大窗口
+     *
+     * @param config 推送配置
+     * @param tags 消息标签
+     * @return 合并推送窗口（秒），0为不合并
+     */
+    public int getCoalesceSeconds(UserPushConfig config, Collection<String> tags) {
+        int seconds = config.getCoalesceSeconds() != null ? config.getCoalesceSeconds() : 0;
+        if (tags != null && !coalesceSecondsByTag.isEmpty()) {
+            for (String tag : tags) {
+                Map<Long, Integer> windows = coalesceSecondsByTag.get(tag);
+                if (windows != null) {
+                    seconds = Math.max(seconds, windows.getOrDefault(config.getId(), 0));
+                }
+            }
+        }
+        return seconds;
+    }
+
+    /**
+     * 根据ID获取启用的推送配置
+     *
+     * @param configId 推送配置ID
+     * @return 推送配置，不存在或未启用时返回null
+     */
+    public UserPushConfig getConfig(Long configId) {
+        return configsById.get(configId);
+    }
+
+    /**
+     * 获取指定平台启用的推送配置
+     *
+     * @param platform 推送平台
+     * @return 推送配置列表
+     */
+    public List<UserPushConfig> getConfigsByPlatform(String platform) {
+        return configsByPlatform.getOrDefault(platform, List.of());
+    }
+
+    /**
+     * 是否没有启用的推送配置
+     */
+    public boolean isEmpty() {
+        return enabledConfigs.isEmpty();
+    }
+}
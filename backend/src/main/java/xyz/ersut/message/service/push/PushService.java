@@ -4,6 +4,9 @@ import xyz.ersut.message.entity.MessageRecord;
 import xyz.ersut.message.entity.PushRecord;
 import xyz.ersut.message.entity.UserPushConfig;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
  * 推送服务接口
  * 
@@ -20,6 +23,18 @@ public interface PushService {
      */
     PushRecord pushMessage(MessageRecord messageRecord, UserPushConfig config);
     
+    /**
+     * 异步推送消息
+     * 默认在调用线程同步执行，支持非阻塞IO的平台应覆盖此方法
+     * 
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @return 推送记录（推送失败时同样正常完成，失败信息记录在推送记录中）
+     */
+    default CompletionStage<PushRecord> pushMessageAsync(MessageRecord messageRecord, UserPushConfig config) {
+        return CompletableFuture.completedFuture(pushMessage(messageRecord, config));
+    }
+    
     /**
      * 测试推送配置
      * 
@@ -28,6 +43,37 @@ public interface PushService {
      */
     boolean testConfig(UserPushConfig config);
     
+    /**
+     * 探测平台是否可用，熔断结束后使用，应为不产生推送的轻量请求
+     * 默认直接返回可用，即熔断时间结束后恢复推送
+     * 
+     * @param config 推送配置
+     * @return 平台是否可用
+     */
+    default CompletionStage<Boolean> probeAsync(UserPushConfig config) {
+        return CompletableFuture.completedFuture(true);
+    }
+    
+    /**
+     * 获取熔断器名称，默认按平台熔断；支持自建服务的平台可按主机区分
+     * 
+     * @param config 推送配置
+     * @return 熔断器名称
+     */
+    default String getCircuitName(UserPushConfig config) {
+        return getPlatformCode();
+    }
+    
+    /**
+     * 获取限流用的推送目标（如设备Key、appToken、发件账号），同一目标的推送共享限流额度
+     * 
+     * @param config 推送配置
+     * @return 推送目标，返回null时不限流
+     */
+    default String getRateLimitKey(UserPushConfig config) {
+        return null;
+    }
+    
     /**
      * 获取支持的平台代码
      * 
@@ -14,10 +14,12 @@ import xyz.ersut.message.service.push.impl.WxPusherPushServiceImpl;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * 推送服务管理器
- * 统一管理各个平台的推送服务
+ * 统一管理各个平台的推送服务，推送经过幂等保护、平台熔断、推送目标限流和平台并发隔离
  * 
  * @author ersut
  */
@@ -31,6 +33,9 @@ public class PushServiceManager {
     private final WxPusherPushServiceImpl wxpusherPushService;
     private final PushMePushServiceImpl pushmePushService;
     private final MessageRecordService messageRecordService;
+    private final PushResilienceRegistry pushResilienceRegistry;
+    private final PushRateLimiter pushRateLimiter;
+    private final PushDeliveryGuard pushDeliveryGuard;
     
     private Map<String, PushService> pushServices;
     
@@ -66,36 +71,188 @@ public class PushServiceManager {
      * @return 推送记录
      */
     public PushRecord pushToSpecificPlatform(MessageRecord messageRecord, UserPushConfig config) {
+        return pushToSpecificPlatformAsync(messageRecord, config).toCompletableFuture().join();
+    }
+    
+    /**
+     * 异步推送消息到指定平台，推送完成后保存推送记录
+     * HTTP平台通过OkHttp异步回调完成，不占用调用线程
+     * 
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @return 推送记录
+     */
+    public CompletionStage<PushRecord> pushToSpecificPlatformAsync(MessageRecord messageRecord, UserPushConfig config) {
+        return pushToSpecificPlatformAsync(messageRecord, config, 0);
+    }
+    
+    /**
+     * 异步推送消息到指定平台，推送完成后保存推送记录
+     * 
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param retryCount 重试次数（首次推送为0），记录到推送记录
+     * @return 推送记录；推送目标超出频率限制时以PushRateLimiter.RateLimitedException异常完成，
+     *         已推送或正在推送时以PushDeliveryGuard.DuplicateDeliveryException异常完成
+     */
+    public CompletionStage<PushRecord> pushToSpecificPlatformAsync(MessageRecord messageRecord, UserPushConfig config,
+                                                                   int retryCount) {
         PushService pushService = getPushService(config.getPlatform());
         if (pushService == null) {
             log.warn("不支持的推送平台: {}", config.getPlatform());
+            return CompletableFuture.completedFuture(
+                saveFailedPushRecord(messageRecord, config, "不支持的推送平台: " + config.getPlatform(), retryCount));
+        }
+        
+        // 幂等保护：同一消息已推送到该配置或正在推送时直接跳过
+        Long messageId = messageRecord.getId();
+        Long configId = config.getId();
+        String claimToken = pushDeliveryGuard.tryClaim(messageId, configId);
+        if (claimToken == null) {
+            log.info("消息已推送到该配置或正在推送，跳过: messageId={}, configId={}, configName={}",
+                messageId, configId, config.getConfigName());
+            return CompletableFuture.failedFuture(new PushDeliveryGuard.DuplicateDeliveryException(
+                "消息已推送到该配置: " + config.getConfigName()));
+        }
+        
+        // 熔断中直接失败，由调用方进入重试；熔断时间结束后的第一次推送改为发起探测
+        String circuitName = pushService.getCircuitName(config);
+        PushCircuitBreaker circuitBreaker = pushResilienceRegistry.getCircuitBreaker(circuitName);
+        PushCircuitBreaker.Permission permission = circuitBreaker.tryAcquire();
+        if (permission != PushCircuitBreaker.Permission.ALLOWED) {
+            if (permission == PushCircuitBreaker.Permission.PROBE) {
+                probe(pushService, config, circuitBreaker);
+            }
+            pushResilienceRegistry.recordRejected(circuitName);
+            pushDeliveryGuard.release(messageId, configId, claimToken);
+            log.debug("推送平台熔断中，推送直接失败: messageId={}, circuit={}", messageRecord.getId(), circuitName);
+            PushRecord rejected = saveFailedPushRecord(messageRecord, config, "推送平台熔断中: " + circuitName, retryCount);
+            return CompletableFuture.completedFuture(rejected);
+        }
+        
+        // 推送目标限流，超出限制时不发起推送，由调用方延迟后重新推送
+        long waitMillis = acquireRateLimit(pushService, config);
+        if (waitMillis > 0) {
+            pushDeliveryGuard.release(messageId, configId, claimToken);
+            log.debug("推送目标限流，延迟推送: messageId={}, platform={}, wait={}ms",
+                messageRecord.getId(), config.getPlatform(), waitMillis);
+            return CompletableFuture.failedFuture(new PushRateLimiter.RateLimitedException(
+                "推送目标超出频率限制: " + config.getPlatform(), waitMillis));
+        }
+        
+        // 在平台并发许可内推送，许可不足时排队等待（不占用线程）
+        String platform = config.getPlatform();
+        CompletableFuture<PushRecord> result = new CompletableFuture<>();
+        pushResilienceRegistry.acquirePermit(platform).whenComplete((ignored, acquireError) -> {
+            if (acquireError != null) {
+                pushDeliveryGuard.release(messageId, configId, claimToken);
+                result.complete(saveFailedPushRecord(messageRecord, config,
+                    "平台" + platform + "并发推送数已满", retryCount));
+                return;
+            }
             
-            // 创建失败的推送记录
-            PushRecord pushRecord = new PushRecord();
-            pushRecord.setId(messageRecordService.generatePushRecordId());
-            pushRecord.setMessageId(messageRecord.getId());
-            pushRecord.setUserId(messageRecord.getUserId());
-            pushRecord.setPlatform(config.getPlatform());
-            pushRecord.setConfigName(config.getConfigName());
-            pushRecord.setPushStatus(0); // 推送失败
-            pushRecord.setErrorMessage("不支持的推送平台: " + config.getPlatform());
-            pushRecord.setPushTime(java.time.LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.SECONDS));
-            pushRecord.setCreateTime(java.time.LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.SECONDS));
+            CompletionStage<PushRecord> push;
+            try {
+                push = pushService.pushMessageAsync(messageRecord, config);
+            } catch (Exception e) {
+                pushResilienceRegistry.releasePermit(platform);
+                pushDeliveryGuard.release(messageId, configId, claimToken);
+                result.completeExceptionally(e);
+                return;
+            }
             
-            return pushRecord;
+            push.whenComplete((pushRecord, pushError) -> {
+                pushResilienceRegistry.releasePermit(platform);
+                if (pushError != null) {
+                    circuitBreaker.onResult(true);
+                    pushDeliveryGuard.release(messageId, configId, claimToken);
+                    result.completeExceptionally(pushError);
+                    return;
+                }
+                circuitBreaker.onResult(pushRecord.isPlatformError());
+                if (Integer.valueOf(1).equals(pushRecord.getPushStatus())) {
+                    pushDeliveryGuard.markDelivered(messageId, configId, claimToken);
+                } else {
+                    pushDeliveryGuard.release(messageId, configId, claimToken);
+                }
+                pushRecord.setRetryCount(retryCount);
+                
+                // 保存推送记录（写入批量队列，不阻塞回调线程）
+                try {
+                    messageRecordService.savePushRecord(pushRecord);
+                } catch (Exception e) {
+                    log.error("保存推送记录失败: messageId={}, platform={}, error={}", 
+                        messageRecord.getId(), config.getPlatform(), e.getMessage());
+                }
+                result.complete(pushRecord);
+            });
+        });
+        return result;
+    }
+    
+    /**
+     * 申请推送目标限流额度
+     * 
+     * @return 0表示允许推送；大于0表示需要等待的毫秒数
+     */
+    private long acquireRateLimit(PushService pushService, UserPushConfig config) {
+        String destination;
+        try {
+            destination = pushService.getRateLimitKey(config);
+        } catch (Exception e) {
+            // 配置无法解析时不限流，由推送过程记录失败原因
+            return 0;
         }
+        return pushRateLimiter.tryAcquire(config.getPlatform(), destination);
+    }
+    
+    /**
+     * 发起熔断探测，探测结果回报给熔断器
+     */
+    private void probe(PushService pushService, UserPushConfig config, PushCircuitBreaker circuitBreaker) {
+        log.info("推送平台熔断时间结束，发起探测: circuit={}", circuitBreaker.getName());
+        try {
+            pushService.probeAsync(config).whenComplete((healthy, error) ->
+                circuitBreaker.onProbeResult(error == null && Boolean.TRUE.equals(healthy)));
+        } catch (Exception e) {
+            log.warn("推送平台探测异常: circuit={}, error={}", circuitBreaker.getName(), e.getMessage());
+            circuitBreaker.onProbeResult(false);
+        }
+    }
+    
+    /**
+     * 保存一条失败的推送记录（推送未能执行时使用，推送统计由推送记录汇总得出）
+     * 
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param errorMessage 错误信息
+     * @return 推送记录
+     */
+    public PushRecord saveFailedPushRecord(MessageRecord messageRecord, UserPushConfig config, String errorMessage) {
+        return saveFailedPushRecord(messageRecord, config, errorMessage, 0);
+    }
+    
+    private PushRecord saveFailedPushRecord(MessageRecord messageRecord, UserPushConfig config, String errorMessage,
+                                            int retryCount) {
+        PushRecord pushRecord = new PushRecord();
+        pushRecord.setId(messageRecordService.generatePushRecordId());
+        pushRecord.setMessageId(messageRecord.getId());
+        pushRecord.setUserId(messageRecord.getUserId());
+        pushRecord.setPlatform(config.getPlatform());
+        pushRecord.setConfigName(config.getConfigName());
+        pushRecord.setPushStatus(0); // 推送失败
+        pushRecord.setRequestData("");
+        pushRecord.setErrorMessage(errorMessage);
+        pushRecord.setRetryCount(retryCount);
+        pushRecord.setPushTime(java.time.LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.SECONDS));
+        pushRecord.setCreateTime(java.time.LocalDateTime.now().truncatedTo(java.time.temporal.ChronoUnit.SECONDS));
         
-        // 执行推送
-        PushRecord pushRecord = pushService.pushMessage(messageRecord, config);
-        
-        // 保存推送记录到ClickHouse
         try {
             messageRecordService.savePushRecord(pushRecord);
         } catch (Exception e) {
             log.error("保存推送记录失败: messageId={}, platform={}, error={}", 
                 messageRecord.getId(), config.getPlatform(), e.getMessage());
         }
-        
         return pushRecord;
     }
     
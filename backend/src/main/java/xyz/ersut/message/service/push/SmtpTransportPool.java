@@ -0,0 +1,238 @@
+package xyz.ersut.message.service.push;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SMTP连接池
+ * 每个会话线程持有一个已完成STARTTLS和认证的SMTP连接，从共享队列中批量取出邮件在同一连接上连续发送，
+ * 避免每封邮件重新建立连接和认证；连接空闲超过idle-timeout后关闭，下次有邮件时重新建立
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+
+    /**
+     * SMTP会话数（同时保持的连接数）
+     */
+    @Value("${message.push.mail.sessions:2}")
+    private int sessions;
+
+    /**
+     * 每个会话一次连续发送的最大邮件数
+     */
+    @Value("${message.push.mail.batch-size:20}")
+    private int batchSize;
+
+    /**
+     * 连接空闲多久后关闭（毫秒）
+     */
+    @Value("${message.push.mail.idle-timeout:60000}")
+    private long idleTimeout;
+
+    /**
+     * 等待发送的最大邮件数
+     */
+    @Value("${message.push.mail.pending-capacity:1000}")
+    private int pendingCapacity;
+
+    private BlockingQueue<PendingMail> pending;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        pending = new LinkedBlockingQueue<>(pendingCapacity);
+        running = true;
+        for (int i = 1; i <= sessions; i++) {
+            Thread worker = new Thread(new SessionWorker(), "smtp-session-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("SMTP连接池已启动: host={}, sessions={}, batchSize={}", mailSender.getHost(), sessions, batchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        PendingMail mail;
+        while ((mail = pending.poll()) != null) {
+            mail.future().completeExceptionally(new MailSendException("SMTP连接池已关闭"));
+        }
+    }
+
+    /**
+     * 创建邮件
+     *
+     * @return 使用连接池会话配置的邮件
+     */
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    /**
+     * 提交邮件发送
+     *
+     * @param message 邮件
+     * @return 发送完成时正常完成；发送失败时以MailException异常完成
+     */
+    public CompletableFuture<Void> send(MimeMessage message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!running) {
+            future.completeExceptionally(new MailSendException("SMTP连接池已关闭"));
+        } else if (!pending.offer(new PendingMail(message, future))) {
+            future.completeExceptionally(new IllegalStateException("邮件发送队列已满"));
+        }
+        return future;
+    }
+
+    /**
+     * 会话线程：持有一个SMTP连接，批量发送队列中的邮件
+     */
+    private class SessionWorker implements Runnable {
+
+        private Transport transport;
+
+        @Override
+        public void run() {
+            List<PendingMail> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    PendingMail first = pending.poll(idleTimeout, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (transport != null) {
+                            log.debug("SMTP连接空闲，关闭连接");
+                            close();
+                        }
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, batchSize - 1);
+                    sendBatch(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.error("SMTP会话处理异常: {}", e.getMessage(), e);
+                } finally {
+                    // 未完成的邮件（如线程被中断）按失败处理
+                    for (PendingMail mail : batch) {
+                        mail.future().completeExceptionally(new MailSendException("邮件未发送"));
+                    }
+                    batch.clear();
+                }
+            }
+            close();
+        }
+
+        private void sendBatch(List<PendingMail> batch) {
+            // 连接可能在空闲期间被服务器断开，每批发送前检查一次
+            if (transport != null && !transport.isConnected()) {
+                close();
+            }
+            for (PendingMail mail : batch) {
+                try {
+                    send(mail.message());
+                    mail.future().complete(null);
+                } catch (Exception e) {
+                    mail.future().completeExceptionally(translate(e));
+                }
+            }
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+
+            boolean reused = transport != null;
+            Transport current = connect();
+            try {
+                current.sendMessage(message, message.getAllRecipients());
+            } catch (SendFailedException e) {
+                // 收件人被拒绝，连接仍可用
+                throw e;
+            } catch (MessagingException e) {
+                close();
+                if (!reused) {
+                    throw e;
+                }
+                // 复用的连接已失效，重新建立连接后重发一次
+                log.debug("SMTP连接已失效，重新连接: error={}", e.getMessage());
+                connect().sendMessage(message, message.getAllRecipients());
+            }
+        }
+
+        private Transport connect() throws MessagingException {
+            if (transport == null) {
+                Transport created = mailSender.getSession().getTransport(
+                    mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp");
+                created.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+                transport = created;
+            }
+            return transport;
+        }
+
+        private void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (Exception e) {
+                log.debug("关闭SMTP连接失败: {}", e.getMessage());
+            }
+            transport = null;
+        }
+
+        private MailException translate(Exception e) {
+            if (e instanceof AuthenticationFailedException) {
+                return new MailAuthenticationException(e);
+            }
+            return new MailSendException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 等待发送的邮件
+     */
+    private record PendingMail(MimeMessage message, CompletableFuture<Void> future) {
+    }
+}
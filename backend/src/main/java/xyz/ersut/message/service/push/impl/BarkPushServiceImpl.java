@@ -10,16 +10,14 @@ import xyz.ersut.message.dto.UserPushConfigDto;
 import xyz.ersut.message.entity.MessageRecord;
 import xyz.ersut.message.entity.PushRecord;
 import xyz.ersut.message.entity.UserPushConfig;
-import xyz.ersut.message.service.MessageRecordService;
 import xyz.ersut.message.service.UserPushConfigService;
-import xyz.ersut.message.service.push.PushService;
+import xyz.ersut.message.service.push.AbstractHttpPushService;
+import xyz.ersut.message.service.push.HttpPushCalls.HttpResult;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Bark推送服务实现
@@ -29,118 +27,99 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class BarkPushServiceImpl implements PushService {
+public class BarkPushServiceImpl extends AbstractHttpPushService {
     
-    private final MessageRecordService messageRecordService;
     private final UserPushConfigService userPushConfigService;
     
-    private final OkHttpClient httpClient = new OkHttpClient.Builder()
-        .connectTimeout(10, TimeUnit.SECONDS)
-        .readTimeout(30, TimeUnit.SECONDS)
-        .build();
+    private static final String DEFAULT_SERVER_URL = "https://api.day.app";
+    private static final String DEFAULT_SERVER_HOST = "api.day.app";
     
     @Override
-    public PushRecord pushMessage(MessageRecord messageRecord, UserPushConfig config) {
-        PushRecord pushRecord = new PushRecord();
-        pushRecord.setId(messageRecordService.generatePushRecordId());
-        pushRecord.setMessageId(messageRecord.getId());
-        pushRecord.setUserId(messageRecord.getUserId());
-        pushRecord.setPlatform("bark");
-        pushRecord.setConfigName(config.getConfigName());
-        pushRecord.setPushStatus(2); // 推送中
-        pushRecord.setPushTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
-        pushRecord.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+    protected String getPlatformName() {
+        return "Bark";
+    }
+    
+    @Override
+    protected Request buildPushRequest(MessageRecord messageRecord, UserPushConfig config, PushRecord pushRecord) {
+        // 解析Bark配置
+        UserPushConfigDto configDto = userPushConfigService.getParsedConfig(config);
+        UserPushConfigDto.BarkConfig barkConfig = configDto.getBark();
         
-        try {
-            // 解析Bark配置
-            UserPushConfigDto configDto = userPushConfigService.convertConfigDataToDto("bark", config.getConfigData());
-            UserPushConfigDto.BarkConfig barkConfig = configDto.getBark();
-            
-            if (barkConfig == null || StrUtil.isBlank(barkConfig.getDeviceKey())) {
-                throw new RuntimeException("Bark设备Key未配置");
-            }
-            
-            // 构建推送URL
-            String serverUrl = StrUtil.isNotBlank(barkConfig.getServerUrl()) ? 
-                barkConfig.getServerUrl() : "https://api.day.app";
-            String pushUrl = String.format("%s/%s", serverUrl, barkConfig.getDeviceKey());
-            
-            // 构建请求体
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("title", messageRecord.getTitle());
+        if (barkConfig == null || StrUtil.isBlank(barkConfig.getDeviceKey())) {
+            throw new RuntimeException("Bark设备Key未配置");
+        }
+        
+        // 构建推送URL
+        String pushUrl = String.format("%s/%s", getServerUrl(barkConfig), barkConfig.getDeviceKey());
+        
+        // 构建请求体
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("title", messageRecord.getTitle());
 
-            if (StrUtil.isNotBlank(messageRecord.getSubtitle())) {
-                requestBody.put("subtitle", messageRecord.getSubtitle());
-            }
+        if (StrUtil.isNotBlank(messageRecord.getSubtitle())) {
+            requestBody.put("subtitle", messageRecord.getSubtitle());
+        }
 
-            StringBuilder contentBuilder = new StringBuilder();
-            contentBuilder.append(messageRecord.getContent());
-            if (StrUtil.isNotBlank(messageRecord.getSource())) {
-                contentBuilder.append("\n数据来源：").append(messageRecord.getSource());
-            }
-            contentBuilder.append("\nhismsg转发时间：").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            requestBody.put("body", contentBuilder.toString());
-            
-            if (StrUtil.isNotBlank(messageRecord.getUrl())) {
-                requestBody.put("url", messageRecord.getUrl());
-            }
-            if (StrUtil.isNotBlank(barkConfig.getSound())) {
-                requestBody.put("sound", barkConfig.getSound());
-            }
-            if (StrUtil.isNotBlank(barkConfig.getGroup())) {
-                requestBody.put("group", barkConfig.getGroup());
-            }
-            if (StrUtil.isNotBlank(barkConfig.getIcon())) {
-                requestBody.put("icon", barkConfig.getIcon());
-            }
-            
-            // 设置消息级别对应的优先级
-            if ("high".equals(messageRecord.getLevel()) || "critical".equals(messageRecord.getLevel())) {
-                requestBody.put("level", "timeSensitive");
-            } else if ("low".equals(messageRecord.getLevel())) {
-                requestBody.put("level", "passive");
-            }
-            
-            String jsonBody = JSON.toJSONString(requestBody);
-            pushRecord.setRequestData(jsonBody);
-            
-            // 发送HTTP请求
-            RequestBody body = RequestBody.create(jsonBody, MediaType.parse("application/json; charset=utf-8"));
-            Request request = new Request.Builder()
-                .url(pushUrl)
-                .post(body)
-                .build();
-            
-            try (Response response = httpClient.newCall(request).execute()) {
-                String responseBody = response.body() != null ? response.body().string() : "";
-                pushRecord.setResponseData(responseBody);
-                
-                if (response.isSuccessful()) {
-                    pushRecord.setPushStatus(1); // 推送成功
-                    log.info("Bark推送成功: messageId={}, deviceKey={}", messageRecord.getId(), 
-                        maskDeviceKey(barkConfig.getDeviceKey()));
-                } else {
-                    pushRecord.setPushStatus(0); // 推送失败
-                    pushRecord.setErrorMessage("HTTP错误: " + response.code());
-                    log.warn("Bark推送失败: messageId={}, httpCode={}, response={}", 
-                        messageRecord.getId(), response.code(), responseBody);
-                }
-            }
-            
-        } catch (Exception e) {
-            pushRecord.setPushStatus(0); // 推送失败
-            pushRecord.setErrorMessage(e.getMessage());
-            log.error("Bark推送异常: messageId={}, error={}", messageRecord.getId(), e.getMessage(), e);
+        StringBuilder contentBuilder = new StringBuilder();
+        contentBuilder.append(messageRecord.getContent());
+        if (StrUtil.isNotBlank(messageRecord.getSource())) {
+            contentBuilder.append("\n数据来源：").append(messageRecord.getSource());
+        }
+        contentBuilder.append("\nhismsg转发时间：").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+        requestBody.put("body", contentBuilder.toString());
+        
+        if (StrUtil.isNotBlank(messageRecord.getUrl())) {
+            requestBody.put("url", messageRecord.getUrl());
+        }
+        if (StrUtil.isNotBlank(barkConfig.getSound())) {
+            requestBody.put("sound", barkConfig.getSound());
+        }
+        if (StrUtil.isNotBlank(barkConfig.getGroup())) {
+            requestBody.put("group", barkConfig.getGroup());
         }
+        if (StrUtil.isNotBlank(barkConfig.getIcon())) {
+            requestBody.put("icon", barkConfig.getIcon());
+        }
+        
+        // 设置消息级别对应的优先级
+        if ("high".equals(messageRecord.getLevel()) || "critical".equals(messageRecord.getLevel())) {
+            requestBody.put("level", "timeSensitive");
+        } else if ("low".equals(messageRecord.getLevel())) {
+            requestBody.put("level", "passive");
+        }
+        
+        String jsonBody = JSON.toJSONString(requestBody);
+        pushRecord.setRequestData(jsonBody);
         
-        return pushRecord;
+        RequestBody body = RequestBody.create(jsonBody, MediaType.parse("application/json; charset=utf-8"));
+        return new Request.Builder()
+            .url(pushUrl)
+            .post(body)
+            .build();
+    }
+    
+    @Override
+    protected void handlePushResponse(MessageRecord messageRecord, UserPushConfig config,
+                                      PushRecord pushRecord, HttpResult result) {
+        pushRecord.setResponseData(result.body());
+        
+        if (result.successful()) {
+            pushRecord.setPushStatus(1); // 推送成功
+            log.info("Bark推送成功: messageId={}, deviceKey={}", messageRecord.getId(), 
+                maskDeviceKey(userPushConfigService.getParsedConfig(config).getBark().getDeviceKey()));
+        } else {
+            pushRecord.setPushStatus(0); // 推送失败
+            pushRecord.setErrorMessage("HTTP错误: " + result.code());
+            log.warn("Bark推送失败: messageId={}, httpCode={}, response={}", 
+                messageRecord.getId(), result.code(), result.body());
+        }
     }
     
     @Override
     public boolean testConfig(UserPushConfig config) {
         try {
             // 解析配置
-            UserPushConfigDto configDto = userPushConfigService.convertConfigDataToDto("bark", config.getConfigData());
+            UserPushConfigDto configDto = userPushConfigService.getParsedConfig(config);
             UserPushConfigDto.BarkConfig barkConfig = configDto.getBark();
             
             if (barkConfig == null || StrUtil.isBlank(barkConfig.getDeviceKey())) {
@@ -148,9 +127,7 @@ public class BarkPushServiceImpl implements PushService {
             }
             
             // 发送测试消息
-            String serverUrl = StrUtil.isNotBlank(barkConfig.getServerUrl()) ? 
-                barkConfig.getServerUrl() : "https://api.day.app";
-            String pushUrl = String.format("%s/%s", serverUrl, barkConfig.getDeviceKey());
+            String pushUrl = String.format("%s/%s", getServerUrl(barkConfig), barkConfig.getDeviceKey());
             
             Map<String, Object> requestBody = new HashMap<>();
             requestBody.put("title", "配置测试");
@@ -164,7 +141,7 @@ public class BarkPushServiceImpl implements PushService {
                 .post(body)
                 .build();
             
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = pushHttpClient.newCall(request).execute()) {
                 boolean success = response.isSuccessful();
                 log.info("Bark配置测试{}: deviceKey={}", success ? "成功" : "失败", 
                     maskDeviceKey(barkConfig.getDeviceKey()));
@@ -177,11 +154,52 @@ public class BarkPushServiceImpl implements PushService {
         }
     }
     
+    @Override
+    protected String getProbeUrl(UserPushConfig config) {
+        return getServerUrl(userPushConfigService.getParsedConfig(config).getBark()) + "/ping";
+    }
+    
+    /**
+     * 自建Bark服务按主机熔断，避免单个自建服务故障影响其他用户
+     */
+    @Override
+    public String getCircuitName(UserPushConfig config) {
+        try {
+            UserPushConfigDto.BarkConfig barkConfig = userPushConfigService.getParsedConfig(config).getBark();
+            if (barkConfig != null && StrUtil.isNotBlank(barkConfig.getServerUrl())) {
+                HttpUrl serverUrl = HttpUrl.parse(barkConfig.getServerUrl());
+                if (serverUrl != null && !DEFAULT_SERVER_HOST.equals(serverUrl.host())) {
+                    return getPlatformCode() + ":" + serverUrl.host();
+                }
+            }
+        } catch (Exception e) {
+            log.debug("解析Bark服务地址失败，按平台熔断: error={}", e.getMessage());
+        }
+        return getPlatformCode();
+    }
+    
+    @Override
+    public String getRateLimitKey(UserPushConfig config) {
+        UserPushConfigDto.BarkConfig barkConfig = userPushConfigService.getParsedConfig(config).getBark();
+        if (barkConfig == null || StrUtil.isBlank(barkConfig.getDeviceKey())) {
+            return null;
+        }
+        return getServerUrl(barkConfig) + "/" + barkConfig.getDeviceKey();
+    }
+    
     @Override
     public String getPlatformCode() {
         return "bark";
     }
     
+    /**
+     * 获取Bark服务地址，未配置时使用官方服务
+     */
+    private String getServerUrl(UserPushConfigDto.BarkConfig barkConfig) {
+        return barkConfig != null && StrUtil.isNotBlank(barkConfig.getServerUrl()) ?
+            barkConfig.getServerUrl() : DEFAULT_SERVER_URL;
+    }
+    
     /**
      * 掩码设备Key，用于日志输出
      * 
@@ -1,10 +1,18 @@
 package xyz.ersut.message.service.push.impl;
 
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import cn.hutool.core.util.StrUtil;
 import xyz.ersut.message.dto.UserPushConfigDto;
@@ -14,10 +22,15 @@ import xyz.ersut.message.entity.UserPushConfig;
 import xyz.ersut.message.service.MessageRecordService;
 import xyz.ersut.message.service.UserPushConfigService;
 import xyz.ersut.message.service.push.PushService;
+import xyz.ersut.message.service.push.SmtpTransportPool;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 /**
  * 邮箱推送服务实现
@@ -32,12 +45,28 @@ public class EmailPushServiceImpl implements PushService {
     private final MessageRecordService messageRecordService;
     private final UserPushConfigService userPushConfigService;
     private final JavaMailSender mailSender;
+    private final SmtpTransportPool smtpTransportPool;
+
+    /**
+     * 邮件探测线程池（SMTP连接测试为阻塞调用，单独的线程池避免占用推送调度线程）
+     */
+    @Autowired
+    @Qualifier("pushMailTaskExecutor")
+    private ThreadPoolTaskExecutor pushMailTaskExecutor;
 
     @Value("${spring.mail.username}")
     private String fromMall;
 
     @Override
     public PushRecord pushMessage(MessageRecord messageRecord, UserPushConfig config) {
+        return pushMessageAsync(messageRecord, config).toCompletableFuture().join();
+    }
+    
+    /**
+     * 邮件交给SMTP连接池在已建立的连接上批量发送，不占用调用线程
+     */
+    @Override
+    public CompletionStage<PushRecord> pushMessageAsync(MessageRecord messageRecord, UserPushConfig config) {
         PushRecord pushRecord = new PushRecord();
         pushRecord.setId(messageRecordService.generatePushRecordId());
         pushRecord.setMessageId(messageRecord.getId());
@@ -48,26 +77,23 @@ public class EmailPushServiceImpl implements PushService {
         pushRecord.setPushTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
         pushRecord.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
         
+        String toEmail;
+        CompletableFuture<Void> sending;
         try {
             // 解析邮箱配置
-            UserPushConfigDto configDto = userPushConfigService.convertConfigDataToDto("email", config.getConfigData());
+            UserPushConfigDto configDto = userPushConfigService.getParsedConfig(config);
             UserPushConfigDto.EmailConfig emailConfig = configDto.getEmail();
             
             if (emailConfig == null || StrUtil.isBlank(emailConfig.getToEmail())) {
                 throw new RuntimeException("收件人邮箱未配置");
             }
-            
-            // 构建邮件
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromMall);
-            message.setTo(emailConfig.getToEmail());
+            toEmail = emailConfig.getToEmail();
             
             // 构建邮件主题
             String subject = messageRecord.getTitle();
             if (StrUtil.isNotBlank(emailConfig.getSubjectPrefix())) {
                 subject = emailConfig.getSubjectPrefix() + " " + subject;
             }
-            message.setSubject(subject);
             
             // 构建邮件内容
             StringBuilder contentBuilder = new StringBuilder();
@@ -86,33 +112,38 @@ public class EmailPushServiceImpl implements PushService {
             
             contentBuilder.append("hismsg转发时间：").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
             
-            message.setText(contentBuilder.toString());
-            
-            pushRecord.setRequestData(String.format("To: %s, Subject: %s", 
-                maskEmail(emailConfig.getToEmail()), subject));
+            pushRecord.setRequestData(String.format("To: %s, Subject: %s", maskEmail(toEmail), subject));
             
             // 发送邮件
-            mailSender.send(message);
-            
-            pushRecord.setPushStatus(1); // 推送成功
-            pushRecord.setResponseData("邮件发送成功");
-            log.info("邮箱推送成功: messageId={}, toEmail={}", messageRecord.getId(), 
-                maskEmail(emailConfig.getToEmail()));
-            
+            sending = smtpTransportPool.send(buildMessage(toEmail, subject, contentBuilder.toString()));
         } catch (Exception e) {
-            pushRecord.setPushStatus(0); // 推送失败
-            pushRecord.setErrorMessage(e.getMessage());
-            log.error("邮箱推送异常: messageId={}, error={}", messageRecord.getId(), e.getMessage(), e);
+            sending = CompletableFuture.failedFuture(e);
+            toEmail = null;
         }
         
-        return pushRecord;
+        String maskedEmail = maskEmail(toEmail);
+        return sending.handle((ignored, error) -> {
+            if (error == null) {
+                pushRecord.setPushStatus(1); // 推送成功
+                pushRecord.setResponseData("邮件发送成功");
+                log.info("邮箱推送成功: messageId={}, toEmail={}", messageRecord.getId(), maskedEmail);
+            } else {
+                Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                pushRecord.setPushStatus(0); // 推送失败
+                pushRecord.setErrorMessage(e.getMessage());
+                // SMTP连接、认证、发送失败计入熔断统计，配置错误不计入
+                pushRecord.setPlatformError(e instanceof MailSendException || e instanceof MailAuthenticationException);
+                log.error("邮箱推送异常: messageId={}, error={}", messageRecord.getId(), e.getMessage(), e);
+            }
+            return pushRecord;
+        });
     }
     
     @Override
     public boolean testConfig(UserPushConfig config) {
         try {
             // 解析配置
-            UserPushConfigDto configDto = userPushConfigService.convertConfigDataToDto("email", config.getConfigData());
+            UserPushConfigDto configDto = userPushConfigService.getParsedConfig(config);
             UserPushConfigDto.EmailConfig emailConfig = configDto.getEmail();
             
             if (emailConfig == null || StrUtil.isBlank(emailConfig.getToEmail())) {
@@ -120,19 +151,14 @@ public class EmailPushServiceImpl implements PushService {
             }
             
             // 发送测试邮件
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromMall);
-            message.setTo(emailConfig.getToEmail());
-            
             String subject = "配置测试";
             if (StrUtil.isNotBlank(emailConfig.getSubjectPrefix())) {
                 subject = emailConfig.getSubjectPrefix() + " " + subject;
             }
-            message.setSubject(subject);
-            message.setText("这是一条测试邮件，您的邮箱推送配置正常！\n\n测试时间：" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+            String text = "这是一条测试邮件，您的邮箱推送配置正常！\n\n测试时间：" + 
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
             
-            mailSender.send(message);
+            smtpTransportPool.send(buildMessage(emailConfig.getToEmail(), subject, text)).join();
             
             log.info("邮箱配置测试成功: toEmail={}", maskEmail(emailConfig.getToEmail()));
             return true;
@@ -143,11 +169,51 @@ public class EmailPushServiceImpl implements PushService {
         }
     }
     
+    /**
+     * 探测SMTP服务是否可用（只建立连接并认证，不发送邮件）
+     */
+    @Override
+    public CompletionStage<Boolean> probeAsync(UserPushConfig config) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!(mailSender instanceof JavaMailSenderImpl javaMailSender)) {
+                return true;
+            }
+            try {
+                javaMailSender.testConnection();
+                return true;
+            } catch (Exception e) {
+                log.warn("SMTP服务探测失败: error={}", e.getMessage());
+                return false;
+            }
+        }, pushMailTaskExecutor);
+    }
+    
+    /**
+     * 所有邮件通过同一个发件账号发送，按发件账号限流
+     */
+    @Override
+    public String getRateLimitKey(UserPushConfig config) {
+        return fromMall;
+    }
+    
     @Override
     public String getPlatformCode() {
         return "email";
     }
     
+    /**
+     * 构建纯文本邮件
+     */
+    private MimeMessage buildMessage(String toEmail, String subject, String text) throws MessagingException {
+        MimeMessage message = smtpTransportPool.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromMall);
+        helper.setTo(toEmail);
+        helper.setSubject(subject);
+        helper.setText(text);
+        return message;
+    }
+    
     /**
      * 获取消息类型文本
      */
@@ -10,18 +10,16 @@ import xyz.ersut.message.dto.UserPushConfigDto;
 import xyz.ersut.message.entity.MessageRecord;
 import xyz.ersut.message.entity.PushRecord;
 import xyz.ersut.message.entity.UserPushConfig;
-import xyz.ersut.message.service.MessageRecordService;
 import xyz.ersut.message.service.UserPushConfigService;
-import xyz.ersut.message.service.push.PushService;
+import xyz.ersut.message.service.push.AbstractHttpPushService;
+import xyz.ersut.message.service.push.HttpPushCalls.HttpResult;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 /**
  * WxPusher推送服务实现
@@ -31,119 +29,100 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class WxPusherPushServiceImpl implements PushService {
+public class WxPusherPushServiceImpl extends AbstractHttpPushService {
     
-    private final MessageRecordService messageRecordService;
     private final UserPushConfigService userPushConfigService;
     
-    private final OkHttpClient httpClient = new OkHttpClient.Builder()
-        .connectTimeout(10, TimeUnit.SECONDS)
-        .readTimeout(30, TimeUnit.SECONDS)
-        .build();
-    
     private static final String WXPUSHER_API_URL = "https://wxpusher.zjiecode.com/api/send/message";
+    private static final String WXPUSHER_PROBE_URL = "https://wxpusher.zjiecode.com";
     
     @Override
-    public PushRecord pushMessage(MessageRecord messageRecord, UserPushConfig config) {
-        PushRecord pushRecord = new PushRecord();
-        pushRecord.setId(messageRecordService.generatePushRecordId());
-        pushRecord.setMessageId(messageRecord.getId());
-        pushRecord.setUserId(messageRecord.getUserId());
-        pushRecord.setPlatform("wxpusher");
-        pushRecord.setConfigName(config.getConfigName());
-        pushRecord.setPushStatus(2); // 推送中
-        pushRecord.setPushTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
-        pushRecord.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+    protected String getPlatformName() {
+        return "WxPusher";
+    }
+    
+    @Override
+    protected Request buildPushRequest(MessageRecord messageRecord, UserPushConfig config, PushRecord pushRecord) {
+        // 解析WxPusher配置
+        UserPushConfigDto configDto = userPushConfigService.getParsedConfig(config);
+        UserPushConfigDto.WxPusherConfig wxpusherConfig = configDto.getWxpusher();
         
-        try {
-            // 解析WxPusher配置
-            UserPushConfigDto configDto = userPushConfigService.convertConfigDataToDto("wxpusher", config.getConfigData());
-            UserPushConfigDto.WxPusherConfig wxpusherConfig = configDto.getWxpusher();
-            
-            if (wxpusherConfig == null || StrUtil.isBlank(wxpusherConfig.getAppToken())) {
-                throw new RuntimeException("WxPusher应用Token未配置");
-            }
-            
-            if (StrUtil.isBlank(wxpusherConfig.getUid()) && StrUtil.isBlank(wxpusherConfig.getTopicId())) {
-                throw new RuntimeException("WxPusher用户UID或主题ID至少配置一个");
-            }
-            
-            // 构建请求体
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("appToken", wxpusherConfig.getAppToken());
-            requestBody.put("content", buildContent(messageRecord, wxpusherConfig));
-            requestBody.put("summary", buildSummary(messageRecord, wxpusherConfig));
-            requestBody.put("contentType", wxpusherConfig.getContentType() != null ? wxpusherConfig.getContentType() : 1);
-            
-            // 设置接收者
-            if (StrUtil.isNotBlank(wxpusherConfig.getUid())) {
-                List<String> uids = new ArrayList<>();
-                uids.add(wxpusherConfig.getUid());
-                requestBody.put("uids", uids);
-            }
-            
-            if (StrUtil.isNotBlank(wxpusherConfig.getTopicId())) {
-                List<String> topicIds = new ArrayList<>();
-                topicIds.add(wxpusherConfig.getTopicId());
-                requestBody.put("topicIds", topicIds);
-            }
-            
-            // 设置链接
-            if (StrUtil.isNotBlank(messageRecord.getUrl())) {
-                requestBody.put("url", messageRecord.getUrl());
-            }
-            
-            String jsonBody = JSON.toJSONString(requestBody);
-            pushRecord.setRequestData(jsonBody);
-            
-            // 发送HTTP请求
-            RequestBody body = RequestBody.create(jsonBody, MediaType.parse("application/json; charset=utf-8"));
-            Request request = new Request.Builder()
-                .url(WXPUSHER_API_URL)
-                .post(body)
-                .build();
-            
-            try (Response response = httpClient.newCall(request).execute()) {
-                String responseBody = response.body() != null ? response.body().string() : "";
-                pushRecord.setResponseData(responseBody);
-                
-                if (response.isSuccessful()) {
-                    // 解析响应判断是否真正成功
-                    Map<String, Object> responseMap = JSON.parseObject(responseBody, Map.class);
-                    Integer code = (Integer) responseMap.get("code");
-                    
-                    if (code != null && code == 1000) {
-                        pushRecord.setPushStatus(1); // 推送成功
-                        log.info("WxPusher推送成功: messageId={}, appToken={}", messageRecord.getId(), 
-                            maskAppToken(wxpusherConfig.getAppToken()));
-                    } else {
-                        pushRecord.setPushStatus(0); // 推送失败
-                        pushRecord.setErrorMessage("API返回错误: " + responseMap.get("msg"));
-                        log.warn("WxPusher推送失败: messageId={}, code={}, msg={}", 
-                            messageRecord.getId(), code, responseMap.get("msg"));
-                    }
-                } else {
-                    pushRecord.setPushStatus(0); // 推送失败
-                    pushRecord.setErrorMessage("HTTP错误: " + response.code());
-                    log.warn("WxPusher推送失败: messageId={}, httpCode={}, response={}", 
-                        messageRecord.getId(), response.code(), responseBody);
-                }
+        if (wxpusherConfig == null || StrUtil.isBlank(wxpusherConfig.getAppToken())) {
+            throw new RuntimeException("WxPusher应用Token未配置");
+        }
+        
+        if (StrUtil.isBlank(wxpusherConfig.getUid()) && StrUtil.isBlank(wxpusherConfig.getTopicId())) {
+            throw new RuntimeException("WxPusher用户UID或主题ID至少配置一个");
+        }
+        
+        // 构建请求体
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("appToken", wxpusherConfig.getAppToken());
+        requestBody.put("content", buildContent(messageRecord, wxpusherConfig));
+        requestBody.put("summary", buildSummary(messageRecord, wxpusherConfig));
+        requestBody.put("contentType", wxpusherConfig.getContentType() != null ? wxpusherConfig.getContentType() : 1);
+        
+        // 设置接收者
+        if (StrUtil.isNotBlank(wxpusherConfig.getUid())) {
+            List<String> uids = new ArrayList<>();
+            uids.add(wxpusherConfig.getUid());
+            requestBody.put("uids", uids);
+        }
+        
+        if (StrUtil.isNotBlank(wxpusherConfig.getTopicId())) {
+            List<String> topicIds = new ArrayList<>();
+            topicIds.add(wxpusherConfig.getTopicId());
+            requestBody.put("topicIds", topicIds);
+        }
+        
+        // 设置链接
+        if (StrUtil.isNotBlank(messageRecord.getUrl())) {
+            requestBody.put("url", messageRecord.getUrl());
+        }
+        
+        String jsonBody = JSON.toJSONString(requestBody);
+        pushRecord.setRequestData(jsonBody);
+        
+        RequestBody body = RequestBody.create(jsonBody, MediaType.parse("application/json; charset=utf-8"));
+        return new Request.Builder()
+            .url(WXPUSHER_API_URL)
+            .post(body)
+            .build();
+    }
+    
+    @Override
+    protected void handlePushResponse(MessageRecord messageRecord, UserPushConfig config,
+                                      PushRecord pushRecord, HttpResult result) {
+        pushRecord.setResponseData(result.body());
+        
+        if (result.successful()) {
+            // 解析响应判断是否真正成功
+            Map<String, Object> responseMap = JSON.parseObject(result.body(), Map.class);
+            Integer code = (Integer) responseMap.get("code");
+            
+            if (code != null && code == 1000) {
+                pushRecord.setPushStatus(1); // 推送成功
+                log.info("WxPusher推送成功: messageId={}, appToken={}", messageRecord.getId(), 
+                    maskAppToken(userPushConfigService.getParsedConfig(config).getWxpusher().getAppToken()));
+            } else {
+                pushRecord.setPushStatus(0); // 推送失败
+                pushRecord.setErrorMessage("API返回错误: " + responseMap.get("msg"));
+                log.warn("WxPusher推送失败: messageId={}, code={}, msg={}", 
+                    messageRecord.getId(), code, responseMap.get("msg"));
             }
-            
-        } catch (Exception e) {
+        } else {
             pushRecord.setPushStatus(0); // 推送失败
-            pushRecord.setErrorMessage(e.getMessage());
-            log.error("WxPusher推送异常: messageId={}, error={}", messageRecord.getId(), e.getMessage(), e);
+            pushRecord.setErrorMessage("HTTP错误: " + result.code());
+            log.warn("WxPusher推送失败: messageId={}, httpCode={}, response={}", 
+                messageRecord.getId(), result.code(), result.body());
         }
-        
-        return pushRecord;
     }
     
     @Override
     public boolean testConfig(UserPushConfig config) {
         try {
             // 解析配置
-            UserPushConfigDto configDto = userPushConfigService.convertConfigDataToDto("wxpusher", config.getConfigData());
+            UserPushConfigDto configDto = userPushConfigService.getParsedConfig(config);
             UserPushConfigDto.WxPusherConfig wxpusherConfig = configDto.getWxpusher();
             
             if (wxpusherConfig == null || StrUtil.isBlank(wxpusherConfig.getAppToken())) {
@@ -180,7 +159,7 @@ public class WxPusherPushServiceImpl implements PushService {
                 .post(body)
                 .build();
             
-            try (Response response = httpClient.newCall(request).execute()) {
+            try (Response response = pushHttpClient.newCall(request).execute()) {
                 if (response.isSuccessful()) {
                     String responseBody = response.body() != null ? response.body().string() : "";
                     Map<String, Object> responseMap = JSON.parseObject(responseBody, Map.class);
@@ -200,6 +179,18 @@ public class WxPusherPushServiceImpl implements PushService {
         }
     }
     
+    @Override
+    protected String getProbeUrl(UserPushConfig config) {
+        return WXPUSHER_PROBE_URL;
+    }
+    
+    @Override
+    public String getRateLimitKey(UserPushConfig config) {
+        UserPushConfigDto.WxPusherConfig wxpusherConfig = userPushConfigService.getParsedConfig(config).getWxpusher();
+        return wxpusherConfig != null && StrUtil.isNotBlank(wxpusherConfig.getAppToken()) ?
+            wxpusherConfig.getAppToken() : null;
+    }
+    
     @Override
     public String getPlatformCode() {
         return "wxpusher";
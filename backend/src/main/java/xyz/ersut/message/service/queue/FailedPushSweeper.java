@@ -0,0 +1,322 @@
+package xyz.ersut.message.service.queue;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import cn.hutool.core.util.StrUtil;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.listener.MessagePushDispatcher;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.PushRecord;
+import xyz.ersut.message.entity.UserPushConfig;
+import xyz.ersut.message.service.MessageRecordService;
+import xyz.ersut.message.service.push.PushRoutingCache;
+import xyz.ersut.message.service.push.PushRoutingTable;
+import xyz.ersut.message.service.push.PushServiceManager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 失败推送补偿任务
+ * 作为重试队列之外的兜底：定期按(create_time, id)键集分页扫描ClickHouse中宽限期之前的失败推送记录，
+ * 跳过已成功或已有更新尝试的推送，其余按平台分组、限制并发重新推送，结果作为新的推送记录写入。
+ * 集群内通过Redisson锁保证同一时间只有一个节点执行；扫描位置保存在Redis中，单次执行最多处理maxRowsPerRun行
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FailedPushSweeper {
+
+    private static final DateTimeFormatter CURSOR_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final RedissonClient redissonClient;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MessageRecordService messageRecordService;
+    private final PushRoutingCache pushRoutingCache;
+    private final PushServiceManager pushServiceManager;
+
+    /**
+     * 是否启用
+     */
+    @Value("${message.reconcile.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每页扫描的失败记录数
+     */
+    @Value("${message.reconcile.page-size:500}")
+    private int pageSize;
+
+    /**
+     * 单次执行最多扫描的失败记录数
+     */
+    @Value("${message.reconcile.max-rows-per-run:5000}")
+    private int maxRowsPerRun;
+
+    /**
+     * 扫描的时间范围（小时），更早的失败记录不再补偿
+     */
+    @Value("${message.reconcile.lookback-hours:72}")
+    private long lookbackHours;
+
+    /**
+     * 宽限期（分钟），只补偿早于该时间的失败记录，避免与重试队列重复推送
+     */
+    @Value("${message.reconcile.grace-minutes:120}")
+    private long graceMinutes;
+
+    /**
+     * 每个平台的最大并发补偿推送数
+     */
+    @Value("${message.reconcile.platform-concurrency:8}")
+    private int platformConcurrency;
+
+    /**
+     * 重试次数上限，达到后不再补偿（与重试队列的最大重试次数一致，重试耗尽的推送由死信队列处理）
+     */
+    @Value("${message.reconcile.max-retry-count:${message.retry.max-attempts:5}}")
+    private int maxRetryCount;
+
+    /**
+     * 执行一次补偿（其他节点正在执行时直接返回）
+     *
+     * @return 补偿推送成功数
+     */
+    public int sweep() {
+        if (!enabled) {
+            return 0;
+        }
+
+        // 不指定租约时间，由Redisson看门狗续期，执行时间较长时锁不会提前释放
+        RLock lock = redissonClient.getLock(CacheConstants.PUSH_RECONCILE_LOCK);
+        if (!lock.tryLock()) {
+            log.debug("失败推送补偿正在其他节点执行，跳过");
+            return 0;
+        }
+        try {
+            return doSweep();
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    private int doSweep() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minusHours(lookbackHours);
+        LocalDateTime until = now.minusMinutes(graceMinutes);
+
+        PushRecord cursor = loadCursor();
+        if (cursor != null && cursor.getCreateTime().isBefore(since)) {
+            cursor = null;
+        }
+
+        long start = System.currentTimeMillis();
+        int scanned = 0;
+        int redriven = 0;
+        int succeeded = 0;
+        while (scanned < maxRowsPerRun) {
+            int limit = Math.min(pageSize, maxRowsPerRun - scanned);
+            List<PushRecord> page = messageRecordService.getFailedPushRecords(maxRetryCount, since, until,
+                cursor != null ? cursor.getCreateTime() : null, cursor != null ? cursor.getId() : null, limit);
+            if (page.isEmpty()) {
+                cursor = null;
+                break;
+            }
+
+            int[] result = redrive(page);
+            redriven += result[0];
+            succeeded += result[1];
+            scanned += page.size();
+            cursor = page.get(page.size() - 1);
+
+            // 扫描到时间范围末尾，下次从头开始
+            if (page.size() < limit) {
+                cursor = null;
+                break;
+            }
+        }
+        saveCursor(cursor);
+
+        if (scanned > 0) {
+            log.info("失败推送补偿完成: scanned={}, redriven={}, succeeded={}, cost={}ms, finished={}",
+                scanned, redriven, succeeded, System.currentTimeMillis() - start, cursor == null);
+        }
+        return succeeded;
+    }
+
+    /**
+     * 补偿一页失败记录
+     *
+     * @return [补偿推送数, 成功数]
+     */
+    private int[] redrive(List<PushRecord> page) {
+        Set<Long> userIds = page.stream().map(PushRecord::getUserId).collect(Collectors.toSet());
+        Set<Long> messageIds = page.stream().map(PushRecord::getMessageId).collect(Collectors.toSet());
+
+        // 每个(消息, 平台, 配置)的推送尝试汇总，用于跳过已成功或已有更新尝试的推送
+        Map<String, PushRecord> attempts = new HashMap<>();
+        Set<Long> attemptedMessageIds = new HashSet<>();
+        for (PushRecord summary : messageRecordService.getPushAttemptSummary(userIds, messageIds)) {
+            attempts.put(attemptKey(summary), summary);
+            if (!MessagePushDispatcher.SHED_PLATFORM.equals(summary.getPlatform())) {
+                attemptedMessageIds.add(summary.getMessageId());
+            }
+        }
+        Map<Long, MessageRecord> messages = messageRecordService.getMessagesByIds(messageIds).stream()
+            .collect(Collectors.toMap(MessageRecord::getId, Function.identity(), (a, b) -> a));
+
+        // 按平台分组待补偿的推送，同一页内同一(消息, 配置)只推送一次
+        Map<String, List<Redrive>> byPlatform = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (PushRecord failed : page) {
+            MessageRecord messageRecord = messages.get(failed.getMessageId());
+            if (messageRecord == null) {
+                continue;
+            }
+
+            int failedRetryCount = failed.getRetryCount() != null ? failed.getRetryCount() : 0;
+            PushRoutingTable routingTable = pushRoutingCache.getRoutingTable(failed.getUserId());
+            List<UserPushConfig> configs;
+            if (MessagePushDispatcher.SHED_PLATFORM.equals(failed.getPlatform())) {
+                // 整条消息被丢弃，已有平台推送尝试时说明已被重新投递
+                if (attemptedMessageIds.contains(failed.getMessageId())) {
+                    continue;
+                }
+                configs = route(routingTable, messageRecord);
+            } else {
+                PushRecord summary = attempts.get(attemptKey(failed));
+                if (summary != null && (Integer.valueOf(1).equals(summary.getPushStatus())
+                        || (summary.getRetryCount() != null && summary.getRetryCount() > failedRetryCount))) {
+                    continue;
+                }
+                configs = routingTable.getConfigsByPlatform(failed.getPlatform()).stream()
+                    .filter(config -> StrUtil.equals(config.getConfigName(), failed.getConfigName()))
+                    .limit(1)
+                    .toList();
+            }
+
+            int retryCount = failedRetryCount + 1;
+            for (UserPushConfig config : configs) {
+                if (seen.add(messageRecord.getId() + ":" + config.getId())) {
+                    byPlatform.computeIfAbsent(config.getPlatform(), key -> new ArrayList<>())
+                        .add(new Redrive(messageRecord, config, retryCount));
+                }
+            }
+        }
+
+        // 各平台并行，平台内限制并发
+        AtomicInteger succeeded = new AtomicInteger();
+        List<CompletableFuture<Void>> groups = new ArrayList<>();
+        int total = 0;
+        for (List<Redrive> redrives : byPlatform.values()) {
+            total += redrives.size();
+            Iterator<Redrive> iterator = redrives.iterator();
+            for (int i = 0; i < Math.min(platformConcurrency, redrives.size()); i++) {
+                groups.add(runNext(iterator, succeeded));
+            }
+        }
+        CompletableFuture.allOf(groups.toArray(new CompletableFuture[0])).join();
+        return new int[]{total, succeeded.get()};
+    }
+
+    /**
+     * 依次执行平台内的补偿推送，上一个完成后再取下一个
+     */
+    private CompletableFuture<Void> runNext(Iterator<Redrive> iterator, AtomicInteger succeeded) {
+        Redrive redrive;
+        synchronized (iterator) {
+            if (!iterator.hasNext()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            redrive = iterator.next();
+        }
+
+        CompletableFuture<PushRecord> push;
+        try {
+            push = pushServiceManager.pushToSpecificPlatformAsync(redrive.messageRecord(), redrive.config(),
+                redrive.retryCount()).toCompletableFuture();
+        } catch (Exception e) {
+            push = CompletableFuture.failedFuture(e);
+        }
+        return push.handle((pushRecord, error) -> {
+                if (error == null && pushRecord != null && Integer.valueOf(1).equals(pushRecord.getPushStatus())) {
+                    succeeded.incrementAndGet();
+                }
+                return null;
+            })
+            .thenCompose(ignored -> runNext(iterator, succeeded));
+    }
+
+    /**
+     * 按标签路由整条消息的推送配置
+     */
+    private List<UserPushConfig> route(PushRoutingTable routingTable, MessageRecord messageRecord) {
+        List<UserPushConfig> configs = routingTable.route(messageRecord.getTags());
+        if (messageRecord.getPushedPlatforms() != null && !messageRecord.getPushedPlatforms().isEmpty()) {
+            configs = configs.stream()
+                .filter(config -> messageRecord.getPushedPlatforms().contains(config.getPlatform()))
+                .toList();
+        }
+        return configs;
+    }
+
+    private String attemptKey(PushRecord pushRecord) {
+        return pushRecord.getMessageId() + "|" + pushRecord.getPlatform() + "|" + pushRecord.getConfigName();
+    }
+
+    /**
+     * 读取扫描位置（格式：创建时间|记录ID）
+     */
+    private PushRecord loadCursor() {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(CacheConstants.PUSH_RECONCILE_CURSOR);
+            if (StrUtil.isBlank(value)) {
+                return null;
+            }
+            String[] parts = value.split("\\|");
+            PushRecord cursor = new PushRecord();
+            cursor.setCreateTime(LocalDateTime.parse(parts[0], CURSOR_TIME_FORMATTER));
+            cursor.setId(Long.parseLong(parts[1]));
+            return cursor;
+        } catch (Exception e) {
+            log.warn("读取失败推送补偿扫描位置失败，从头开始: error={}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveCursor(PushRecord cursor) {
+        if (cursor == null) {
+            stringRedisTemplate.delete(CacheConstants.PUSH_RECONCILE_CURSOR);
+        } else {
+            stringRedisTemplate.opsForValue().set(CacheConstants.PUSH_RECONCILE_CURSOR,
+                cursor.getCreateTime().format(CURSOR_TIME_FORMATTER) + "|" + cursor.getId());
+        }
+    }
+
+    /**
+     * 待补偿的推送
+     */
+    private record Redrive(MessageRecord messageRecord, UserPushConfig config, int retryCount) {
+    }
+}
@@ -0,0 +1,294 @@
+package xyz.ersut.message.service.queue;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.dto.IngestQuotaUsage;
+import xyz.ersut.message.entity.SysUser;
+import xyz.ersut.message.service.cache.LocalCacheInvalidator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 推送接口配额限制
+ * 按用户限制每秒、每分钟、每天接收的消息数，采用滑动窗口计数（当前窗口计数 + 上一窗口计数按剩余比例折算），
+ * 三个窗口在一次Lua脚本中检查并扣减，集群内共享；被拒绝的用户在本地记录可重试时间，到期前直接拒绝，不再访问Redis
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngestQuotaLimiter {
+
+    /**
+     * 申请配额：KEYS为各窗口的 上一窗口计数键、当前窗口计数键（按秒、分钟、天）
+     * ARGV[1]=当前时间 ARGV[2]=申请数量 ARGV[3..8]=各窗口的 窗口时长（毫秒）、上限（0为不限制）
+     * 返回 [获得的数量, 下一条消息需要等待的毫秒数（全部获得时为0）]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+        local now = tonumber(ARGV[1])
+        local n = tonumber(ARGV[2])
+        local granted = n
+        for i = 0, 2 do
+            local size = tonumber(ARGV[3 + i * 2])
+            local limit = tonumber(ARGV[4 + i * 2])
+            if limit > 0 then
+                local prev = tonumber(redis.call('GET', KEYS[1 + i * 2]) or '0')
+                local curr = tonumber(redis.call('GET', KEYS[2 + i * 2]) or '0')
+                local available = math.floor(limit - curr - prev * (size - now % size) / size)
+                if available < granted then
+                    granted = math.max(available, 0)
+                end
+            end
+        end
+
+        local retry = 0
+        for i = 0, 2 do
+            local size = tonumber(ARGV[3 + i * 2])
+            local limit = tonumber(ARGV[4 + i * 2])
+            if limit > 0 then
+                if granted > 0 then
+                    redis.call('INCRBY', KEYS[2 + i * 2], granted)
+                    redis.call('PEXPIRE', KEYS[2 + i * 2], size * 2)
+                end
+                if granted < n then
+                    local elapsed = now % size
+                    local prev = tonumber(redis.call('GET', KEYS[1 + i * 2]) or '0')
+                    local curr = tonumber(redis.call('GET', KEYS[2 + i * 2]) or '0')
+                    local wait = 0
+                    if curr + 1 > limit then
+                        -- 当前窗口已满：等到下一窗口中本窗口计数折算后留出一个名额
+                        wait = size - elapsed + math.ceil(size * (1 - (limit - 1) / curr))
+                    elseif prev * (size - elapsed) / size + curr + 1 > limit then
+                        wait = math.ceil(size - elapsed - (limit - curr - 1) * size / prev)
+                    end
+                    if wait > retry then
+                        retry = wait
+                    end
+                end
+            end
+        end
+        if granted < n and retry < 1 then
+            retry = 1
+        end
+        return {granted, retry}
+        """, List.class);
+
+    private static final String CACHE_NAME = "ingestQuota";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final LocalCacheInvalidator localCacheInvalidator;
+
+    /**
+     * 用户未设置时的默认每秒上限，0为不限制
+     */
+    @Value("${message.quota.per-second:0}")
+    private int defaultPerSecond;
+
+    /**
+     * 用户未设置时的默认每分钟上限，0为不限制
+     */
+    @Value("${message.quota.per-minute:0}")
+    private int defaultPerMinute;
+
+    /**
+     * 用户未设置时的默认每天上限，0为不限制
+     */
+    @Value("${message.quota.per-day:0}")
+    private int defaultPerDay;
+
+    /**
+     * 被拒绝用户的本地可重试时间（用户ID -> 时间戳毫秒）
+     */
+    private Cache<String, Long> blockedUntil;
+
+    @PostConstruct
+    public void init() {
+        blockedUntil = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+        localCacheInvalidator.register(CACHE_NAME, blockedUntil::invalidate);
+    }
+
+    /**
+     * 申请一条消息的配额
+     *
+     * @param user 用户
+     * @throws QuotaExceededException 超出配额
+     */
+    public void acquire(SysUser user) {
+        int granted = tryAcquire(user, 1);
+        if (granted < 1) {
+            throw new QuotaExceededException("超出推送频率限制，请稍后重试", getRetryAfterMillis(user));
+        }
+    }
+
+    /**
+     * 申请多条消息的配额，配额不足时只获得部分
+     *
+     * @param user 用户
+     * @param count 申请数量
+     * @return 获得的数量；Redis不可用时全部放行
+     */
+    public int tryAcquire(SysUser user, int count) {
+        Window[] windows = getWindows(user);
+        if (count <= 0 || windows.length == 0) {
+            return count;
+        }
+
+        // 本地预检：被拒绝的用户在可重试时间之前直接拒绝
+        String userId = String.valueOf(user.getId());
+        long now = System.currentTimeMillis();
+        Long until = blockedUntil.getIfPresent(userId);
+        if (until != null && until > now) {
+            return 0;
+        }
+
+        try {
+            List<String> keys = new ArrayList<>(6);
+            List<String> args = new ArrayList<>(8);
+            args.add(String.valueOf(now));
+            args.add(String.valueOf(count));
+            for (Window window : windows) {
+                long bucket = now / window.sizeMillis();
+                keys.add(getKey(user, window, bucket - 1));
+                keys.add(getKey(user, window, bucket));
+                args.add(String.valueOf(window.sizeMillis()));
+                args.add(String.valueOf(window.limit()));
+            }
+
+            List<?> result = stringRedisTemplate.execute(ACQUIRE_SCRIPT, keys, args.toArray());
+            if (result == null || result.size() < 2) {
+                return count;
+            }
+            int granted = Integer.parseInt(result.get(0).toString());
+            if (granted < count) {
+                long retryAfter = Long.parseLong(result.get(1).toString());
+                blockedUntil.put(userId, now + retryAfter);
+                log.info("用户超出推送频率限制: userId={}, requested={}, granted={}, retryAfter={}ms",
+                    user.getId(), count, granted, retryAfter);
+            }
+            return granted;
+        } catch (Exception e) {
+            log.warn("推送频率限制检查失败，直接放行: userId={}, error={}", user.getId(), e.getMessage());
+            return count;
+        }
+    }
+
+    /**
+     * 被拒绝后需要等待的毫秒数
+     *
+     * @param user 用户
+     * @return 毫秒数，未被拒绝时返回0
+     */
+    public long getRetryAfterMillis(SysUser user) {
+        Long until = blockedUntil.getIfPresent(String.valueOf(user.getId()));
+        return until != null ? Math.max(0, until - System.currentTimeMillis()) : 0;
+    }
+
+    /**
+     * 查询用户当前的配额使用情况
+     *
+     * @param user 用户
+     * @return 各窗口的上限和已使用数量
+     */
+    public List<IngestQuotaUsage> getUsage(SysUser user) {
+        long now = System.currentTimeMillis();
+        List<IngestQuotaUsage> usages = new ArrayList<>(3);
+        for (Window window : getAllWindows(user)) {
+            long bucket = now / window.sizeMillis();
+            List<String> counts = stringRedisTemplate.opsForValue().multiGet(
+                List.of(getKey(user, window, bucket - 1), getKey(user, window, bucket)));
+            long prev = counts != null && counts.get(0) != null ? Long.parseLong(counts.get(0)) : 0;
+            long curr = counts != null && counts.get(1) != null ? Long.parseLong(counts.get(1)) : 0;
+            long used = (long) Math.ceil(prev * (double) (window.sizeMillis() - now % window.sizeMillis()) / window.sizeMillis()) + curr;
+
+            IngestQuotaUsage usage = new IngestQuotaUsage();
+            usage.setWindow(window.name());
+            usage.setLimit(window.limit());
+            usage.setUsed(used);
+            usage.setRemaining(window.limit() > 0 ? Math.max(0, window.limit() - used) : null);
+            usages.add(usage);
+        }
+        return usages;
+    }
+
+    /**
+     * 清除所有节点上该用户的本地拒绝记录（配额调整后调用）
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        localCacheInvalidator.invalidate(CACHE_NAME, String.valueOf(userId));
+    }
+
+    /**
+     * 已开启限制的窗口
+     */
+    private Window[] getWindows(SysUser user) {
+        return getAllWindows(user).stream().filter(window -> window.limit() > 0).toArray(Window[]::new);
+    }
+
+    private List<Window> getAllWindows(SysUser user) {
+        return List.of(
+            new Window("second", 1000L, resolveLimit(user.getIngestQuotaPerSecond(), defaultPerSecond)),
+            new Window("minute", 60 * 1000L, resolveLimit(user.getIngestQuotaPerMinute(), defaultPerMinute)),
+            new Window("day", 24 * 60 * 60 * 1000L, resolveLimit(user.getIngestQuotaPerDay(), defaultPerDay)));
+    }
+
+    private int resolveLimit(Integer userLimit, int defaultLimit) {
+        return userLimit != null ? userLimit : defaultLimit;
+    }
+
+    private String getKey(SysUser user, Window window, long bucket) {
+        return CacheConstants.INGEST_QUOTA_PREFIX + user.getId() + ":" + window.name() + ":" + bucket;
+    }
+
+    /**
+     * 限制窗口
+     *
+     * @param name 窗口名称
+     * @param sizeMillis 窗口时长（毫秒）
+     * @param limit 上限，0为不限制
+     */
+    private record Window(String name, long sizeMillis, int limit) {
+    }
+
+    /**
+     * 超出推送频率限制异常，调用方应在retryAfterMillis毫秒后重试
+     */
+    @Getter
+    public static class QuotaExceededException extends RuntimeException {
+
+        /**
+         * 需要等待的毫秒数
+         */
+        private final long retryAfterMillis;
+
+        public QuotaExceededException(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        /**
+         * 需要等待的秒数（向上取整，至少1秒），用于Retry-After响应头
+         */
+        public long getRetryAfterSeconds() {
+            return Math.max(1, (retryAfterMillis + 999) / 1000);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package xyz.ersut.message.service.queue;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.SysUser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 消息去重
+ * 以（用户ID, 标题, 副标题, 内容, 标签）的哈希为键，在用户设置的去重窗口内通过一次SET NX占用并记录首条消息的ID，
+ * 窗口内重复的消息不再保存和推送，直接返回首条消息的ID
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageDeduplicator {
+
+    /**
+     * 占用去重键：KEYS[1]=去重键 ARGV[1]=消息ID ARGV[2]=去重窗口（毫秒）
+     * 占用成功返回空，已存在时返回首条消息的ID
+     */
+    private static final RedisScript<String> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+            return false
+        end
+        return redis.call('GET', KEYS[1])
+        """, String.class);
+
+    /**
+     * 释放去重键：只删除本消息占用的键 KEYS[1]=去重键 ARGV[1]=消息ID
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 用户未设置去重窗口时的默认值（秒），0为不去重
+     */
+    @Value("${message.dedupe.default-window:0}")
+    private int defaultWindowSeconds;
+
+    /**
+     * 检查消息是否重复，不重复时占用去重键
+     *
+     * @param user 用户
+     * @param messageRecord 消息记录（已生成ID）
+     * @return 重复时返回首条消息的ID；不重复、未开启去重或Redis不可用时返回null
+     */
+    public Long claim(SysUser user, MessageRecord messageRecord) {
+        int windowSeconds = getWindowSeconds(user);
+        if (windowSeconds <= 0) {
+            return null;
+        }
+        try {
+            String original = stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(getKey(messageRecord)),
+                String.valueOf(messageRecord.getId()), String.valueOf(windowSeconds * 1000L));
+            return original != null ? Long.valueOf(original) : null;
+        } catch (Exception e) {
+            log.warn("消息去重检查失败，按新消息处理: userId={}, error={}", messageRecord.getUserId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 释放去重键（消息保存或发布失败时调用），允许重新提交
+     *
+     * @param user 用户
+     * @param messageRecord 消息记录
+     */
+    public void release(SysUser user, MessageRecord messageRecord) {
+        if (getWindowSeconds(user) <= 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(getKey(messageRecord)), String.valueOf(messageRecord.getId()));
+        } catch (Exception e) {
+            log.warn("释放消息去重键失败: messageId={}, error={}", messageRecord.getId(), e.getMessage());
+        }
+    }
+
+    private int getWindowSeconds(SysUser user) {
+        return user.getDedupeWindowSeconds() != null ? user.getDedupeWindowSeconds() : defaultWindowSeconds;
+    }
+
+    /**
+     * 去重键：字段以\0分隔，标签排序后参与计算，标签顺序不同视为同一消息
+     */
+    private String getKey(MessageRecord messageRecord) {
+        List<String> tags = messageRecord.getTags() != null ? new ArrayList<>(messageRecord.getTags()) : new ArrayList<>();
+        Collections.sort(tags);
+        String source = String.join("\0",
+            String.valueOf(messageRecord.getUserId()),
+            nullToEmpty(messageRecord.getTitle()),
+            nullToEmpty(messageRecord.getSubtitle()),
+            nullToEmpty(messageRecord.getContent()),
+            String.join("\u0001", tags));
+        return CacheConstants.MESSAGE_DEDUPE_PREFIX + messageRecord.getUserId() + ":" + DigestUtil.sha256Hex(source);
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
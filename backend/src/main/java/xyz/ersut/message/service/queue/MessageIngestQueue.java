@@ -0,0 +1,308 @@
+package xyz.ersut.message.service.queue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.service.MessageRecordService;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 消息接收队列（异步接收模式）
+ * 推送接口只将消息记录追加到Redis接收Stream（AOF持久化下可靠保存）后立即返回消息ID，
+ * 后台线程通过消费组批量读取，一条INSERT写入ClickHouse后再发布到推送队列，全部完成后确认并删除；
+ * 处理失败的消息不确认，空闲超过reclaim-min-idle后由任意节点接管重新处理（已写入的消息不会重复写入）
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageIngestQueue {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MessageRecordService messageRecordService;
+    private final MessagePushPublisher messagePushPublisher;
+
+    /**
+     * 接收模式：sync（同步保存后返回）或 async（写入接收Stream后立即返回，后台批量保存）
+     */
+    @Value("${message.ingest.mode:sync}")
+    private String ingestMode;
+
+    /**
+     * 每批保存的最大消息数
+     */
+    @Value("${message.ingest.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 阻塞拉取超时（毫秒）
+     */
+    @Value("${message.ingest.poll-timeout:1000}")
+    private long pollTimeout;
+
+    /**
+     * 未确认的消息空闲多久后允许被接管重新处理（毫秒）
+     */
+    @Value("${message.ingest.reclaim-min-idle:60000}")
+    private long reclaimMinIdle;
+
+    /**
+     * 消费组名称，与推送Stream共用
+     */
+    @Value("${message.queue.stream.group:${spring.application.name:hismsg}}")
+    private String groupName;
+
+    /**
+     * 消费者名称，默认使用主机名+进程号
+     */
+    @Value("${message.queue.stream.consumer-name:}")
+    private String consumerName;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        if (!isAsync()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForStream().createGroup(CacheConstants.MESSAGE_INGEST_STREAM, ReadOffset.from("0"), groupName);
+            log.info("创建消息接收Stream消费组: stream={}, group={}", CacheConstants.MESSAGE_INGEST_STREAM, groupName);
+        } catch (Exception e) {
+            // BUSYGROUP：消费组已存在
+            log.debug("消息接收Stream消费组已存在: group={}, message={}", groupName, e.getMessage());
+        }
+
+        running = true;
+        worker = new Thread(this::runLoop, "message-ingest");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("消息异步接收已启动: batchSize={}, pollTimeout={}ms", batchSize, pollTimeout);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (worker != null) {
+            try {
+                // 等待当前批次处理完成
+                worker.join(pollTimeout + 10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 是否为异步接收模式
+     *
+     * @return 是否为异步接收模式
+     */
+    public boolean isAsync() {
+        return "async".equalsIgnoreCase(ingestMode);
+    }
+
+    /**
+     * 追加消息记录到接收Stream
+     *
+     * @param messageRecord 消息记录（已生成ID）
+     */
+    public void append(MessageRecord messageRecord) {
+        RecordId recordId = stringRedisTemplate.opsForStream().add(toStreamRecord(messageRecord));
+        log.debug("消息已写入接收Stream: messageId={}, recordId={}", messageRecord.getId(), recordId);
+    }
+
+    /**
+     * 批量追加消息记录到接收Stream，所有消息通过一次管道提交
+     *
+     * @param messageRecords 消息记录列表（已生成ID）
+     */
+    public void appendAll(List<MessageRecord> messageRecords) {
+        if (messageRecords.isEmpty()) {
+            return;
+        }
+        List<StringRecord> records = messageRecords.stream().map(this::toStreamRecord).toList();
+        RedisSerializer<String> serializer = stringRedisTemplate.getStringSerializer();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (StringRecord record : records) {
+                connection.streamCommands().xAdd(record.serialize(serializer));
+            }
+            return null;
+        });
+        log.debug("消息已批量写入接收Stream: size={}", records.size());
+    }
+
+    /**
+     * 处理循环：优先接管空闲过久的未确认消息，然后读取新消息
+     */
+    private void runLoop() {
+        Consumer consumer = Consumer.from(groupName, resolveConsumerName());
+        long nextReclaimTime = 0;
+        while (running) {
+            try {
+                if (System.currentTimeMillis() >= nextReclaimTime) {
+                    List<MapRecord<String, Object, Object>> claimed = claimIdleRecords();
+                    if (!claimed.isEmpty()) {
+                        persist(claimed, true);
+                        continue;
+                    }
+                    nextReclaimTime = System.currentTimeMillis() + reclaimMinIdle / 2;
+                }
+
+                List<MapRecord<String, Object, Object>> records = readNewRecords(consumer);
+                if (records != null && !records.isEmpty()) {
+                    persist(records, false);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.error("处理消息接收Stream失败，稍后重试: error={}", e.getMessage(), e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 阻塞读取分配给本消费者的新消息
+     */
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> readNewRecords(Consumer consumer) {
+        return stringRedisTemplate.opsForStream().read(consumer,
+            StreamReadOptions.empty().count(batchSize).block(Duration.ofMillis(pollTimeout)),
+            StreamOffset.create(CacheConstants.MESSAGE_INGEST_STREAM, ReadOffset.lastConsumed()));
+    }
+
+    /**
+     * 接管空闲超过reclaim-min-idle的未确认消息（包括本节点处理失败的消息）
+     */
+    private List<MapRecord<String, Object, Object>> claimIdleRecords() {
+        PendingMessages pendingMessages = stringRedisTemplate.opsForStream()
+            .pending(CacheConstants.MESSAGE_INGEST_STREAM, groupName, Range.unbounded(), batchSize);
+        if (pendingMessages == null || pendingMessages.isEmpty()) {
+            return List.of();
+        }
+
+        Duration minIdle = Duration.ofMillis(reclaimMinIdle);
+        RecordId[] idle = pendingMessages.stream()
+            .filter(pending -> pending.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0)
+            .map(PendingMessage::getId)
+            .toArray(RecordId[]::new);
+        if (idle.length == 0) {
+            return List.of();
+        }
+        // XCLAIM自带空闲时间校验，多个节点同时接管时只有一个会成功
+        return stringRedisTemplate.opsForStream()
+            .claim(CacheConstants.MESSAGE_INGEST_STREAM, groupName, resolveConsumerName(), minIdle, idle);
+    }
+
+    /**
+     * 一条INSERT保存整批消息记录，发布到推送队列后确认并删除；失败时抛出异常，整批不确认
+     *
+     * @param records Stream记录
+     * @param redelivered 是否为接管的消息（可能已经写入过ClickHouse）
+     */
+    private void persist(List<MapRecord<String, Object, Object>> records, boolean redelivered) {
+        List<MessageRecord> messageRecords = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Object payload = record.getValue().get(CacheConstants.MESSAGE_PUSH_STREAM_FIELD);
+            try {
+                messageRecords.add(objectMapper.readValue(String.valueOf(payload), MessageRecord.class));
+            } catch (Exception e) {
+                log.error("解析消息接收Stream记录失败，直接确认: recordId={}, error={}", record.getId(), e.getMessage());
+            }
+        }
+
+        if (!messageRecords.isEmpty()) {
+            // 接管的消息可能已写入但未确认，只写入尚不存在的记录；推送重复发布由推送幂等保护跳过
+            List<MessageRecord> toSave = messageRecords;
+            if (redelivered) {
+                Set<Long> savedIds = messageRecordService.getMessagesByIds(
+                        messageRecords.stream().map(MessageRecord::getId).toList())
+                    .stream().map(MessageRecord::getId).collect(Collectors.toSet());
+                toSave = messageRecords.stream().filter(messageRecord -> !savedIds.contains(messageRecord.getId())).toList();
+            }
+            if (!toSave.isEmpty() && !messageRecordService.saveMessageRecords(toSave)) {
+                throw new RuntimeException("保存消息记录失败");
+            }
+            messagePushPublisher.publishAll(messageRecords);
+            log.debug("接收的消息已保存并发送到推送队列: size={}, saved={}, redelivered={}",
+                messageRecords.size(), toSave.size(), redelivered);
+        }
+
+        acknowledge(records.stream().map(MapRecord::getId).toArray(RecordId[]::new));
+    }
+
+    /**
+     * 确认并删除已处理的记录（XACK + XDEL），接收Stream只保留未处理完的消息
+     */
+    private void acknowledge(RecordId[] recordIds) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[] key = stringRedisTemplate.getStringSerializer().serialize(CacheConstants.MESSAGE_INGEST_STREAM);
+            connection.streamCommands().xAck(key, groupName, recordIds);
+            connection.streamCommands().xDel(key, recordIds);
+            return null;
+        });
+    }
+
+    private StringRecord toStreamRecord(MessageRecord messageRecord) {
+        try {
+            return StreamRecords.string(Map.of(CacheConstants.MESSAGE_PUSH_STREAM_FIELD, objectMapper.writeValueAsString(messageRecord)))
+                .withStreamKey(CacheConstants.MESSAGE_INGEST_STREAM);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化消息记录失败: " + e.getMessage(), e);
+        }
+    }
+
+    private String resolveConsumerName() {
+        if (StrUtil.isBlank(consumerName)) {
+            String hostName;
+            try {
+                hostName = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                hostName = IdUtil.fastSimpleUUID().substring(0, 8);
+            }
+            consumerName = hostName + "-" + ManagementFactory.getRuntimeMXBean().getPid();
+        }
+        return consumerName;
+    }
+}
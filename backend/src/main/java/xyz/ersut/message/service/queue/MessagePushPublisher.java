@@ -0,0 +1,129 @@
+package xyz.ersut.message.service.queue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.enums.MessageLevel;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 推送消息发布器
+ * 根据队列模式将消息发布到Redis Stream（默认，按消息级别写入对应的推送Stream）或发布订阅频道；
+ * Stream不按长度裁剪，消费者确认后删除记录，未确认的消息保留到处理完成或转入死信队列
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessagePushPublisher {
+
+    private static final String MODE_STREAM = "stream";
+    private static final String MODE_PUBSUB = "pubsub";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 队列模式：stream（消费组，集群内每条消息只被消费一次）或 pubsub（每个节点都会收到）
+     */
+    @Value("${message.queue.mode:stream}")
+    private String queueMode;
+
+    /**
+     * 校验队列模式：未知模式下既没有Stream消费者也没有订阅，消息会无人消费，启动时直接失败
+     */
+    @PostConstruct
+    public void validateQueueMode() {
+        if (!MODE_STREAM.equalsIgnoreCase(queueMode) && !MODE_PUBSUB.equalsIgnoreCase(queueMode)) {
+            throw new IllegalStateException("不支持的队列模式: message.queue.mode=" + queueMode + "，可选值: stream、pubsub");
+        }
+    }
+
+    /**
+     * 发布消息到推送队列
+     *
+     * @param messageRecord 消息记录
+     */
+    public void publish(MessageRecord messageRecord) {
+        if (isStreamMode()) {
+            RecordId recordId = stringRedisTemplate.opsForStream().add(
+                StreamRecords.string(Map.of(CacheConstants.MESSAGE_PUSH_STREAM_FIELD, toJson(messageRecord)))
+                    .withStreamKey(MessageLevel.fromCode(messageRecord.getLevel()).getStreamKey()));
+            log.debug("消息已写入推送Stream: messageId={}, recordId={}", messageRecord.getId(), recordId);
+        } else {
+            redisTemplate.convertAndSend(CacheConstants.MESSAGE_PUSH_QUEUE, messageRecord);
+        }
+    }
+
+    /**
+     * 批量发布消息到推送队列，所有消息通过一次管道提交
+     *
+     * @param messageRecords 消息记录列表
+     */
+    public void publishAll(List<MessageRecord> messageRecords) {
+        if (messageRecords.isEmpty()) {
+            return;
+        }
+        if (isStreamMode()) {
+            List<StringRecord> records = messageRecords.stream()
+                .map(messageRecord -> StreamRecords.string(Map.of(CacheConstants.MESSAGE_PUSH_STREAM_FIELD, toJson(messageRecord)))
+                    .withStreamKey(MessageLevel.fromCode(messageRecord.getLevel()).getStreamKey()))
+                .toList();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (StringRecord record : records) {
+                    connection.streamCommands().xAdd(record.serialize(stringRedisTemplate.getStringSerializer()));
+                }
+                return null;
+            });
+            log.debug("消息已批量写入推送Stream: size={}", records.size());
+        } else {
+            RedisSerializer<String> keySerializer = stringRedisTemplate.getStringSerializer();
+            @SuppressWarnings("unchecked")
+            RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+            byte[] channel = keySerializer.serialize(CacheConstants.MESSAGE_PUSH_QUEUE);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (MessageRecord messageRecord : messageRecords) {
+                    connection.publish(channel, valueSerializer.serialize(messageRecord));
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 是否为Stream模式
+     *
+     * @return 是否为Stream模式
+     */
+    public boolean isStreamMode() {
+        return MODE_STREAM.equalsIgnoreCase(queueMode);
+    }
+
+    /**
+     * 序列化消息记录，与发布订阅模式使用同一个ObjectMapper，消费端解析方式保持一致
+     */
+    private String toJson(MessageRecord messageRecord) {
+        try {
+            return objectMapper.writeValueAsString(messageRecord);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("序列化推送消息失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package xyz.ersut.message.service.queue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import cn.hutool.core.util.StrUtil;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.dto.PushDeadLetter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 推送死信队列
+ * 重试耗尽或超过最大投递次数的推送写入按用户划分的Redis Stream，保留失败原因和尝试历史，供查询和重放
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushDeadLetterQueue {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 每个用户保留的最大死信数（近似裁剪）
+     */
+    @Value("${message.dead-letter.max-length:10000}")
+    private long maxLength;
+
+    /**
+     * 写入死信
+     *
+     * @param deadLetter 死信
+     */
+    public void add(PushDeadLetter deadLetter) {
+        try {
+            String key = getKey(deadLetter.getUserId());
+            stringRedisTemplate.opsForStream().add(
+                StreamRecords.string(Map.of(CacheConstants.MESSAGE_DEAD_LETTER_FIELD, objectMapper.writeValueAsString(deadLetter)))
+                    .withStreamKey(key),
+                RedisStreamCommands.XAddOptions.maxlen(maxLength).approximateTrimming(true));
+            log.warn("推送已写入死信队列: messageId={}, platform={}, configName={}, source={}, attempts={}, error={}",
+                deadLetter.getMessageId(), deadLetter.getPlatform(), deadLetter.getConfigName(),
+                deadLetter.getSource(), deadLetter.getAttempts(), deadLetter.getLastError());
+        } catch (Exception e) {
+            log.error("写入死信队列失败: messageId={}, platform={}, error={}",
+                deadLetter.getMessageId(), deadLetter.getPlatform(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从新到旧查询死信
+     *
+     * @param userId 用户ID
+     * @param before 从该死信ID之前开始查询（不含），为空时从最新开始
+     * @param count 最大返回数量
+     * @param scanLimit 最多扫描的死信数，避免过滤条件很少命中时扫描整个Stream
+     * @param filter 过滤条件
+     * @return 死信列表
+     */
+    public List<PushDeadLetter> listNewest(Long userId, String before, int count, int scanLimit,
+                                           Predicate<PushDeadLetter> filter) {
+        List<PushDeadLetter> result = new ArrayList<>(count);
+        String cursor = before;
+        int scanned = 0;
+        while (result.size() < count && scanned < scanLimit) {
+            int batch = Math.min(Math.max(count, 100), scanLimit - scanned);
+            Range<String> range = StrUtil.isBlank(cursor) ? Range.unbounded()
+                : Range.of(Range.Bound.unbounded(), Range.Bound.exclusive(cursor));
+            List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                .reverseRange(getKey(userId), range, Limit.limit().count(batch));
+            if (records == null || records.isEmpty()) {
+                break;
+            }
+            for (MapRecord<String, Object, Object> record : records) {
+                cursor = record.getId().getValue();
+                scanned++;
+                PushDeadLetter deadLetter = parse(record);
+                if (deadLetter != null && filter.test(deadLetter)) {
+                    result.add(deadLetter);
+                    if (result.size() >= count) {
+                        break;
+                    }
+                }
+            }
+            if (records.size() < batch) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从旧到新读取死信
+     *
+     * @param userId 用户ID
+     * @param after 从该死信ID之后开始读取（不含），为空时从最早开始
+     * @param count 最大读取数量
+     * @return 死信列表（含无法解析的记录，其消息记录为空）
+     */
+    public List<PushDeadLetter> readOldest(Long userId, String after, int count) {
+        Range<String> range = StrUtil.isBlank(after) ? Range.unbounded()
+            : Range.of(Range.Bound.exclusive(after), Range.Bound.unbounded());
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+            .range(getKey(userId), range, Limit.limit().count(count));
+        List<PushDeadLetter> result = new ArrayList<>();
+        if (records != null) {
+            for (MapRecord<String, Object, Object> record : records) {
+                PushDeadLetter deadLetter = parse(record);
+                if (deadLetter == null) {
+                    deadLetter = new PushDeadLetter();
+                    deadLetter.setId(record.getId().getValue());
+                }
+                result.add(deadLetter);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 根据ID查询死信
+     *
+     * @param userId 用户ID
+     * @param id 死信ID
+     * @return 死信，不存在时返回null
+     */
+    public PushDeadLetter get(Long userId, String id) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+            .range(getKey(userId), Range.closed(id, id));
+        return records == null || records.isEmpty() ? null : parse(records.get(0));
+    }
+
+    /**
+     * 删除死信
+     *
+     * @param userId 用户ID
+     * @param ids 死信ID
+     * @return 删除数量
+     */
+    public long delete(Long userId, Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        Long deleted = stringRedisTemplate.opsForStream().delete(getKey(userId), ids.toArray(new String[0]));
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * 用户的死信数量
+     *
+     * @param userId 用户ID
+     * @return 死信数量
+     */
+    public long size(Long userId) {
+        Long size = stringRedisTemplate.opsForStream().size(getKey(userId));
+        return size != null ? size : 0;
+    }
+
+    private PushDeadLetter parse(MapRecord<String, Object, Object> record) {
+        Object payload = record.getValue().get(CacheConstants.MESSAGE_DEAD_LETTER_FIELD);
+        if (payload == null) {
+            return null;
+        }
+        try {
+            PushDeadLetter deadLetter = objectMapper.readValue(payload.toString(), PushDeadLetter.class);
+            deadLetter.setId(record.getId().getValue());
+            return deadLetter;
+        } catch (Exception e) {
+            log.warn("解析死信失败: recordId={}, error={}", record.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String getKey(Long userId) {
+        return CacheConstants.MESSAGE_DEAD_LETTER_PREFIX + userId;
+    }
+}
@@ -0,0 +1,285 @@
+package xyz.ersut.message.service.queue;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.enums.MessageLevel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分级推送调度器
+ * 每个消息级别一条有界队列：紧急队列严格优先，并有只处理紧急消息的预留工作线程；
+ * 其余级别按权重平滑轮询（高:普通:低 默认4:2:1），低级别积压时不会完全饿死。
+ * 指标：push.lane.queue.depth（队列长度）、push.lane.wait（排队时间）、push.lane.latency（从消息创建到推送处理完成），均按lane区分
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushLaneExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 工作线程数（不含紧急预留线程）
+     */
+    @Value("${message.queue.dispatch.workers:16}")
+    private int workers;
+
+    /**
+     * 只处理紧急消息的预留工作线程数
+     */
+    @Value("${message.queue.dispatch.critical-reserved:2}")
+    private int criticalReserved;
+
+    /**
+     * 每个级别的队列容量
+     */
+    @Value("${message.queue.dispatch.queue-capacity:500}")
+    private int queueCapacity;
+
+    /**
+     * 高、普通、低级别的调度权重
+     */
+    @Value("#{${message.queue.dispatch.weights:{high:4,normal:2,low:1}}}")
+    private Map<String, Integer> weights;
+
+    /**
+     * 停止时等待队列中任务完成的时间（秒）
+     */
+    @Value("${message.queue.dispatch.await-termination:60}")
+    private long awaitTermination;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition anyAvailable = lock.newCondition();
+    private final Condition criticalAvailable = lock.newCondition();
+    private final Map<MessageLevel, Lane> lanes = new EnumMap<>(MessageLevel.class);
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        for (MessageLevel level : MessageLevel.values()) {
+            int weight = level == MessageLevel.CRITICAL ? 0 : Math.max(1, weights.getOrDefault(level.getCode(), 1));
+            Lane lane = new Lane(level, weight,
+                Timer.builder("push.lane.wait")
+                    .description("消息在分级调度队列中的排队时间")
+                    .tag("lane", level.getCode())
+                    .register(meterRegistry),
+                Timer.builder("push.lane.latency")
+                    .description("从消息创建到推送处理完成的时间")
+                    .tag("lane", level.getCode())
+                    .register(meterRegistry));
+            lanes.put(level, lane);
+            Gauge.builder("push.lane.queue.depth", lane, this::depth)
+                .description("分级调度队列中等待的消息数")
+                .tag("lane", level.getCode())
+                .register(meterRegistry);
+        }
+
+        running = true;
+        for (int i = 1; i <= criticalReserved; i++) {
+            startWorker("push-lane-critical-" + i, true);
+        }
+        for (int i = 1; i <= workers; i++) {
+            startWorker("push-lane-" + i, false);
+        }
+        log.info("分级推送调度器已启动: workers={}, criticalReserved={}, queueCapacity={}, weights={}",
+            workers, criticalReserved, queueCapacity, weights);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            running = false;
+            anyAvailable.signalAll();
+            criticalAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        // 工作线程处理完队列中的任务后退出
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(awaitTermination);
+        for (Thread thread : threads) {
+            try {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * 提交任务到对应级别的队列
+     *
+     * @param level 消息级别
+     * @param createTime 消息创建时间（毫秒时间戳），用于统计推送延迟，未知时传0
+     * @param task 任务
+     * @return 是否已接收；队列已满或调度器已停止时返回false
+     */
+    public boolean submit(MessageLevel level, long createTime, Runnable task) {
+        Lane lane = lanes.get(level);
+        lock.lock();
+        try {
+            if (!running || lane.queue.size() >= queueCapacity) {
+                return false;
+            }
+            lane.queue.addLast(new LaneTask(task, System.nanoTime(), createTime));
+            if (level == MessageLevel.CRITICAL) {
+                criticalAvailable.signal();
+            }
+            anyAvailable.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 队列中等待的任务数
+     *
+     * @param level 消息级别
+     * @return 任务数
+     */
+    public int getQueueSize(MessageLevel level) {
+        return depth(lanes.get(level));
+    }
+
+    private int depth(Lane lane) {
+        lock.lock();
+        try {
+            return lane.queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void startWorker(String name, boolean criticalOnly) {
+        Thread thread = new Thread(() -> runWorker(criticalOnly), name);
+        thread.start();
+        threads.add(thread);
+    }
+
+    private void runWorker(boolean criticalOnly) {
+        while (true) {
+            Polled polled;
+            try {
+                polled = take(criticalOnly);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (polled == null) {
+                return;
+            }
+
+            LaneTask task = polled.task();
+            polled.lane().waitTimer.record(System.nanoTime() - task.enqueueTime(), TimeUnit.NANOSECONDS);
+            try {
+                task.runnable().run();
+            } catch (Throwable e) {
+                log.error("分级调度任务执行异常: lane={}, error={}", polled.lane().level.getCode(), e.getMessage(), e);
+            }
+            if (task.createTime() > 0) {
+                polled.lane().latencyTimer.record(Math.max(0, System.currentTimeMillis() - task.createTime()), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 取下一个任务，没有任务时等待；调度器停止且队列为空时返回null
+     */
+    private Polled take(boolean criticalOnly) throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                Polled polled = criticalOnly ? poll(lanes.get(MessageLevel.CRITICAL)) : pollWeighted();
+                if (polled != null) {
+                    return polled;
+                }
+                if (!running) {
+                    return null;
+                }
+                (criticalOnly ? criticalAvailable : anyAvailable).await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 紧急队列优先，其余队列按平滑加权轮询选择（只在非空队列之间分配）
+     */
+    private Polled pollWeighted() {
+        Polled critical = poll(lanes.get(MessageLevel.CRITICAL));
+        if (critical != null) {
+            return critical;
+        }
+
+        Lane selected = null;
+        int totalWeight = 0;
+        for (Lane lane : lanes.values()) {
+            if (lane.level == MessageLevel.CRITICAL || lane.queue.isEmpty()) {
+                continue;
+            }
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.currentWeight > selected.currentWeight) {
+                selected = lane;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        selected.currentWeight -= totalWeight;
+        return poll(selected);
+    }
+
+    private Polled poll(Lane lane) {
+        LaneTask task = lane.queue.pollFirst();
+        return task != null ? new Polled(lane, task) : null;
+    }
+
+    /**
+     * 级别队列（队列和调度权重只在持有锁时访问）
+     */
+    private static class Lane {
+
+        private final MessageLevel level;
+        private final int weight;
+        private final Timer waitTimer;
+        private final Timer latencyTimer;
+        private final ArrayDeque<LaneTask> queue = new ArrayDeque<>();
+        private int currentWeight;
+
+        Lane(MessageLevel level, int weight, Timer waitTimer, Timer latencyTimer) {
+            this.level = level;
+            this.weight = weight;
+            this.waitTimer = waitTimer;
+            this.latencyTimer = latencyTimer;
+        }
+    }
+
+    private record LaneTask(Runnable runnable, long enqueueTime, long createTime) {
+    }
+
+    private record Polled(Lane lane, LaneTask task) {
+    }
+}
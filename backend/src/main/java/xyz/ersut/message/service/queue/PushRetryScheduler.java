@@ -0,0 +1,340 @@
+package xyz.ersut.message.service.queue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import xyz.ersut.message.constant.CacheConstants;
+import xyz.ersut.message.dto.PushDeadLetter;
+import xyz.ersut.message.dto.PushRetryTask;
+import xyz.ersut.message.entity.MessageRecord;
+import xyz.ersut.message.entity.PushRecord;
+import xyz.ersut.message.entity.UserPushConfig;
+import xyz.ersut.message.service.UserPushConfigService;
+import xyz.ersut.message.service.push.PushDeliveryGuard;
+import xyz.ersut.message.service.push.PushRateLimiter;
+import xyz.ersut.message.service.push.PushServiceManager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 推送重试调度器
+ * 失败和被限流的推送按到期时间写入Redis有序集合，各节点定时批量领取到期任务重新推送，重试耗尽后转入死信队列；
+ * 领取时将任务的分值顺延一个租约时间而不是直接删除，节点在处理过程中宕机时任务会在租约到期后被重新领取
+ *
+ * @author ersut
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PushRetryScheduler {
+
+    /**
+     * 写入重试任务：KEYS[1]=重试队列 KEYS[2]=任务数据 ARGV[1]=成员 ARGV[2]=到期时间 ARGV[3]=任务数据
+     */
+    private static final RedisScript<Long> SCHEDULE_SCRIPT = new DefaultRedisScript<>("""
+        redis.call('HSET', KEYS[2], ARGV[1], ARGV[3])
+        redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+        return 1
+        """, Long.class);
+
+    /**
+     * 领取到期任务：KEYS[1]=重试队列 KEYS[2]=任务数据 ARGV[1]=当前时间 ARGV[2]=数量 ARGV[3]=租约到期时间
+     * 返回 [成员1, 任务数据1, 成员2, 任务数据2, ...]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+        local members = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+        local result = {}
+        for _, member in ipairs(members) do
+            local payload = redis.call('HGET', KEYS[2], member)
+            if payload then
+                redis.call('ZADD', KEYS[1], ARGV[3], member)
+                table.insert(result, member)
+                table.insert(result, payload)
+            else
+                redis.call('ZREM', KEYS[1], member)
+            end
+        end
+        return result
+        """, List.class);
+
+    /**
+     * 确认任务完成：KEYS[1]=重试队列 KEYS[2]=任务数据 ARGV[1]=成员
+     */
+    private static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>("""
+        redis.call('ZREM', KEYS[1], ARGV[1])
+        redis.call('HDEL', KEYS[2], ARGV[1])
+        return 1
+        """, Long.class);
+
+    private static final DateTimeFormatter HISTORY_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final PushServiceManager pushServiceManager;
+    private final UserPushConfigService userPushConfigService;
+    private final PushDeadLetterQueue pushDeadLetterQueue;
+
+    /**
+     * 最大重试次数
+     */
+    @Value("${message.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * 首次重试延迟（毫秒），之后每次翻倍
+     */
+    @Value("${message.retry.base-delay:30000}")
+    private long baseDelay;
+
+    /**
+     * 最大重试延迟（毫秒）
+     */
+    @Value("${message.retry.max-delay:3600000}")
+    private long maxDelay;
+
+    /**
+     * 单次领取的最大任务数
+     */
+    @Value("${message.retry.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 领取后的租约时间（毫秒），超过后未确认的任务会被重新领取
+     */
+    @Value("${message.retry.lease:300000}")
+    private long lease;
+
+    /**
+     * 推送失败后安排第一次重试
+     *
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param error 失败原因
+     */
+    public void scheduleRetry(MessageRecord messageRecord, UserPushConfig config, String error) {
+        PushRetryTask task = new PushRetryTask();
+        task.setMessageRecord(messageRecord);
+        task.setConfigId(config.getId());
+        task.setPlatform(config.getPlatform());
+        task.setConfigName(config.getConfigName());
+        task.setAttempt(1);
+        task.setLastError(error);
+        addHistory(task, "首次推送", error);
+        schedule(task);
+    }
+
+    /**
+     * 推送被限流时延迟推送，不计入重试次数
+     *
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param delayMillis 延迟毫秒数
+     */
+    public void scheduleDelayed(MessageRecord messageRecord, UserPushConfig config, long delayMillis) {
+        PushRetryTask task = new PushRetryTask();
+        task.setMessageRecord(messageRecord);
+        task.setConfigId(config.getId());
+        task.setPlatform(config.getPlatform());
+        task.setConfigName(config.getConfigName());
+        task.setAttempt(0);
+        schedule(task, delayMillis + ThreadLocalRandom.current().nextLong(delayMillis / 2 + 1));
+    }
+
+    /**
+     * 重放死信：在指定时间后重新推送，重试次数重新计算
+     *
+     * @param messageRecord 消息记录
+     * @param config 推送配置
+     * @param delayMillis 延迟毫秒数
+     */
+    public void scheduleReplay(MessageRecord messageRecord, UserPushConfig config, long delayMillis) {
+        PushRetryTask task = new PushRetryTask();
+        task.setMessageRecord(messageRecord);
+        task.setConfigId(config.getId());
+        task.setPlatform(config.getPlatform());
+        task.setConfigName(config.getConfigName());
+        task.setAttempt(0);
+        schedule(task, Math.max(delayMillis, 0));
+    }
+
+    /**
+     * 领取并执行到期的重试任务
+     *
+     * @return 本次处理的任务数
+     */
+    @SuppressWarnings("unchecked")
+    public int processDueRetries() {
+        long now = System.currentTimeMillis();
+        List<String> claimed = stringRedisTemplate.execute(CLAIM_SCRIPT,
+            List.of(CacheConstants.MESSAGE_RETRY_ZSET, CacheConstants.MESSAGE_RETRY_PAYLOAD),
+            String.valueOf(now), String.valueOf(batchSize), String.valueOf(now + lease));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(claimed.size() / 2);
+        for (int i = 0; i + 1 < claimed.size(); i += 2) {
+            String member = claimed.get(i);
+            String payload = claimed.get(i + 1);
+            futures.add(retry(member, payload));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        log.info("处理推送重试任务完成: count={}", futures.size());
+        return futures.size();
+    }
+
+    /**
+     * 执行单个重试任务
+     */
+    private CompletableFuture<Void> retry(String member, String payload) {
+        PushRetryTask task;
+        try {
+            task = objectMapper.readValue(payload, PushRetryTask.class);
+        } catch (Exception e) {
+            log.error("解析推送重试任务失败，丢弃: member={}, error={}", member, e.getMessage());
+            acknowledge(member);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        UserPushConfig config = userPushConfigService.getById(task.getConfigId());
+        if (config == null || !Integer.valueOf(1).equals(config.getIsEnabled())) {
+            log.info("推送配置已删除或禁用，放弃重试: member={}, configName={}", member, task.getConfigName());
+            acknowledge(member);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        MessageRecord messageRecord = task.getMessageRecord();
+        return pushServiceManager.pushToSpecificPlatformAsync(messageRecord, config, task.getAttempt())
+            .<Void>handle((pushRecord, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                if (cause instanceof PushRateLimiter.RateLimitedException rateLimited) {
+                    // 被限流时未发起推送，保持重试次数不变，等待限流额度恢复
+                    long delay = rateLimited.getWaitMillis();
+                    schedule(task, delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+                    return null;
+                }
+                if (cause instanceof PushDeliveryGuard.DuplicateDeliveryException) {
+                    // 已推送成功或其他节点正在推送
+                    log.info("推送已完成或正在进行，放弃重试: member={}", member);
+                    acknowledge(member);
+                    return null;
+                }
+                if (error == null && isSuccess(pushRecord)) {
+                    log.info("推送重试成功: messageId={}, platform={}, configName={}, attempt={}",
+                        messageRecord.getId(), config.getPlatform(), config.getConfigName(), task.getAttempt());
+                    acknowledge(member);
+                    return null;
+                }
+
+                String reason = cause != null ? cause.getMessage()
+                    : (pushRecord != null ? pushRecord.getErrorMessage() : "未知错误");
+                addHistory(task, task.getAttempt() > 0 ? "第" + task.getAttempt() + "次重试" : "延迟推送", reason);
+                task.setLastError(reason);
+                if (task.getAttempt() >= maxAttempts) {
+                    log.error("推送重试次数已用完，转入死信队列: messageId={}, platform={}, configName={}, attempts={}, error={}",
+                        messageRecord.getId(), config.getPlatform(), config.getConfigName(), task.getAttempt(), reason);
+                    pushDeadLetterQueue.add(toDeadLetter(task, config));
+                    acknowledge(member);
+                    return null;
+                }
+
+                task.setAttempt(task.getAttempt() + 1);
+                schedule(task);
+                return null;
+            })
+            .toCompletableFuture();
+    }
+
+    /**
+     * 按退避时间写入重试队列
+     */
+    private void schedule(PushRetryTask task) {
+        schedule(task, computeDelay(task.getAttempt()));
+    }
+
+    /**
+     * 延迟指定时间后写入重试队列
+     */
+    private void schedule(PushRetryTask task, long delayMillis) {
+        String member = task.getMessageRecord().getId() + ":" + task.getConfigId();
+        long dueTime = System.currentTimeMillis() + delayMillis;
+        try {
+            stringRedisTemplate.execute(SCHEDULE_SCRIPT,
+                List.of(CacheConstants.MESSAGE_RETRY_ZSET, CacheConstants.MESSAGE_RETRY_PAYLOAD),
+                member, String.valueOf(dueTime), objectMapper.writeValueAsString(task));
+            log.info("推送失败任务已加入重试队列: member={}, platform={}, attempt={}, dueTime={}",
+                member, task.getPlatform(), task.getAttempt(), dueTime);
+        } catch (Exception e) {
+            log.error("加入重试队列失败: member={}, error={}", member, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 计算退避时间：base * 2^(attempt-1)，不超过maxDelay，并在[delay/2, delay]内随机抖动，避免重试集中到期
+     */
+    private long computeDelay(int attempt) {
+        long delay = baseDelay << Math.min(Math.max(attempt - 1, 0), 20);
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * 记录一次失败，只保留最近的maxAttempts+1条
+     */
+    private void addHistory(PushRetryTask task, String stage, String error) {
+        if (task.getErrorHistory() == null) {
+            task.setErrorHistory(new ArrayList<>());
+        }
+        task.getErrorHistory().add(LocalDateTime.now().format(HISTORY_TIME_FORMATTER) + " " + stage + ": " + error);
+        while (task.getErrorHistory().size() > maxAttempts + 1) {
+            task.getErrorHistory().remove(0);
+        }
+    }
+
+    private PushDeadLetter toDeadLetter(PushRetryTask task, UserPushConfig config) {
+        PushDeadLetter deadLetter = new PushDeadLetter();
+        deadLetter.setUserId(task.getMessageRecord().getUserId());
+        deadLetter.setMessageId(task.getMessageRecord().getId());
+        deadLetter.setMessageRecord(task.getMessageRecord());
+        deadLetter.setConfigId(config.getId());
+        deadLetter.setPlatform(config.getPlatform());
+        deadLetter.setConfigName(config.getConfigName());
+        deadLetter.setSource("retry");
+        // 首次推送 + 重试次数
+        deadLetter.setAttempts(task.getAttempt() + 1);
+        deadLetter.setLastError(task.getLastError());
+        deadLetter.setErrorHistory(task.getErrorHistory());
+        deadLetter.setDeadTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        return deadLetter;
+    }
+
+    private void acknowledge(String member) {
+        try {
+            stringRedisTemplate.execute(ACK_SCRIPT,
+                List.of(CacheConstants.MESSAGE_RETRY_ZSET, CacheConstants.MESSAGE_RETRY_PAYLOAD), member);
+        } catch (Exception e) {
+            log.error("确认推送重试任务失败: member={}, error={}", member, e.getMessage());
+        }
+    }
+
+    private boolean isSuccess(PushRecord pushRecord) {
+        return pushRecord != null && Integer.valueOf(1).equals(pushRecord.getPushStatus());
+    }
+}
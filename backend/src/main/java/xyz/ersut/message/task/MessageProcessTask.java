@@ -5,6 +5,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import xyz.ersut.message.service.MessageForwardService;
+import xyz.ersut.message.service.queue.FailedPushSweeper;
+import xyz.ersut.message.service.queue.PushRetryScheduler;
+
 /**
  * 消息处理定时任务
  * 
@@ -16,6 +20,12 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class MessageProcessTask {
     
+    private final PushRetryScheduler pushRetryScheduler;
+
+    private final FailedPushSweeper failedPushSweeper;
+
+    private final MessageForwardService messageForwardService;
+    
 //    private final MessageListener messageQueueProcessor;
 //
 //    /**
@@ -32,19 +42,48 @@ public class MessageProcessTask {
 //    }
     
     /**
-     * 处理重试队列中的消息
-     * 每分钟执行一次
+     * 处理重试队列中到期的推送任务
+     * 默认每5秒执行一次，单次处理一批，队列积压时连续处理直到没有到期任务
      */
-//    @Scheduled(fixedRate = 60000)
+    @Scheduled(fixedDelayString = "${message.retry.poll-interval:5000}")
     public void processRetryQueue() {
         try {
-            // TODO: 处理重试队列
-            log.debug("处理重试队列...");
+            while (pushRetryScheduler.processDueRetries() > 0) {
+                log.debug("处理重试队列...");
+            }
         } catch (Exception e) {
             log.error("定时处理重试队列失败: {}", e.getMessage(), e);
         }
     }
     
+    /**
+     * 推送窗口已结束的合并消息
+     * 默认每秒执行一次，积压时连续处理直到没有到期的合并窗口
+     */
+    @Scheduled(fixedDelayString = "${message.coalesce.poll-interval:1000}")
+    public void flushCoalescedPushes() {
+        try {
+            while (messageForwardService.flushCoalescedPushes() > 0) {
+                log.debug("处理合并推送...");
+            }
+        } catch (Exception e) {
+            log.error("定时处理合并推送失败: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 补偿宽限期之前仍未成功的失败推送
+     * 默认每10分钟执行一次，集群内同一时间只有一个节点执行
+     */
+    @Scheduled(fixedDelayString = "${message.reconcile.interval:600000}", initialDelay = 60000)
+    public void reconcileFailedPushes() {
+        try {
+            failedPushSweeper.sweep();
+        } catch (Exception e) {
+            log.error("失败推送补偿失败: {}", e.getMessage(), e);
+        }
+    }
+    
     /**
      * 清理过期的消息记录
      * 每天凌晨2点执行
@@ -50,6 +50,28 @@ CREATE TABLE `push_record` (
                                `push_time` DateTime COMMENT '推送时间',
                                `create_time` DateTime DEFAULT now() COMMENT '创建时间'
 ) ENGINE = MergeTree ORDER BY (`user_id`,`id`) PARTITION BY (toYYYYMM(create_time)) PRIMARY KEY (`user_id`,`id`) Comment '推送记录表（保留12个月数据）' TTL create_time + toIntervalMonth(12) SETTINGS index_granularity = 8192;
+-- message_push_stat DDL
+-- 推送统计由push_record追加写入后经物化视图汇总，查询时与message_record合并，避免ALTER TABLE UPDATE
+CREATE TABLE `message_push_stat` (
+                                     `message_id` UInt64 COMMENT '消息ID',
+                                     `success_count` SimpleAggregateFunction(sum, UInt64) COMMENT '推送成功次数（按推送尝试计数）',
+                                     `fail_count` SimpleAggregateFunction(sum, UInt64) COMMENT '推送失败次数（按推送尝试计数，含之后重试成功的尝试）',
+                                     `pushed_platforms` SimpleAggregateFunction(groupUniqArrayArray, Array(String)) COMMENT '推送成功的平台列表',
+                                     `update_time` SimpleAggregateFunction(max, DateTime) COMMENT '最近推送时间'
+) ENGINE = AggregatingMergeTree ORDER BY (`message_id`) PRIMARY KEY (`message_id`) Comment '消息推送统计表（保留12个月数据）' TTL update_time + toIntervalMonth(12) SETTINGS index_granularity = 8192;
+-- message_push_stat_mv DDL
+-- platform = 'dispatch' 为调度线程池丢弃消息时的记录，不属于具体平台的推送，不计入统计
+-- 每条push_record是一次推送尝试，success_count/fail_count为尝试次数而非推送配置数：失败后重试成功的配置同时计入失败和成功
+CREATE MATERIALIZED VIEW `message_push_stat_mv` TO `message_push_stat` AS
+SELECT
+    message_id,
+    toUInt64(push_status = 1) AS success_count,
+    toUInt64(push_status = 0) AS fail_count,
+    if(push_status = 1, [platform], []) AS pushed_platforms,
+    push_time AS update_time
+FROM push_record
+WHERE platform != 'dispatch';
+-- 历史消息的推送统计已通过旧的mutation写入message_record，物化视图只汇总创建之后的推送记录，无需回填（回填会重复计数）
 -- message_record Indexes
 ;
 -- message_stats_daily Indexes
@@ -24,6 +24,10 @@ CREATE TABLE `sys_user` (
                             `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
                             `deleted` tinyint(1) NOT NULL DEFAULT '0' COMMENT '删除标记（0=正常，1=删除）',
                             `user_key` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_ai_ci NOT NULL DEFAULT '' COMMENT '根据用户名md5(16)得来',
+                            `dedupe_window_seconds` int DEFAULT NULL COMMENT '消息去重窗口（秒），为空时使用系统默认值，0为不去重',
+                            `ingest_quota_per_second` int DEFAULT NULL COMMENT '推送接口每秒消息数上限，为空时使用系统默认值',
+                            `ingest_quota_per_minute` int DEFAULT NULL COMMENT '推送接口每分钟消息数上限，为空时使用系统默认值',
+                            `ingest_quota_per_day` int DEFAULT NULL COMMENT '推送接口每天消息数上限，为空时使用系统默认值',
                             PRIMARY KEY (`id`),
                             UNIQUE KEY `uk_username` (`username`),
                             KEY `idx_email` (`email`),
@@ -50,6 +54,7 @@ CREATE TABLE `user_push_config` (
                                     `is_enabled` tinyint(1) NOT NULL DEFAULT '1' COMMENT '是否启用（0=禁用，1=启用）',
                                     `sort_order` int NOT NULL DEFAULT '0' COMMENT '排序',
                                     `remark` varchar(500) DEFAULT NULL COMMENT '备注',
+                                    `coalesce_seconds` int NOT NULL DEFAULT '0' COMMENT '合并推送窗口（秒），0为不合并',
                                     `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
                                     `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
                                     `deleted` tinyint(1) NOT NULL DEFAULT '0' COMMENT '删除标记（0=正常，1=删除）',
@@ -147,6 +152,7 @@ CREATE TABLE `tag_push_config` (
                                    `push_config_ids` json COMMENT '推送配置ID列表（JSON格式）',
                                    `is_enabled` tinyint(1) NOT NULL DEFAULT '1' COMMENT '是否启用（1-启用，0-禁用）',
                                    `remark` varchar(255) DEFAULT NULL COMMENT '备注说明',
+                                   `coalesce_seconds` int NOT NULL DEFAULT '0' COMMENT '合并推送窗口（秒），0为不合并',
                                    `create_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
                                    `update_time` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
                                    `deleted` tinyint(1) NOT NULL DEFAULT '0' COMMENT '逻辑删除（0-未删除，1-已删除）',
@@ -159,3 +165,11 @@ CREATE TABLE `tag_push_config` (
 
 SET FOREIGN_KEY_CHECKS = 1;
 
+-- 已有数据库升级
+-- ALTER TABLE `sys_user` ADD COLUMN `dedupe_window_seconds` int DEFAULT NULL COMMENT '消息去重窗口（秒），为空时使用系统默认值，0为不去重' AFTER `user_key`;
+-- ALTER TABLE `user_push_config` ADD COLUMN `coalesce_seconds` int NOT NULL DEFAULT '0' COMMENT '合并推送窗口（秒），0为不合并' AFTER `remark`;
+-- ALTER TABLE `tag_push_config` ADD COLUMN `coalesce_seconds` int NOT NULL DEFAULT '0' COMMENT '合并推送窗口（秒），0为不合并' AFTER `remark`;
+-- ALTER TABLE `sys_user` ADD COLUMN `ingest_quota_per_second` int DEFAULT NULL COMMENT '推送接口每秒消息数上限，为空时使用系统默认值' AFTER `dedupe_window_seconds`,
+--     ADD COLUMN `ingest_quota_per_minute` int DEFAULT NULL COMMENT '推送接口每分钟消息数上限，为空时使用系统默认值' AFTER `ingest_quota_per_second`,
+--     ADD COLUMN `ingest_quota_per_day` int DEFAULT NULL COMMENT '推送接口每天消息数上限，为空时使用系统默认值' AFTER `ingest_quota_per_minute`;
+
@@ -0,0 +1,115 @@
+package xyz.ersut.message.processor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 短信验证码提取基准测试
+ * 对比单次扫描提取与逐条查找正则（原实现）提取验证码的耗时，两侧只做验证码提取；
+ * samples为常见短信，long为约6KB没有验证码的长文本（原实现的"有效"规则在此类文本上大量回溯）。
+ * 默认构建不编译，需启用jmh配置：
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=xyz.ersut.message.processor.SmsMessageProcessorBenchmark
+ *
+ * @author ersut
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmsMessageProcessorBenchmark {
+
+    private static final String[] SAMPLES = {
+        "验证码：880891，短信验证码2分钟内有效，请勿泄漏给他人。【中国联通】",
+        "【支付宝】验证码，请在15分钟内输入",
+        "验证码为123456，30分钟内有效",
+        "动态码: ABC123，请勿泄露",
+        "校验码：789012，有效期10分钟",
+        "您的验证码[456789]，请及时使用",
+        "【微信】验证码【XYZ789】，请妥善保管",
+        "888999，30分钟内有效，请勿泄露",
+        "短信验证码1234，请尽快使用",
+        "这是一条普通的短信消息，没有验证码或签名"
+    };
+
+    /**
+     * 原实现的验证码正则，按优先级逐条查找
+     */
+    private static final Pattern[] LEGACY_PATTERNS = {
+        Pattern.compile("验证码[:：]?\\s*([A-Za-z0-9]{4,8})"),
+        Pattern.compile("验证码为[:：]?\\s*([A-Za-z0-9]{4,8})"),
+        Pattern.compile("码[:：]?\\s*([A-Za-z0-9]{4,8})"),
+        Pattern.compile("动态码[:：]?\\s*([A-Za-z0-9]{4,8})"),
+        Pattern.compile("校验码[:：]?\\s*([A-Za-z0-9]{4,8})"),
+        Pattern.compile("([A-Za-z0-9]{4,8})\\s*[,，]?\\s*[^。]*?有效"),
+        Pattern.compile("\\b([A-Za-z0-9]{6})\\b(?=.*验证)"),
+        Pattern.compile("\\b([A-Za-z0-9]{4})\\b(?=.*验证)"),
+        Pattern.compile("\\[([A-Za-z0-9]{4,8})\\]"),
+        Pattern.compile("【([A-Za-z0-9]{4,8})】")
+    };
+
+    /**
+     * 没有验证码的长文本：多个字母数字串且没有句号和"有效"
+     */
+    private static final String LONG_TEXT = "订单ABCD1234已发货，请注意查收；".repeat(300);
+
+    private final SmsMessageProcessor processor = new SmsMessageProcessor();
+
+    @Param({"samples", "long"})
+    private String input;
+
+    private String[] messages;
+
+    @Setup
+    public void setup() {
+        messages = "long".equals(input) ? new String[]{LONG_TEXT} : SAMPLES;
+    }
+
+    @Benchmark
+    public void extractVerificationCode(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(processor.extractVerificationCode(message));
+        }
+    }
+
+    @Benchmark
+    public void legacyExtractVerificationCode(Blackhole blackhole) {
+        for (String message : messages) {
+            blackhole.consume(legacyExtract(message));
+        }
+    }
+
+    private static String legacyExtract(String content) {
+        for (Pattern pattern : LEGACY_PATTERNS) {
+            Matcher matcher = pattern.matcher(content);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SmsMessageProcessorBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package xyz.ersut.message.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 短信消息处理器测试
+ * 期望值与逐条查找正则的原实现逐一比对得出，单次扫描的提取结果需保持一致
+ *
+ * @author ersut
+ */
+class SmsMessageProcessorTest {
+
+    private final SmsMessageProcessor processor = new SmsMessageProcessor();
+
+    static Stream<Arguments> samples() {
+        return Stream.of(
+            Arguments.of("验证码：880891，短信验证码2分钟内有效，请勿泄漏给他人。【中国联通】", "【中国联通】: 880891\n"),
+            Arguments.of("【支付宝】验证码，请在15分钟内输入", null),
+            Arguments.of("验证码为123456，30分钟内有效", "验证码: 123456\n"),
+            Arguments.of("动态码: ABC123，请勿泄露", "验证码: ABC123\n"),
+            Arguments.of("校验码：789012，有效期10分钟", "验证码: 789012\n"),
+            Arguments.of("您的验证码[456789]，请及时使用", "验证码: 456789\n"),
+            Arguments.of("【微信】验证码【XYZ789】，请妥善保管", "【微信】: XYZ789\n"),
+            Arguments.of("888999，30分钟内有效，请勿泄露", "验证码: 888999\n"),
+            Arguments.of("短信验证码1234，请尽快使用", "验证码: 1234\n"),
+            Arguments.of("这是一条普通的短信消息，没有验证码或签名", null)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("samples")
+    void processSamples(String content, String expected) {
+        assertEquals(expected, processor.processSmsMessage(content));
+    }
+
+    /**
+     * \b按字母数字判断单词字符，跟在单词字符后的组合附加符号也视为单词字符
+     */
+    @Test
+    void wordBoundaryNextToCombiningMark() {
+        assertEquals("验证码: 123456\n", processor.processSmsMessage("A 123456 请验证"));
+        assertNull(processor.processSmsMessage("A\u0301123456 请验证"));
+        assertNull(processor.processSmsMessage("123456\u0301 请验证"));
+        assertNull(processor.processSmsMessage("1234\u0301 请验证"));
+        // 前面没有基础字符的组合附加符号不是单词字符
+        assertEquals("验证码: 123456\n", processor.processSmsMessage("请 \u0301123456 验证"));
+    }
+
+    /**
+     * (?=.*验证)中的.不匹配行终止符，验证二字在下一行时不提取独立的验证码
+     */
+    @Test
+    void lineTerminatorEndsVerifyLookahead() {
+        assertEquals("验证码: 123456\n", processor.processSmsMessage("您的代码是 123456 请完成验证"));
+        assertNull(processor.processSmsMessage("您的代码是 123456\n请完成验证"));
+        assertNull(processor.processSmsMessage("您的代码是 123456\r\n请完成验证"));
+        assertNull(processor.processSmsMessage("您的代码是 123456\u2028请完成验证"));
+        assertNull(processor.processSmsMessage("您的代码是 123456\u0085请完成验证"));
+    }
+
+    /**
+     * 候选验证码与“有效”之间不能隔着句号
+     */
+    @Test
+    void periodResetsValidityCandidate() {
+        assertEquals("验证码: ABCD1234\n", processor.processSmsMessage("ABCD1234，30分钟内有效"));
+        assertEquals("验证码: ABCD1234\n", processor.processSmsMessage("ABCD1234，30分钟内有效。"));
+        assertNull(processor.processSmsMessage("ABCD1234。30分钟内有效"));
+        assertNull(processor.processSmsMessage("编号ABCD。本次操作30分钟内有效"));
+    }
+
+    /**
+     * 码规则优先于动态码、校验码规则，同一条短信中更靠前的“码”先被提取
+     */
+    @Test
+    void codeRuleShadowsDynamicAndCheckCode() {
+        assertEquals("验证码: ABCD\n", processor.processSmsMessage("编码ABCD，动态码：123456"));
+        assertEquals("验证码: 9876\n", processor.processSmsMessage("条码9876，校验码：123456"));
+        assertEquals("验证码: 123456\n", processor.processSmsMessage("动态码：123456"));
+        assertEquals("验证码: 7788\n", processor.processSmsMessage("校验码 7788"));
+    }
+
+    /**
+     * 没有验证码的长文本（基准测试中的long输入）
+     */
+    @Test
+    void longTextWithoutCode() {
+        assertNull(processor.extractVerificationCode("订单ABCD1234已发货，请注意查收；".repeat(300)));
+    }
+}
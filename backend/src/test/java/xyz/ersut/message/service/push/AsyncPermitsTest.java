@@ -0,0 +1,136 @@
+package xyz.ersut.message.service.push;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 非阻塞并发许可测试
+ *
+ * @author ersut
+ */
+class AsyncPermitsTest {
+
+    private static final long LONG_WAIT = 60_000;
+
+    @Test
+    void acquiresImmediatelyWhilePermitsAvailable() {
+        AsyncPermits permits = new AsyncPermits(2);
+        assertTrue(permits.acquire(LONG_WAIT).isDone());
+        assertTrue(permits.acquire(LONG_WAIT).isDone());
+        assertEquals(0, permits.available());
+
+        CompletableFuture<Void> waiter = permits.acquire(LONG_WAIT);
+        assertFalse(waiter.isDone());
+        waiter.cancel(false);
+    }
+
+    @Test
+    void releaseHandsOffToWaitersInOrder() {
+        AsyncPermits permits = new AsyncPermits(1);
+        permits.acquire(LONG_WAIT);
+        CompletableFuture<Void> first = permits.acquire(LONG_WAIT);
+        CompletableFuture<Void> second = permits.acquire(LONG_WAIT);
+
+        permits.release();
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertFalse(second.isDone());
+        // 许可直接交给等待者，空闲数不变
+        assertEquals(0, permits.available());
+
+        permits.release();
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        permits.release();
+        assertEquals(1, permits.available());
+    }
+
+    @Test
+    void timedOutWaiterNeverTakesPermit() {
+        AsyncPermits permits = new AsyncPermits(1);
+        permits.acquire(LONG_WAIT);
+        CompletableFuture<Void> timedOut = permits.acquire(10);
+        CompletableFuture<Void> next = permits.acquire(LONG_WAIT);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> timedOut.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+
+        // 跳过已超时的等待者，许可交给下一个
+        permits.release();
+        assertTrue(timedOut.isCompletedExceptionally());
+        assertTrue(next.isDone() && !next.isCompletedExceptionally());
+        assertEquals(0, permits.available());
+
+        permits.release();
+        assertEquals(1, permits.available());
+    }
+
+    @Test
+    void releaseWithOnlyTimedOutWaitersRestoresPermit() throws Exception {
+        AsyncPermits permits = new AsyncPermits(1);
+        permits.acquire(LONG_WAIT);
+        CompletableFuture<Void> timedOut = permits.acquire(10);
+        assertThrows(ExecutionException.class, () -> timedOut.get(5, TimeUnit.SECONDS));
+
+        permits.release();
+        assertEquals(1, permits.available());
+        assertTrue(permits.acquire(LONG_WAIT).isDone());
+    }
+
+    /**
+     * 大量请求以极短的超时并发申请、释放，超时与交接同时发生时许可数不能漂移，持有数不能超过上限
+     */
+    @Test
+    void permitsDoNotDriftUnderTimeoutRace() throws Exception {
+        int limit = 4;
+        AsyncPermits permits = new AsyncPermits(limit);
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger maxHeld = new AtomicInteger();
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger timedOut = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                tasks.add(CompletableFuture.supplyAsync(
+                        () -> permits.acquire(ThreadLocalRandom.current().nextInt(0, 3)), executor)
+                    .thenCompose(acquired -> acquired.handle((ignored, error) -> error))
+                    .thenCompose(error -> {
+                        if (error != null) {
+                            timedOut.incrementAndGet();
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        granted.incrementAndGet();
+                        maxHeld.accumulateAndGet(held.incrementAndGet(), Math::max);
+                        // 在其他线程上释放，使持有许可的时间与新的申请、超时交错
+                        return CompletableFuture.runAsync(() -> {
+                            held.decrementAndGet();
+                            permits.release();
+                        }, executor);
+                    }));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(5000, granted.get() + timedOut.get());
+        assertTrue(maxHeld.get() <= limit, "同时持有的许可数超过上限: " + maxHeld.get());
+        assertEquals(limit, permits.available());
+    }
+}
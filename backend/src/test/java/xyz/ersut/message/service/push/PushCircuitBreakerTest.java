@@ -0,0 +1,137 @@
+package xyz.ersut.message.service.push;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 推送平台熔断器测试
+ *
+ * @author ersut
+ */
+class PushCircuitBreakerTest {
+
+    private static final long LONG_OPEN = 60_000;
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        PushCircuitBreaker breaker = new PushCircuitBreaker("test", 10, 5, 50, LONG_OPEN);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true);
+        }
+        assertEquals(PushCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(PushCircuitBreaker.Permission.ALLOWED, breaker.tryAcquire());
+
+        breaker.onResult(true);
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(PushCircuitBreaker.Permission.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        PushCircuitBreaker breaker = new PushCircuitBreaker("test", 10, 4, 50, LONG_OPEN);
+        breaker.onResult(true);
+        breaker.onResult(false);
+        breaker.onResult(false);
+        breaker.onResult(false);
+        // 1/4
+        assertEquals(PushCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onResult(true);
+        // 2/5
+        assertEquals(PushCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onResult(true);
+        // 3/6，达到50%
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void slidingWindowEvictsOldestOutcome() {
+        PushCircuitBreaker breaker = new PushCircuitBreaker("test", 4, 4, 75, LONG_OPEN);
+        breaker.onResult(false);
+        breaker.onResult(true);
+        breaker.onResult(true);
+        breaker.onResult(false);
+        // 2/4
+        assertEquals(PushCircuitBreaker.State.CLOSED, breaker.getState());
+        // 最早的成功被移出窗口：3/4（不移出时为3/5）
+        breaker.onResult(true);
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void minimumCallsIsCappedByWindowSize() {
+        PushCircuitBreaker breaker = new PushCircuitBreaker("test", 3, 10, 100, LONG_OPEN);
+        breaker.onResult(true);
+        breaker.onResult(true);
+        breaker.onResult(true);
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void rejectsUntilOpenDurationElapses() {
+        PushCircuitBreaker breaker = openBreaker(LONG_OPEN);
+        assertEquals(PushCircuitBreaker.Permission.REJECTED, breaker.tryAcquire());
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void firstAcquireAfterOpenDurationProbesAndOthersAreRejected() {
+        PushCircuitBreaker breaker = openBreaker(0);
+        assertEquals(PushCircuitBreaker.Permission.PROBE, breaker.tryAcquire());
+        assertEquals(PushCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(PushCircuitBreaker.Permission.REJECTED, breaker.tryAcquire());
+        assertEquals(PushCircuitBreaker.Permission.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void healthyProbeClosesAndResetsWindow() {
+        PushCircuitBreaker breaker = openBreaker(0);
+        breaker.tryAcquire();
+        // 熔断前发出的推送结果不计入
+        breaker.onResult(true);
+        breaker.onProbeResult(true);
+        assertEquals(PushCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(PushCircuitBreaker.Permission.ALLOWED, breaker.tryAcquire());
+
+        // 窗口已清空，需要重新达到最少推送次数
+        breaker.onResult(true);
+        breaker.onResult(true);
+        breaker.onResult(true);
+        assertEquals(PushCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onResult(true);
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void failedProbeReopens() {
+        PushCircuitBreaker breaker = openBreaker(0);
+        breaker.tryAcquire();
+        breaker.onProbeResult(false);
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(PushCircuitBreaker.Permission.PROBE, breaker.tryAcquire());
+    }
+
+    @Test
+    void ignoresResultsOutsideExpectedState() {
+        PushCircuitBreaker breaker = openBreaker(LONG_OPEN);
+        breaker.onResult(false);
+        breaker.onProbeResult(true);
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+
+        PushCircuitBreaker closed = new PushCircuitBreaker("test", 4, 4, 100, LONG_OPEN);
+        closed.onProbeResult(false);
+        assertEquals(PushCircuitBreaker.State.CLOSED, closed.getState());
+    }
+
+    /**
+     * 连续4次平台故障后熔断的熔断器
+     */
+    private PushCircuitBreaker openBreaker(long openDurationMillis) {
+        PushCircuitBreaker breaker = new PushCircuitBreaker("test", 4, 4, 100, openDurationMillis);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true);
+        }
+        assertEquals(PushCircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
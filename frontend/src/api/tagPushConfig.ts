@@ -8,6 +8,7 @@ export interface TagPushConfig {
   pushConfigIds: number[]
   isEnabled: number
   remark?: string
+  coalesceSeconds?: number
   createTime?: string
   updateTime?: string
 }
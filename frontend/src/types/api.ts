@@ -48,6 +48,7 @@ export interface PushConfig {
   isEnabled: number
   sortOrder?: number
   remark?: string
+  coalesceSeconds?: number
   bark?: BarkConfig
   email?: EmailConfig
   wxpusher?: WxPusherConfig